@@ -0,0 +1,60 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.Model.Enum.Allergen;
+import com.Calorizer.Bot.Service.AllergenListConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AllergenListConverter} in both directions, as run by Hibernate on every load and flush
+ * of a {@link com.Calorizer.Bot.Model.UserPhysicalData}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllergenConverterBenchmark {
+
+    @Param({"0", "3", "8"})
+    private int allergenCount;
+
+    private final AllergenListConverter converter = new AllergenListConverter();
+    private List<Allergen> allergens;
+    private String column;
+
+    @Setup
+    public void setUp() {
+        allergens = Arrays.asList(Arrays.copyOf(Allergen.values(), allergenCount));
+        column = converter.convertToDatabaseColumn(allergens);
+    }
+
+    @Benchmark
+    public String toDatabaseColumn() {
+        return converter.convertToDatabaseColumn(allergens);
+    }
+
+    @Benchmark
+    public List<Allergen> toEntityAttribute() {
+        return converter.convertToEntityAttribute(column);
+    }
+
+    @Benchmark
+    public List<Allergen> roundTrip() {
+        return converter.convertToEntityAttribute(converter.convertToDatabaseColumn(allergens));
+    }
+}
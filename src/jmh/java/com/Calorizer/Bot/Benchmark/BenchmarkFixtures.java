@@ -0,0 +1,81 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.Model.Enum.Allergen;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import com.Calorizer.Bot.Service.LocalizationService;
+
+import java.util.List;
+
+/**
+ * Shared test data for the benchmarks, built without a Spring context.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates an initialized {@link LocalizationService} with all bundles compiled.
+     *
+     * @return The localization service.
+     */
+    static LocalizationService localizationService() {
+        LocalizationService localizationService = new LocalizationService();
+        localizationService.init();
+        return localizationService;
+    }
+
+    /**
+     * Creates a user with a complete physical profile, as required for calculations and AI prompts.
+     *
+     * @param language The user's language.
+     * @return The user with its {@link UserPhysicalData} attached.
+     */
+    static User userWithCompleteProfile(Language language) {
+        User user = new User();
+        user.setChatId(123456789L);
+        user.setLanguage(language);
+
+        UserPhysicalData upd = new UserPhysicalData();
+        upd.setUser(user);
+        upd.setSex(Sex.FEMALE);
+        upd.setAge(29);
+        upd.setHeight(168);
+        upd.setWeight(61.5);
+        upd.setBodyFatPercent(24);
+        upd.setPhysicalActivityLevel(PhysicalActivityLevel.MODERATE);
+        upd.setMaingoal(MainGoal.WEIGHT_LOSS);
+        upd.setAllergens(List.of(Allergen.MILK, Allergen.PEANUTS, Allergen.SHELLFISH));
+        user.setUPD(upd);
+        return user;
+    }
+
+    /**
+     * Builds a text resembling an AI meal plan: short lines with a blank line between days.
+     *
+     * @param length The exact length of the text.
+     * @return The text.
+     */
+    static String mealPlanText(int length) {
+        String[] lines = {
+                "**Day 1**\n",
+                "- Breakfast: oatmeal with berries and almond butter (~420 kcal, P 14 / F 15 / C 58)\n",
+                "- Lunch: grilled chicken breast, quinoa and roasted vegetables (~560 kcal, P 42 / F 16 / C 55)\n",
+                "- Snack: apple and a handful of pumpkin seeds (~210 kcal)\n",
+                "- Dinner: baked salmon with sweet potato and a green salad (~590 kcal, P 38 / F 24 / C 48)\n",
+                "\n"
+        };
+        StringBuilder text = new StringBuilder(length + 128);
+        int i = 0;
+        while (text.length() < length) {
+            text.append(lines[i++ % lines.length]);
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Service.FullReportByMethods;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a {@link FullReportByMethods}, which runs all calorie formulas in its constructor,
+ * and reading its results, as done for every calculation and every AI prompt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalorieReportBenchmark {
+
+    // Non-final fields keep the inputs from being constant-folded.
+    private double weight = 82.4;
+    private double height = 181;
+    private int age = 34;
+    private double bodyFatPercent = 18.5;
+
+    @Benchmark
+    public Map<String, Double> calculateReport() {
+        return new FullReportByMethods(Sex.MALE, weight, height, age, bodyFatPercent,
+                PhysicalActivityLevel.ACTIVE, MainGoal.WEIGHT_GAIN).getResults();
+    }
+}
@@ -0,0 +1,64 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Service.LocalizationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.MessageFormat;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of one {@link LocalizationService#getTranslation} call against the previous implementation,
+ * which looked the pattern up in the {@link ResourceBundle} and parsed it with {@link MessageFormat#format} on every call.
+ * Covers a message without arguments (most buttons and labels) and a message with one argument.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalizationBenchmark {
+
+    private static final String CONSTANT_KEY = "button.command.profile";
+    private static final String FORMATTED_KEY = "greeting";
+
+    private LocalizationService localizationService;
+    private ResourceBundle bundle;
+
+    @Setup
+    public void setUp() {
+        localizationService = BenchmarkFixtures.localizationService();
+        bundle = ResourceBundle.getBundle("messages/messages", Language.Ukrainian.getLocale());
+    }
+
+    @Benchmark
+    public String legacyConstant() {
+        return MessageFormat.format(bundle.getString(CONSTANT_KEY), new Object[0]);
+    }
+
+    @Benchmark
+    public String compiledConstant() {
+        return localizationService.getTranslation(Language.Ukrainian, CONSTANT_KEY);
+    }
+
+    @Benchmark
+    public String legacyWithArgument() {
+        return MessageFormat.format(bundle.getString(FORMATTED_KEY), "Daniil");
+    }
+
+    @Benchmark
+    public String compiledWithArgument() {
+        return localizationService.getTranslation(Language.Ukrainian, FORMATTED_KEY, "Daniil");
+    }
+}
@@ -0,0 +1,46 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.Service.MessageSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MessageSender#splitMessage} on AI outputs between one and ten Telegram messages long.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageSplitBenchmark {
+
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+
+    @Param({"4000", "10000", "20000", "40000"})
+    private int length;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkFixtures.mealPlanText(length);
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return MessageSender.splitMessage(text, MAX_MESSAGE_LENGTH);
+    }
+}
@@ -0,0 +1,61 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.Service.Flow.ProfileDraft;
+import com.Calorizer.Bot.Service.Flow.ProfileFlow;
+import com.Calorizer.Bot.Service.Flow.ProfileStep;
+import com.Calorizer.Bot.Service.Flow.StepFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link StepFlow} engine behind the calorie calculation and profile update flows in steps per second:
+ * a complete pass through {@link ProfileFlow#STEPS} with valid answers, and rejected answers that stay on their step.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfileFlowBenchmark {
+
+    // Non-final fields keep the inputs from being constant-folded.
+    private String[] validAnswers = {"1", "181", "82.4", "34", "18.5", "4", "3"};
+    private String[] invalidAnswers = {"3", "20", "abc", "121", "71", "0", "4"};
+
+    @Benchmark
+    @OperationsPerInvocation(7)
+    public ProfileDraft completeFlow() {
+        ProfileDraft draft = new ProfileDraft();
+        ProfileStep step = ProfileFlow.STEPS.first();
+        for (String answer : validAnswers) {
+            ProfileFlow.STEPS.accept(step, answer, draft);
+            step = ProfileFlow.STEPS.next(step);
+        }
+        return draft;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(7)
+    public int rejectedAnswers() {
+        ProfileDraft draft = new ProfileDraft();
+        int rejected = 0;
+        ProfileStep[] steps = ProfileStep.values();
+        for (int i = 0; i < steps.length; i++) {
+            if (ProfileFlow.STEPS.accept(steps[i], invalidAnswers[i], draft) == StepFlow.Result.INVALID) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+}
@@ -0,0 +1,65 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.MainBot.Processing.AiWorkerPool;
+import com.Calorizer.Bot.MainBot.Processing.UserRateLimiter;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Service.GeminiCircuitBreaker;
+import com.Calorizer.Bot.Service.LocalizationService;
+import com.Calorizer.Bot.Service.MealPlanParser;
+import com.Calorizer.Bot.Service.MealPlanRenderer;
+import com.Calorizer.Bot.Service.NutritionRecommendationService;
+import com.Calorizer.Bot.Service.RecommendationCache;
+import com.Calorizer.Bot.Service.StaticRecommendationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link NutritionRecommendationService#buildPrompt} for a complete profile with allergens.
+ * No request is sent to Gemini; the API client is created with a dummy key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuildBenchmark {
+
+    @Param({"English", "Ukrainian"})
+    private Language language;
+
+    private NutritionRecommendationService recommendationService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        LocalizationService localizationService = BenchmarkFixtures.localizationService();
+        recommendationService = new NutritionRecommendationService(localizationService,
+                new RecommendationCache(new SimpleMeterRegistry(), false, 0, 0, 50), new SimpleMeterRegistry(),
+                new AiWorkerPool(new SimpleMeterRegistry(), 1, 0, 0, 1, 60, 3600),
+                new GeminiCircuitBreaker(new SimpleMeterRegistry(), 20, 10, 50, 80, 30, 60, 2, 90),
+                new StaticRecommendationService(localizationService),
+                new UserRateLimiter(new SimpleMeterRegistry(), 1, 30, 10, 3, 10, 3, 20, 0.5, 1_000, 3600),
+                new MealPlanParser(), new MealPlanRenderer(localizationService), "benchmark-key", "", false, false,
+                false, 0, 0, 1);
+        user = BenchmarkFixtures.userWithCompleteProfile(language);
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return recommendationService.buildPrompt(user, "week", "no pork, at most three meals a day");
+    }
+}
@@ -0,0 +1,224 @@
+package com.Calorizer.Bot.Benchmark;
+
+import com.Calorizer.Bot.BotConfiguration.BotConfiguration;
+import com.Calorizer.Bot.MainBot.CallbackCallback.CallbackHandler;
+import com.Calorizer.Bot.MainBot.CommandHandler.CommandHandler;
+import com.Calorizer.Bot.MainBot.CommandHandler.UnknownCommandHandler;
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
+import com.Calorizer.Bot.MainBot.Processing.AiRequestTracker;
+import com.Calorizer.Bot.MainBot.Processing.CallbackAcknowledger;
+import com.Calorizer.Bot.MainBot.Processing.RateLimitGate;
+import com.Calorizer.Bot.MainBot.Processing.UpdateDeduplicator;
+import com.Calorizer.Bot.MainBot.Processing.UserRateLimiter;
+import com.Calorizer.Bot.MainBot.Routing.CallbackRouter;
+import com.Calorizer.Bot.MainBot.Routing.CommandRegistry;
+import com.Calorizer.Bot.MainBot.TelegramBot;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Service.CalorieCalculationFlowService;
+import com.Calorizer.Bot.Service.Implementation.ConversationStateStoreFactory;
+import com.Calorizer.Bot.Service.LocalizationService;
+import com.Calorizer.Bot.Service.ProfileUpdateDataService;
+import com.Calorizer.Bot.Service.UpdateUserContext;
+import com.Calorizer.Bot.Service.UserCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures routing of synthetic {@link Update}s through {@link TelegramBot#processUpdate}: the rate limit check,
+ * the flow checks, the {@link CommandRegistry} lookup and the {@link CallbackRouter} trie, with no-op handlers
+ * standing in for the real ones. {@link TelegramBot#onUpdateReceived} only hands the same call to the per-chat executor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdateRoutingBenchmark {
+
+    private static final long CHAT_ID = 123456789L;
+
+    /**
+     * The kind of update routed in one benchmark run.
+     */
+    public enum UpdateKind {
+        SLASH_COMMAND, BUTTON_LABEL, UNKNOWN_TEXT, CALLBACK_KEY, CALLBACK_PREFIX
+    }
+
+    /**
+     * Handler that only counts its invocations.
+     */
+    private static final class NoOpHandler implements CommandHandler, CallbackHandler {
+        private final String command;
+        private final String buttonKey;
+        private final Set<String> callbackKeys;
+        private final Set<String> callbackPrefixes;
+        private long handled;
+
+        private NoOpHandler(String command, String buttonKey, Set<String> callbackKeys, Set<String> callbackPrefixes) {
+            this.command = command;
+            this.buttonKey = buttonKey;
+            this.callbackKeys = callbackKeys;
+            this.callbackPrefixes = callbackPrefixes;
+        }
+
+        @Override
+        public String getCommand() {
+            return command;
+        }
+
+        @Override
+        public String getButtonKey() {
+            return buttonKey;
+        }
+
+        @Override
+        public Set<String> getCallbackKeys() {
+            return callbackKeys;
+        }
+
+        @Override
+        public Set<String> getCallbackPrefixes() {
+            return callbackPrefixes;
+        }
+
+        @Override
+        public void handle(AbsSender absSender, Update update) {
+            handled++;
+        }
+    }
+
+    @Param({"SLASH_COMMAND", "BUTTON_LABEL", "UNKNOWN_TEXT", "CALLBACK_KEY", "CALLBACK_PREFIX"})
+    private UpdateKind kind;
+
+    private ConversationStateStoreFactory stateStoreFactory;
+    private UserRateLimiter rateLimiter;
+    private TelegramBot telegramBot;
+    private Update update;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LocalizationService localizationService = BenchmarkFixtures.localizationService();
+        stateStoreFactory = new ConversationStateStoreFactory(meterRegistry, 30, 10_000, 60);
+        // Limits high enough that every routed update is admitted.
+        rateLimiter = new UserRateLimiter(meterRegistry, 1e15, 1e-9, 1e15, 1e-9, 1e15, 1e-9, 1e15, 1e-9, 1_000, 3600);
+
+        // Mirrors the commands, button keys and callback data of the real handlers.
+        List<NoOpHandler> handlers = List.of(
+                new NoOpHandler("/start", null, Set.of(), Set.of()),
+                new NoOpHandler("/profile", "button.command.profile", Set.of(), Set.of()),
+                new NoOpHandler("/changelanguage", "button.command.changelanguage", Set.of(), Set.of()),
+                new NoOpHandler("/calculatecalorieforday", "button.command.calculatecalorieforday", Set.of(), Set.of()),
+                new NoOpHandler("/recommendation_static", "button.command.recommendation_static", Set.of(), Set.of()),
+                new NoOpHandler("/recommendation_ai", "button.command.recommendation_ai", Set.of(), Set.of("AI_REC_")),
+                new NoOpHandler("/allergy", "button.command.allergies", Set.of(), Set.of("ALLERGY_TOGGLE:")),
+                new NoOpHandler(null, null, Set.of("AGREE_CALCULATE", "DISAGREE_CALCULATE",
+                        "USE_PROFILE_DATA_CALCULATE", "START_MANUAL_CALC_INPUT"), Set.of()),
+                new NoOpHandler(null, null, Set.of(), Set.of("SET_LANGUAGE_")),
+                new NoOpHandler(null, null, Set.of(), Set.of("UPDATE_")),
+                new NoOpHandler(null, null, Set.of("PROFILE_DATA_UPDATE_YES", "PROFILE_DATA_UPDATE_NO",
+                        "PROFILE_UPDATE_ALL", "PROFILE_UPDATE_ONE_BY_ONE"), Set.of()));
+        UnknownCommandHandler unknownCommandHandler = new UnknownCommandHandler(null, localizationService, null) {
+            @Override
+            public void handle(AbsSender absSender, Update update) {
+            }
+        };
+
+        List<CommandHandler> commandHandlers = new ArrayList<>();
+        for (NoOpHandler handler : handlers) {
+            if (handler.getCommand() != null) {
+                commandHandlers.add(handler);
+            }
+        }
+        commandHandlers.add(unknownCommandHandler);
+        List<CallbackHandler> callbackHandlers = new ArrayList<>();
+        for (NoOpHandler handler : handlers) {
+            if (!handler.getCallbackKeys().isEmpty() || !handler.getCallbackPrefixes().isEmpty()) {
+                callbackHandlers.add(handler);
+            }
+        }
+
+        BotConfiguration botConfiguration = new BotConfiguration();
+        botConfiguration.setBotName("benchmark_bot");
+        botConfiguration.setBotToken("0:benchmark");
+        telegramBot = new TelegramBot(botConfiguration,
+                new CalorieCalculationFlowService(null, localizationService, null, stateStoreFactory),
+                new CommandRegistry(commandHandlers, unknownCommandHandler, localizationService),
+                new CallbackRouter(callbackHandlers),
+                new ProfileUpdateDataService(null, localizationService, null, stateStoreFactory,
+                        new KeyboardFactory(localizationService)),
+                null,
+                new UpdateUserContext(new UserCache(null, meterRegistry, false, 0, 0), localizationService, null),
+                new RateLimitGate(rateLimiter, null, localizationService, null),
+                new AiRequestTracker(meterRegistry),
+                new CallbackAcknowledger(meterRegistry, new UserCache(null, meterRegistry, false, 0, 0), localizationService),
+                new UpdateDeduplicator(meterRegistry, 4096, 1000, 100_000));
+
+        update = switch (kind) {
+            case SLASH_COMMAND -> textUpdate("/profile");
+            case BUTTON_LABEL -> textUpdate(localizationService.getTranslation(Language.Ukrainian, "button.command.allergies"));
+            case UNKNOWN_TEXT -> textUpdate("what should I eat today?");
+            case CALLBACK_KEY -> callbackUpdate("PROFILE_UPDATE_ONE_BY_ONE");
+            case CALLBACK_PREFIX -> callbackUpdate("ALLERGY_TOGGLE:PEANUTS");
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        stateStoreFactory.shutdown();
+        rateLimiter.shutdown();
+    }
+
+    @Benchmark
+    public void route() {
+        telegramBot.processUpdate(update);
+    }
+
+    private static Update textUpdate(String text) {
+        Update update = new Update();
+        update.setUpdateId(1);
+        update.setMessage(message(text));
+        return update;
+    }
+
+    private static Update callbackUpdate(String data) {
+        CallbackQuery callbackQuery = new CallbackQuery();
+        callbackQuery.setId("1");
+        callbackQuery.setData(data);
+        callbackQuery.setMessage(message("menu"));
+        Update update = new Update();
+        update.setUpdateId(1);
+        update.setCallbackQuery(callbackQuery);
+        return update;
+    }
+
+    private static Message message(String text) {
+        Message message = new Message();
+        message.setMessageId(1);
+        message.setChat(new Chat(CHAT_ID, "private"));
+        message.setText(text);
+        return message;
+    }
+}
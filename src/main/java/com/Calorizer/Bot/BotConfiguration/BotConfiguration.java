@@ -7,7 +7,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 /**
  * Configuration class for Telegram bot properties.
- * It loads bot name and token from 'application.properties'.
+ * It loads bot name and token from 'application.properties', as well as the update
+ * ingestion mode ("polling" or "webhook") and the webhook settings.
  */
 @Configuration
 @Setter
@@ -24,4 +25,35 @@ public class BotConfiguration {
      */
     @Value("${bot.token}")
     private String botToken;
+    /**
+     * How updates are received: "polling" (default, long polling via getUpdates)
+     * or "webhook" (Telegram POSTs updates to {@link #webhookPath} on the embedded web server).
+     */
+    @Value("${bot.mode:polling}")
+    private String mode;
+    /**
+     * Public base URL of this application (e.g. "https://calorizer.example.com"), used to register the webhook.
+     */
+    @Value("${bot.webhook.url:}")
+    private String webhookUrl;
+    /**
+     * Path of the webhook endpoint on the embedded web server.
+     */
+    @Value("${bot.webhook.path:/telegram/webhook}")
+    private String webhookPath;
+    /**
+     * Secret token Telegram sends in the "X-Telegram-Bot-Api-Secret-Token" header of every webhook request.
+     * If empty, the header is not checked.
+     */
+    @Value("${bot.webhook.secret:}")
+    private String webhookSecret;
+
+    /**
+     * Checks whether the bot is configured to receive updates via webhook.
+     *
+     * @return {@code true} in webhook mode, {@code false} in long polling mode.
+     */
+    public boolean isWebhookMode() {
+        return "webhook".equalsIgnoreCase(mode);
+    }
 }
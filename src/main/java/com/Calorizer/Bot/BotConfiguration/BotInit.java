@@ -3,34 +3,76 @@ package com.Calorizer.Bot.BotConfiguration;
 import com.Calorizer.Bot.MainBot.TelegramBot;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
 /**
  * Component responsible for initializing and registering the Telegram bot.
  * This class ensures the bot starts running after the Spring application context is initialized.
+ * Depending on {@code bot.mode}, updates are either pulled by long polling or pushed by Telegram
+ * to the webhook endpoint served by {@link com.Calorizer.Bot.Controller.TelegramWebhookController}.
  */
 @Slf4j
 @Component
 public class BotInit {
     private final TelegramBot telegramBot;
+    private final BotConfiguration botConfiguration;
 
-    public BotInit(TelegramBot telegramBot) {
+    public BotInit(TelegramBot telegramBot, BotConfiguration botConfiguration) {
         this.telegramBot = telegramBot;
+        this.botConfiguration = botConfiguration;
     }
 
     /**
      * Initializes the Telegram Bots API and registers the bot.
+     * In webhook mode the webhook URL is registered with Telegram instead of starting a polling session.
+     *
+     * @throws BeanInitializationException in webhook mode, if the webhook URL is missing or Telegram rejects it,
+     *                                     so that a misconfigured webhook fails the startup instead of leaving
+     *                                     the bot without any source of updates.
      */
     @PostConstruct
     public void init() {
+        if (botConfiguration.isWebhookMode()) {
+            try {
+                registerWebhook();
+            } catch (Exception e) {
+                log.error("Failed to register the webhook: {}", e.getMessage(), e);
+                throw new BeanInitializationException("Failed to register the Telegram webhook", e);
+            }
+            return;
+        }
         try {
             TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
             botsApi.registerBot(telegramBot);
+            log.info("Bot registered in long polling mode.");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to register the bot in long polling mode: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registers the webhook URL (base URL + endpoint path) and the optional secret token with Telegram.
+     *
+     * @throws Exception if the webhook URL is not configured or Telegram rejects the request.
+     */
+    private void registerWebhook() throws Exception {
+        String baseUrl = botConfiguration.getWebhookUrl();
+        if (baseUrl == null || baseUrl.isBlank()) {
+            throw new IllegalStateException("bot.mode=webhook requires bot.webhook.url to be set");
+        }
+        String url = baseUrl.replaceAll("/+$", "") + botConfiguration.getWebhookPath();
+        SetWebhook.SetWebhookBuilder setWebhook = SetWebhook.builder().url(url);
+        String secret = botConfiguration.getWebhookSecret();
+        if (secret != null && !secret.isBlank()) {
+            setWebhook.secretToken(secret);
+        } else {
+            log.warn("Webhook secret is not configured; webhook requests will not be authenticated.");
         }
+        telegramBot.execute(setWebhook.build());
+        log.info("Bot registered in webhook mode at {}", url);
     }
 }
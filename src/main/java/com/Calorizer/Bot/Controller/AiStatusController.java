@@ -0,0 +1,49 @@
+package com.Calorizer.Bot.Controller;
+
+import com.Calorizer.Bot.MainBot.Processing.AiWorkerPool;
+import com.Calorizer.Bot.Service.GeminiCircuitBreaker;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Status endpoint of the AI recommendation path: the state of the {@link GeminiCircuitBreaker}
+ * and the load of the {@link AiWorkerPool}, e.g.
+ * {@code curl http://localhost:8081/status/ai}.
+ */
+@RestController
+public class AiStatusController {
+
+    /**
+     * Body of the status response.
+     *
+     * @param breaker The circuit breaker snapshot.
+     * @param running The number of running AI calls.
+     * @param queued  The number of AI calls waiting for a worker.
+     */
+    public record AiStatus(GeminiCircuitBreaker.Snapshot breaker, int running, int queued) {
+    }
+
+    private final GeminiCircuitBreaker circuitBreaker;
+    private final AiWorkerPool aiWorkerPool;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param circuitBreaker Circuit breaker guarding the Gemini API.
+     * @param aiWorkerPool   Pool running the AI calls.
+     */
+    public AiStatusController(GeminiCircuitBreaker circuitBreaker, AiWorkerPool aiWorkerPool) {
+        this.circuitBreaker = circuitBreaker;
+        this.aiWorkerPool = aiWorkerPool;
+    }
+
+    /**
+     * Returns the current AI status.
+     *
+     * @return The breaker snapshot and the worker pool load.
+     */
+    @GetMapping("/status/ai")
+    public AiStatus status() {
+        return new AiStatus(circuitBreaker.snapshot(), aiWorkerPool.runningCount(), aiWorkerPool.queueDepth());
+    }
+}
@@ -0,0 +1,95 @@
+package com.Calorizer.Bot.Controller;
+
+import com.Calorizer.Bot.MainBot.Processing.UserRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Shows and changes the rules of the {@link UserRateLimiter} at runtime, e.g.
+ * {@code curl -X PUT -H "X-Admin-Token: ..." -H "Content-Type: application/json"
+ * -d '{"capacity":2,"refillSeconds":20}' http://localhost:8081/status/rate-limits/AI}.
+ * Changes require the "X-Admin-Token" header to match {@code bot.admin.token}; while no token is configured,
+ * the rules can only be read.
+ */
+@RestController
+public class RateLimitController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitController.class);
+
+    private final UserRateLimiter rateLimiter;
+    private final String adminToken;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param rateLimiter The per-user rate limiter.
+     * @param adminToken  Token required for changes, empty to disable them.
+     */
+    public RateLimitController(UserRateLimiter rateLimiter, @Value("${bot.admin.token:}") String adminToken) {
+        this.rateLimiter = rateLimiter;
+        this.adminToken = adminToken;
+    }
+
+    /**
+     * Returns the current rules.
+     *
+     * @return The rule of every limit.
+     */
+    @GetMapping("/status/rate-limits")
+    public Map<UserRateLimiter.Limit, UserRateLimiter.Rule> rules() {
+        return rateLimiter.getRules();
+    }
+
+    /**
+     * Replaces the rule of one limit.
+     *
+     * @param token The admin token header.
+     * @param limit The limit to change.
+     * @param rule  The new rule.
+     * @return 200 with the new rule, 400 for an invalid rule, or 403 without a valid admin token.
+     */
+    @PutMapping("/status/rate-limits/{limit}")
+    public ResponseEntity<UserRateLimiter.Rule> updateRule(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @PathVariable UserRateLimiter.Limit limit,
+            @RequestBody Map<String, Double> rule) {
+        if (!isAuthorized(token)) {
+            logger.warn("Rejected rate limit change for {} without a valid admin token.", limit);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        UserRateLimiter.Rule newRule;
+        try {
+            newRule = new UserRateLimiter.Rule(rule.getOrDefault("capacity", 0d), rule.getOrDefault("refillSeconds", 0d));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        rateLimiter.setRule(limit, newRule);
+        return ResponseEntity.ok(newRule);
+    }
+
+    /**
+     * Compares the received admin token with the configured one in constant time.
+     *
+     * @param token The received header value.
+     * @return {@code true} if an admin token is configured and the tokens match.
+     */
+    private boolean isAuthorized(String token) {
+        if (adminToken == null || adminToken.isEmpty() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.Calorizer.Bot.Controller;
+
+import com.Calorizer.Bot.BotConfiguration.BotConfiguration;
+import com.Calorizer.Bot.MainBot.TelegramBot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Webhook endpoint receiving updates pushed by Telegram when {@code bot.mode=webhook}.
+ * It is served by the same embedded web server as {@link ControllerWebCheck}.
+ * The update is handed to {@link TelegramBot#onUpdateReceived(Update)}, which only enqueues it
+ * for per-chat processing, so the endpoint answers 200 immediately and Telegram never waits
+ * for handlers, database calls or AI requests.
+ *
+ * <p>For local testing a recorded update can be POSTed directly, e.g.
+ * {@code curl -H "Content-Type: application/json" -d @update.json http://localhost:8081/telegram/webhook}.</p>
+ */
+@RestController
+@ConditionalOnProperty(name = "bot.mode", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramWebhookController.class);
+
+    private final TelegramBot telegramBot;
+    private final BotConfiguration botConfiguration;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param telegramBot      The bot whose dispatch path processes the received updates.
+     * @param botConfiguration Configuration holding the webhook secret token.
+     */
+    public TelegramWebhookController(TelegramBot telegramBot, BotConfiguration botConfiguration) {
+        this.telegramBot = telegramBot;
+        this.botConfiguration = botConfiguration;
+    }
+
+    /**
+     * Accepts an update from Telegram.
+     * If a webhook secret is configured, requests without the matching
+     * "X-Telegram-Bot-Api-Secret-Token" header are rejected with 401.
+     *
+     * @param secretToken The secret token header sent by Telegram, if any.
+     * @param update      The deserialized {@link Update}.
+     * @return 200 once the update has been handed off, or 401 for unauthenticated requests.
+     */
+    @PostMapping("${bot.webhook.path:/telegram/webhook}")
+    public ResponseEntity<Void> onUpdate(
+            @RequestHeader(value = "X-Telegram-Bot-Api-Secret-Token", required = false) String secretToken,
+            @RequestBody Update update) {
+        if (!isAuthorized(secretToken)) {
+            logger.warn("Rejected webhook request with missing or invalid secret token.");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        telegramBot.onUpdateReceived(update);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Compares the received secret token with the configured one in constant time.
+     *
+     * @param secretToken The received header value.
+     * @return {@code true} if no secret is configured or the tokens match.
+     */
+    private boolean isAuthorized(String secretToken) {
+        String expected = botConfiguration.getWebhookSecret();
+        if (expected == null || expected.isEmpty()) {
+            return true;
+        }
+        return secretToken != null && MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), secretToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
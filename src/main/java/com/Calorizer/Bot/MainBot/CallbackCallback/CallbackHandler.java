@@ -3,18 +3,46 @@ package com.Calorizer.Bot.MainBot.CallbackCallback;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 
+import java.util.Set;
+
 /**
  * Interface for handling Telegram bot {@link Update}s that contain a {@link org.telegram.telegrambots.meta.api.objects.CallbackQuery}.
  * Implementations of this interface define specific logic for different types of callback data.
+ * Handlers declare the callback data they accept as exact keys and/or prefixes; these declarations are
+ * compiled into a prefix trie by {@link com.Calorizer.Bot.MainBot.Routing.CallbackRouter} at startup.
+ * Handlers do not answer the callback query themselves: it is acknowledged as soon as the update arrives
+ * (see {@link com.Calorizer.Bot.MainBot.Processing.CallbackAcknowledger}).
  */
 public interface CallbackHandler {
     /**
-     * Checks if this handler supports the given callback data.
+     * Returns the exact callback data values handled by this handler (e.g. "AGREE_CALCULATE").
+     *
+     * @return A set of exact callback keys, empty by default.
+     */
+    default Set<String> getCallbackKeys() {
+        return Set.of();
+    }
+
+    /**
+     * Returns the callback data prefixes handled by this handler (e.g. "SET_LANGUAGE_").
+     * Any callback data starting with one of these prefixes is routed to this handler.
+     *
+     * @return A set of callback prefixes, empty by default.
+     */
+    default Set<String> getCallbackPrefixes() {
+        return Set.of();
+    }
+
+    /**
+     * Returns the localization key of a short toast shown when the callback query is acknowledged.
+     * The acknowledgement is sent before {@link #handle} runs, so the toast can only depend on the callback data.
      *
-     * @param callbackData The data string received from a callback query.
-     * @return true if this handler can process the callback data, false otherwise.
+     * @param callbackData The callback data of the query.
+     * @return A message key, or {@code null} (the default) to acknowledge without a toast.
      */
-    boolean supports(String callbackData);
+    default String getAckToastKey(String callbackData) {
+        return null;
+    }
 
     /**
      * Handles the callback query.
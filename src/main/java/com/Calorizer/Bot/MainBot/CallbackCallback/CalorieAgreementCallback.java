@@ -1,5 +1,6 @@
 package com.Calorizer.Bot.MainBot.CallbackCallback;
 
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
 import com.Calorizer.Bot.Model.Enum.Language;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Service.CalorieCalculationFlowService;
@@ -10,13 +11,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -35,6 +33,7 @@ public class CalorieAgreementCallback implements CallbackHandler {
     private final LocalizationService localizationService;
     private final MessageSender messageSender;
     private final CalorieCalculationFlowService calorieCalculationFlowService;
+    private final KeyboardFactory keyboardFactory;
 
     /**
      * Constructor for dependency injection. Spring automatically provides instances of the required services.
@@ -43,30 +42,29 @@ public class CalorieAgreementCallback implements CallbackHandler {
      * @param localizationService Service for retrieving localized messages.
      * @param messageSender Service for sending messages to Telegram.
      * @param calorieCalculationFlowService Service managing the multi-step calorie input process.
+     * @param keyboardFactory Registry providing the input method keyboards.
      */
     public CalorieAgreementCallback(UserServiceInt userServiceInt,
                                     LocalizationService localizationService,
                                     MessageSender messageSender,
-                                    CalorieCalculationFlowService calorieCalculationFlowService) {
+                                    CalorieCalculationFlowService calorieCalculationFlowService,
+                                    KeyboardFactory keyboardFactory) {
         this.userServiceInt = userServiceInt;
         this.localizationService = localizationService;
         this.messageSender = messageSender;
         this.calorieCalculationFlowService = calorieCalculationFlowService;
+        this.keyboardFactory = keyboardFactory;
     }
 
     /**
-     * Determines if this handler can process the given callback data.
-     * It supports "AGREE_CALCULATE", "DISAGREE_CALCULATE", "USE_PROFILE_DATA_CALCULATE",
-     * and "START_MANUAL_CALC_INPUT" callback data.
+     * Returns the exact callback keys handled by this class:
+     * "AGREE_CALCULATE", "DISAGREE_CALCULATE", "USE_PROFILE_DATA_CALCULATE" and "START_MANUAL_CALC_INPUT".
      *
-     * @param callbackData The data string from the callback query.
-     * @return true if the data matches the supported agreement or input method callbacks, false otherwise.
+     * @return A set of supported agreement and input method callback keys.
      */
     @Override
-    public boolean supports(String callbackData) {
-        return "AGREE_CALCULATE".equals(callbackData) || "DISAGREE_CALCULATE".equals(callbackData)
-                || "USE_PROFILE_DATA_CALCULATE".equals(callbackData)||
-                "START_MANUAL_CALC_INPUT".equals(callbackData);
+    public Set<String> getCallbackKeys() {
+        return Set.of("AGREE_CALCULATE", "DISAGREE_CALCULATE", "USE_PROFILE_DATA_CALCULATE", "START_MANUAL_CALC_INPUT");
     }
 
     /**
@@ -132,21 +130,7 @@ public class CalorieAgreementCallback implements CallbackHandler {
         message.setChatId(chatId);
         message.setText(questionText);
 
-        List<List<InlineKeyboardButton>> buttons = new ArrayList<>();
-
-        InlineKeyboardButton manualInputButton = new InlineKeyboardButton();
-        manualInputButton.setText(localizationService.getTranslation(lang, "button.manual_input_calc"));
-        manualInputButton.setCallbackData("START_MANUAL_CALC_INPUT");   buttons.add(List.of(manualInputButton));
-
-        if (userServiceInt.isUserProfileComplete(user)) {
-            InlineKeyboardButton useProfileDataButton = new InlineKeyboardButton();
-            useProfileDataButton.setText(localizationService.getTranslation(lang, "button.use_profile_data_calc"));
-            useProfileDataButton.setCallbackData("USE_PROFILE_DATA_CALCULATE");
-            buttons.add(List.of(useProfileDataButton));
-        }
-
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup(buttons);
-        message.setReplyMarkup(markup);
+        message.setReplyMarkup(keyboardFactory.getCalorieInputKeyboard(lang, userServiceInt.isUserProfileComplete(user)));
 
         messageSender.sendMessage(absSender, message);
     }
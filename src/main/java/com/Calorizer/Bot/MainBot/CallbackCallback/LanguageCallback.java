@@ -14,6 +14,8 @@ import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
+import java.util.Set;
+
 /**
  * Handles callback queries for language selection (e.g., "SET_LANGUAGE_English").
  * It updates the user's language preference, refreshes bot commands,
@@ -51,15 +53,14 @@ public class LanguageCallback implements CallbackHandler {
     }
 
     /**
-     * Determines if this handler supports the given callback data.
-     * It supports any callback data starting with "SET_LANGUAGE_".
+     * Returns the callback prefixes handled by this class.
+     * Language selection buttons carry callback data starting with "SET_LANGUAGE_".
      *
-     * @param callbackData The data string from the callback query.
-     * @return true if the data indicates a language selection, false otherwise.
+     * @return A set containing the "SET_LANGUAGE_" prefix.
      */
     @Override
-    public boolean supports(String callbackData) {
-        return callbackData.startsWith("SET_LANGUAGE_");
+    public Set<String> getCallbackPrefixes() {
+        return Set.of("SET_LANGUAGE_");
     }
 
     /**
@@ -105,7 +106,7 @@ public class LanguageCallback implements CallbackHandler {
         user.setLanguage(newLanguage);
         userServiceInt.save(user);
 
-        commandsUpdater.updateCommands(absSender, chatId, newLanguage);
+        commandsUpdater.updateCommands(absSender, user, newLanguage);
 
         String confirmation;
         switch (newLanguage) {
@@ -125,7 +126,7 @@ public class LanguageCallback implements CallbackHandler {
         SendMessage replyMessage = new SendMessage();
         replyMessage.setChatId(String.valueOf(chatId));
         replyMessage.setText(confirmation);
-        replyMessage.setReplyMarkup(keyboardFactory.createMainMenuKeyboard(newLanguage));
+        replyMessage.setReplyMarkup(keyboardFactory.getMainMenuKeyboard(newLanguage));
         messageSender.sendMessage(absSender,replyMessage);
     }
 }
\ No newline at end of file
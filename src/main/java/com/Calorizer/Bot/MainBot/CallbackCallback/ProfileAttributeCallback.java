@@ -0,0 +1,53 @@
+package com.Calorizer.Bot.MainBot.CallbackCallback;
+
+import com.Calorizer.Bot.Service.ProfileUpdateDataService;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.Set;
+
+/**
+ * Handles callback queries from the attribute selection keyboard of the single attribute
+ * profile update flow (e.g., "UPDATE_HEIGHT", "UPDATE_PROFILE_DONE").
+ * The actual state handling is delegated to {@link ProfileUpdateDataService}, which also
+ * answers users who press these buttons outside of an active update flow.
+ */
+@Component
+public class ProfileAttributeCallback implements CallbackHandler {
+
+    private final ProfileUpdateDataService profileUpdateDataService;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param profileUpdateDataService Service managing the multi-step profile data update flow.
+     */
+    public ProfileAttributeCallback(ProfileUpdateDataService profileUpdateDataService) {
+        this.profileUpdateDataService = profileUpdateDataService;
+    }
+
+    /**
+     * Returns the callback prefixes handled by this class.
+     * All attribute selection buttons, including "UPDATE_PROFILE_DONE", start with "UPDATE_".
+     *
+     * @return A set containing the "UPDATE_" prefix.
+     */
+    @Override
+    public Set<String> getCallbackPrefixes() {
+        return Set.of("UPDATE_");
+    }
+
+    /**
+     * Forwards the selected attribute to {@link ProfileUpdateDataService#handleAttributeSelectionCallback}.
+     *
+     * @param absSender The {@link AbsSender} instance for sending Telegram responses.
+     * @param update The {@link Update} object containing the callback query.
+     */
+    @Override
+    public void handle(AbsSender absSender, Update update) {
+        long chatId = update.getCallbackQuery().getMessage().getChatId();
+        String data = update.getCallbackQuery().getData();
+        profileUpdateDataService.handleAttributeSelectionCallback(absSender, chatId, data);
+    }
+}
@@ -1,5 +1,6 @@
 package com.Calorizer.Bot.MainBot.CallbackCallback;
 
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
 import com.Calorizer.Bot.Model.Enum.Language;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
@@ -11,12 +12,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
 
 /**
  * Handles callback queries related to profile update actions initiated by the user.
@@ -33,6 +31,7 @@ public class ProfileCallback implements CallbackHandler{
     private final LocalizationService localizationService;
     private final MessageSender messageSender;
     private final ProfileUpdateDataService profileUpdateDataService;
+    private final KeyboardFactory keyboardFactory;
 
     /**
      * Constructs a new {@code ProfileCallback} instance, injecting necessary services.
@@ -41,27 +40,26 @@ public class ProfileCallback implements CallbackHandler{
      * @param localizationService    Service for retrieving localized strings.
      * @param messageSender          Service for sending messages back to the user.
      * @param profileUpdateDataService Service for managing the multi-step profile data update flow.
+     * @param keyboardFactory        Registry providing the update options keyboard.
      */
-    public ProfileCallback(UserServiceInt userServiceInt, LocalizationService localizationService, MessageSender messageSender, ProfileUpdateDataService profileUpdateDataService) {
+    public ProfileCallback(UserServiceInt userServiceInt, LocalizationService localizationService, MessageSender messageSender,
+                           ProfileUpdateDataService profileUpdateDataService, KeyboardFactory keyboardFactory) {
         this.userServiceInt = userServiceInt;
         this.localizationService = localizationService;
         this.messageSender = messageSender;
         this.profileUpdateDataService = profileUpdateDataService;
+        this.keyboardFactory = keyboardFactory;
     }
 
     /**
-     * Checks if this callback handler supports the given callback data.
-     * It specifically supports callback data related to initiating or cancelling profile updates.
+     * Returns the exact callback keys handled by this class.
+     * It specifically handles callback data related to initiating or cancelling profile updates.
      *
-     * @param callbackData The string data received from the inline keyboard button.
-     * @return {@code true} if this handler can process the callback data, {@code false} otherwise.
+     * @return A set of supported profile update callback keys.
      */
     @Override
-    public boolean supports(String callbackData) {
-        return "PROFILE_DATA_UPDATE_YES".equals(callbackData) ||
-                "PROFILE_DATA_UPDATE_NO".equals(callbackData) ||
-                "PROFILE_UPDATE_ALL".equals(callbackData) ||
-                "PROFILE_UPDATE_ONE_BY_ONE".equals(callbackData);
+    public Set<String> getCallbackKeys() {
+        return Set.of("PROFILE_DATA_UPDATE_YES", "PROFILE_DATA_UPDATE_NO", "PROFILE_UPDATE_ALL", "PROFILE_UPDATE_ONE_BY_ONE");
     }
 
     /**
@@ -130,22 +128,7 @@ public class ProfileCallback implements CallbackHandler{
         message.setChatId(chatId);
         message.setText(localizationService.getTranslation(lang, "question.profile.update.how"));
 
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-
-        InlineKeyboardButton buttonUpdateAll = new InlineKeyboardButton();
-        buttonUpdateAll.setText(localizationService.getTranslation(lang, "button.profile.update.all"));
-        buttonUpdateAll.setCallbackData("PROFILE_UPDATE_ALL");
-
-        InlineKeyboardButton buttonUpdateOneByOne = new InlineKeyboardButton();
-        buttonUpdateOneByOne.setText(localizationService.getTranslation(lang, "button.profile.update.one_by_one"));
-        buttonUpdateOneByOne.setCallbackData("PROFILE_UPDATE_ONE_BY_ONE");
-
-        rows.add(List.of(buttonUpdateAll));
-        rows.add(List.of(buttonUpdateOneByOne));
-
-        markup.setKeyboard(rows);
-        message.setReplyMarkup(markup);
+        message.setReplyMarkup(keyboardFactory.getProfileUpdateOptionsKeyboard(lang));
 
         messageSender.sendMessage(absSender, message);
     }
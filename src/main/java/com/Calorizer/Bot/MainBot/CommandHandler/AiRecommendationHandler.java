@@ -1,28 +1,39 @@
 package com.Calorizer.Bot.MainBot.CommandHandler;
 import com.Calorizer.Bot.MainBot.CallbackCallback.CallbackHandler;
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
+import com.Calorizer.Bot.MainBot.Processing.AiRequestTracker;
 import com.Calorizer.Bot.Model.Enum.Language;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
 import com.Calorizer.Bot.Service.LocalizationService;
 import com.Calorizer.Bot.Service.NutritionRecommendationService;
 import com.Calorizer.Bot.Service.MessageSender;
+import com.Calorizer.Bot.Service.StreamingReplyPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.bots.AbsSender;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.SignalType;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Handles the "/recommendation_ai" command and subsequent callback queries for AI-generated nutrition recommendations.
  * This class acts as both a {@link CommandHandler} and a {@link CallbackHandler},
  * managing the flow from initial command to user's selection of recommendation duration,
  * and finally triggering the AI recommendation generation.
+ * Each user has at most one recommendation in flight (see {@link AiRequestTracker}): choosing a duration again
+ * cancels the previous request, and the "Cancel" button under the status message stops the current one.
  */
 @Component
 public class AiRecommendationHandler implements CommandHandler, CallbackHandler {
@@ -33,8 +44,12 @@ public class AiRecommendationHandler implements CommandHandler, CallbackHandler
     private final UserServiceInt userService;
     private final LocalizationService localizationService;
     private final MessageSender messageSender;
+    private final StreamingReplyPublisher streamingReplyPublisher;
+    private final AiRequestTracker aiRequestTracker;
+    private final KeyboardFactory keyboardFactory;
 
-    private static final String AI_RECOMMENDATION_CALLBACK_PREFIX = "AI_REC_";
+    public static final String AI_RECOMMENDATION_CALLBACK_PREFIX = "AI_REC_";
+    public static final String AI_CANCEL_CALLBACK = "AI_CANCEL";
 
     /**
      * Constructor for dependency injection.
@@ -43,42 +58,76 @@ public class AiRecommendationHandler implements CommandHandler, CallbackHandler
      * @param userService Service for user-related data operations.
      * @param localizationService Service for retrieving localized messages.
      * @param messageSender Service for sending messages to Telegram.
+     * @param streamingReplyPublisher Publisher showing streamed recommendations in progressively edited messages.
+     * @param aiRequestTracker Tracker of the users' in-flight recommendation requests.
+     * @param keyboardFactory Registry providing the duration and cancel keyboards.
      */
     public AiRecommendationHandler(NutritionRecommendationService nutritionRecommendationService,
                                    UserServiceInt userService,
                                    LocalizationService localizationService,
-                                   MessageSender messageSender) {
+                                   MessageSender messageSender,
+                                   StreamingReplyPublisher streamingReplyPublisher,
+                                   AiRequestTracker aiRequestTracker,
+                                   KeyboardFactory keyboardFactory) {
         this.nutritionRecommendationService = nutritionRecommendationService;
         this.userService = userService;
         this.localizationService = localizationService;
         this.messageSender = messageSender;
+        this.streamingReplyPublisher = streamingReplyPublisher;
+        this.aiRequestTracker = aiRequestTracker;
+        this.keyboardFactory = keyboardFactory;
     }
 
     /**
-     * Determines if this handler supports the given command text or callback data.
-     * It supports:
-     * <ul>
-     * <li>The exact command "/recommendation_ai"</li>
-     * <li>Any callback data starting with {@code AI_RECOMMENDATION_CALLBACK_PREFIX}</li>
-     * <li>Localized button texts for the "AI Recommendation" command across various languages.</li>
-     * </ul>
+     * Returns the slash command handled by this class.
      *
-     * @param commandText The incoming command text or callback data string.
-     * @return {@code true} if the input is supported by this handler, {@code false} otherwise.
+     * @return The "/recommendation_ai" command.
      */
     @Override
-    public boolean supports(String commandText) {
-        if (commandText.startsWith("/")) {
-            return "/recommendation_ai".equals(commandText);
-        }
+    public String getCommand() {
+        return "/recommendation_ai";
+    }
 
-        if (commandText.startsWith(AI_RECOMMENDATION_CALLBACK_PREFIX)) {
-            return true;
-        }
-        return localizationService.getTranslation(Language.English, "button.command.recommendation_ai").equals(commandText) ||
-                localizationService.getTranslation(Language.Russian, "button.command.recommendation_ai").equals(commandText) ||
-                localizationService.getTranslation(Language.Ukrainian, "button.command.recommendation_ai").equals(commandText) ||
-                localizationService.getTranslation(Language.German, "button.command.recommendation_ai").equals(commandText);
+    /**
+     * Returns the localization key of the "AI Recommendation" main menu button.
+     *
+     * @return The "button.command.recommendation_ai" key.
+     */
+    @Override
+    public String getButtonKey() {
+        return "button.command.recommendation_ai";
+    }
+
+    /**
+     * Returns the callback prefixes handled by this class.
+     * Duration selection buttons carry callback data starting with {@code AI_RECOMMENDATION_CALLBACK_PREFIX}.
+     *
+     * @return A set containing {@code AI_RECOMMENDATION_CALLBACK_PREFIX}.
+     */
+    @Override
+    public Set<String> getCallbackPrefixes() {
+        return Set.of(AI_RECOMMENDATION_CALLBACK_PREFIX);
+    }
+
+    /**
+     * Returns the toast shown when a duration or the "Cancel" button is pressed, before the request starts or stops.
+     *
+     * @param callbackData The callback data of the query.
+     * @return The toast message key.
+     */
+    @Override
+    public String getAckToastKey(String callbackData) {
+        return AI_CANCEL_CALLBACK.equals(callbackData) ? "toast.ai.cancelling" : "toast.ai.request_accepted";
+    }
+
+    /**
+     * Returns the exact callback data handled by this class: the "Cancel" button of a running request.
+     *
+     * @return A set containing {@code AI_CANCEL_CALLBACK}.
+     */
+    @Override
+    public Set<String> getCallbackKeys() {
+        return Set.of(AI_CANCEL_CALLBACK);
     }
 
     /**
@@ -114,19 +163,21 @@ public class AiRecommendationHandler implements CommandHandler, CallbackHandler
         if (update.hasMessage() && update.getMessage().hasText()) {
             receivedText = update.getMessage().getText();
 
-            if ("/recommendation_ai".equals(receivedText) ||
-                    localizationService.getTranslation(user.getLanguage(), "button.command.recommendation_ai").equals(receivedText)) {
-                sendInitialRecommendationRequest(absSender, chatId, user);
-                logger.info("Initial AI recommendation request for user {}: {}", chatId, receivedText);
-            } else {
-                logger.warn("AiRecommendationHandler received an unhandled text message from user {}: {}", chatId, receivedText);
-                messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(user.getLanguage(), "error.unexpected_input"));
-            }
+            // Text messages only reach this handler through the command registry,
+            // so the command (or one of its localized button labels) is already matched.
+            sendInitialRecommendationRequest(absSender, chatId, user);
+            logger.info("Initial AI recommendation request for user {}: {}", chatId, receivedText);
 
         } else if (update.hasCallbackQuery()) {
             String callbackData = update.getCallbackQuery().getData();
 
-            if (callbackData.startsWith(AI_RECOMMENDATION_CALLBACK_PREFIX)) {
+            if (AI_CANCEL_CALLBACK.equals(callbackData)) {
+                if (!aiRequestTracker.cancel(chatId, AiRequestTracker.CancelReason.USER)) {
+                    messageSender.sendMessage(absSender, chatId,
+                            localizationService.getTranslation(user.getLanguage(), "recommendation.cancel.nothing"));
+                }
+                logger.info("Cancel callback for user {}", chatId);
+            } else if (callbackData.startsWith(AI_RECOMMENDATION_CALLBACK_PREFIX)) {
                 String duration = callbackData.substring(AI_RECOMMENDATION_CALLBACK_PREFIX.length());
                 requestAndSendAiRecommendation(absSender, chatId, user, duration, null);
                 logger.info("Duration selection callback for user {}: {}", chatId, duration);
@@ -153,21 +204,7 @@ public class AiRecommendationHandler implements CommandHandler, CallbackHandler
         message.setChatId(chatId.toString());
         message.setText(localizationService.getTranslation(user.getLanguage(), "question.recommendation.duration"));
 
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-
-        InlineKeyboardButton dayButton = new InlineKeyboardButton();
-        dayButton.setText(localizationService.getTranslation(user.getLanguage(), "button.duration.day"));
-        dayButton.setCallbackData(AI_RECOMMENDATION_CALLBACK_PREFIX + "day");
-
-        InlineKeyboardButton weekButton = new InlineKeyboardButton();
-        weekButton.setText(localizationService.getTranslation(user.getLanguage(), "button.duration.week"));
-        weekButton.setCallbackData(AI_RECOMMENDATION_CALLBACK_PREFIX + "week");
-
-        rows.add(List.of(dayButton, weekButton));
-
-        markup.setKeyboard(rows);
-        message.setReplyMarkup(markup);
+        message.setReplyMarkup(keyboardFactory.getRecommendationDurationKeyboard(user.getLanguage()));
 
         messageSender.sendMessage(absSender, message);
     }
@@ -176,7 +213,22 @@ public class AiRecommendationHandler implements CommandHandler, CallbackHandler
      * Requests a nutrition recommendation from the {@link NutritionRecommendationService} (AI)
      * and sends the generated text back to the user.
      * It subscribes to the {@code Mono<String>} returned by the service, handling both
-     * successful responses and errors during AI generation.
+     * successful responses and errors during AI generation. If other chats requested the same prompt
+     * concurrently, the service returns the same shared call to each of them, and every subscription
+     * delivers the result to its own chat.
+     * If streaming is enabled, the recommendation is instead published through the {@link StreamingReplyPublisher}
+     * and appears while it is generated.
+     * Week plans are generated day by day in parallel (see {@link NutritionRecommendationService#streamWeeklyRecommendation})
+     * and published like a streamed answer, each day appearing as soon as it and the days before it are ready.
+     * While the request waits for a free AI worker, the status message shows the user's position in the queue
+     * and is updated when the position changes, instead of sending a new message for every notice.
+     * While Gemini is unavailable (its circuit breaker is open), the service answers at once with the static
+     * recommendation for the user's goal, which is sent like any other answer.
+     * <p>
+     * A status message with a "Cancel" button is shown while the request runs, and the subscription is registered
+     * with the {@link AiRequestTracker}, which cancels the user's previous request. When the request finishes the
+     * status message is deleted; when it is cancelled the status message says so.
+     * </p>
      *
      * @param absSender          The {@link AbsSender} instance for sending messages.
      * @param chatId             The chat ID of the user.
@@ -185,7 +237,38 @@ public class AiRecommendationHandler implements CommandHandler, CallbackHandler
      * @param additionalRequirements Any additional requirements for the AI, can be {@code null}.
      */
     private void requestAndSendAiRecommendation(AbsSender absSender, Long chatId, User user, String duration, String additionalRequirements) {
-        nutritionRecommendationService.getNutritionRecommendation(user, duration, additionalRequirements)
+        Language language = user.getLanguage();
+        CompletableFuture<Message> statusMessage = messageSender.sendMessage(absSender, statusMessage(chatId, language));
+        AtomicInteger shownPosition = new AtomicInteger();
+        IntConsumer queuePositionListener = position -> {
+            if (shownPosition.getAndSet(position) != position) {
+                showQueuePosition(absSender, chatId, language, statusMessage, position);
+            }
+        };
+
+        Disposable.Swap request = Disposables.swap();
+        aiRequestTracker.track(chatId, request);
+        Consumer<SignalType> onTermination = signal -> {
+            aiRequestTracker.finished(chatId, request);
+            closeStatusMessage(absSender, chatId, language, statusMessage, signal == SignalType.CANCEL);
+        };
+
+        if (nutritionRecommendationService.isWeekFanOut(duration)) {
+            request.update(streamingReplyPublisher.publish(absSender, chatId, "",
+                    nutritionRecommendationService.streamWeeklyRecommendation(user, additionalRequirements, queuePositionListener)
+                            .doFinally(onTermination)));
+            logger.info("Generating week plan for user {} day by day", chatId);
+            return;
+        }
+        if (nutritionRecommendationService.isStreamingEnabled()) {
+            request.update(streamingReplyPublisher.publish(absSender, chatId, "",
+                    nutritionRecommendationService.streamNutritionRecommendation(user, duration, additionalRequirements, queuePositionListener)
+                            .doFinally(onTermination)));
+            logger.info("Streaming AI recommendation to user {}", chatId);
+            return;
+        }
+        request.update(nutritionRecommendationService.getNutritionRecommendation(user, duration, additionalRequirements, queuePositionListener)
+                .doFinally(onTermination)
                 .subscribe(
                         recommendationText -> {
                             messageSender.sendMessage(absSender, chatId, recommendationText);
@@ -193,8 +276,73 @@ public class AiRecommendationHandler implements CommandHandler, CallbackHandler
                         },
                         error -> {
                             logger.error("Error getting AI recommendation for user {}: {}", chatId, error.getMessage());
-                            messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(user.getLanguage(), "error.ai_generation_failed"));
+                            messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(language, "error.ai_generation_failed"));
                         }
-                );
+                ));
+    }
+
+    /**
+     * Builds the status message shown while a recommendation is generated, with a "Cancel" button.
+     *
+     * @param chatId   The chat ID of the user.
+     * @param language The user's language.
+     * @return The status message.
+     */
+    private SendMessage statusMessage(Long chatId, Language language) {
+        SendMessage message = new SendMessage(chatId.toString(),
+                localizationService.getTranslation(language, "recommendation.generating"));
+        message.setReplyMarkup(keyboardFactory.getAiCancelKeyboard(language));
+        return message;
+    }
+
+    /**
+     * Shows the user's queue position in the status message, keeping its "Cancel" button.
+     *
+     * @param absSender     The {@link AbsSender} instance for sending messages.
+     * @param chatId        The chat ID of the user.
+     * @param language      The user's language.
+     * @param statusMessage The pending or sent status message.
+     * @param position      The 1-based queue position.
+     */
+    private void showQueuePosition(AbsSender absSender, Long chatId, Language language,
+                                   CompletableFuture<Message> statusMessage, int position) {
+        statusMessage.thenAccept(message -> {
+            if (message == null) {
+                return;
+            }
+            EditMessageText edit = new EditMessageText();
+            edit.setChatId(chatId.toString());
+            edit.setMessageId(message.getMessageId());
+            edit.setText(localizationService.getTranslation(language, "ai.queue.position", position));
+            edit.setReplyMarkup(keyboardFactory.getAiCancelKeyboard(language));
+            messageSender.editMessage(absSender, edit);
+        });
+    }
+
+    /**
+     * Removes the status message once its request terminated, or replaces it with a notice if it was cancelled.
+     *
+     * @param absSender     The {@link AbsSender} instance for sending messages.
+     * @param chatId        The chat ID of the user.
+     * @param language      The user's language.
+     * @param statusMessage The pending or sent status message.
+     * @param cancelled     Whether the request was cancelled.
+     */
+    private void closeStatusMessage(AbsSender absSender, Long chatId, Language language,
+                                    CompletableFuture<Message> statusMessage, boolean cancelled) {
+        statusMessage.thenAccept(message -> {
+            if (message == null) {
+                return;
+            }
+            if (!cancelled) {
+                messageSender.deleteMessage(absSender, chatId, message.getMessageId());
+                return;
+            }
+            EditMessageText edit = new EditMessageText();
+            edit.setChatId(chatId.toString());
+            edit.setMessageId(message.getMessageId());
+            edit.setText(localizationService.getTranslation(language, "recommendation.cancelled"));
+            messageSender.editMessage(absSender, edit);
+        });
     }
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.Calorizer.Bot.MainBot.CommandHandler;
 
 import com.Calorizer.Bot.MainBot.CallbackCallback.CallbackHandler;
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
 import com.Calorizer.Bot.Model.Enum.Allergen;
-import com.Calorizer.Bot.Model.Enum.Language;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
 import com.Calorizer.Bot.Service.LocalizationService;
@@ -12,10 +12,10 @@ import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handles commands and callbacks related to user allergy management.
@@ -27,10 +27,11 @@ import java.util.List;
 @Component
 public class AllergiesHandler implements CommandHandler, CallbackHandler {
 
-    private static final String ALLERGY_CALLBACK_PREFIX = "ALLERGY_TOGGLE:";
+    public static final String ALLERGY_CALLBACK_PREFIX = "ALLERGY_TOGGLE:";
     private final UserServiceInt userService;
     private final LocalizationService localizationService;
     private final MessageSender messageSender;
+    private final KeyboardFactory keyboardFactory;
 
     /**
      * Constructs an AllergiesHandler.
@@ -38,31 +39,45 @@ public class AllergiesHandler implements CommandHandler, CallbackHandler {
      * @param userService The service for managing user data.
      * @param localizationService The service for retrieving localized messages.
      * @param messageSender The service for sending and editing messages to Telegram.
+     * @param keyboardFactory The registry providing the cached allergen buttons.
      */
-    public AllergiesHandler(UserServiceInt userService, LocalizationService localizationService, MessageSender messageSender) {
+    public AllergiesHandler(UserServiceInt userService, LocalizationService localizationService, MessageSender messageSender,
+                            KeyboardFactory keyboardFactory) {
         this.userService = userService;
         this.localizationService = localizationService;
         this.messageSender = messageSender;
+        this.keyboardFactory = keyboardFactory;
     }
 
     /**
-     * Determines if this handler supports the given command text or callback data.
-     * It supports the "/allergy" command, callback data starting with {@link #ALLERGY_CALLBACK_PREFIX},
-     * and localized versions of the "allergies" button text across all supported languages.
+     * Returns the slash command handled by this class.
      *
-     * @param commandText The incoming command text or callback data.
-     * @return {@code true} if this handler can process the input, {@code false} otherwise.
+     * @return The "/allergy" command.
      */
     @Override
-    public boolean supports(String commandText) {
-        if ("/allergy".equals(commandText) || commandText.startsWith(ALLERGY_CALLBACK_PREFIX)) {
-            return true;
-        }
-        return localizationService.getTranslation(Language.English, "button.command.allergies").equals(commandText) ||
-                localizationService.getTranslation(Language.Russian, "button.command.allergies").equals(commandText) ||
-                localizationService.getTranslation(Language.Ukrainian, "button.command.allergies").equals(commandText) ||
-                localizationService.getTranslation(Language.German, "button.command.allergies").equals(commandText);
+    public String getCommand() {
+        return "/allergy";
+    }
 
+    /**
+     * Returns the localization key of the "Allergies" main menu button.
+     *
+     * @return The "button.command.allergies" key.
+     */
+    @Override
+    public String getButtonKey() {
+        return "button.command.allergies";
+    }
+
+    /**
+     * Returns the callback prefixes handled by this class.
+     * Allergen toggle buttons carry callback data starting with {@link #ALLERGY_CALLBACK_PREFIX}.
+     *
+     * @return A set containing {@link #ALLERGY_CALLBACK_PREFIX}.
+     */
+    @Override
+    public Set<String> getCallbackPrefixes() {
+        return Set.of(ALLERGY_CALLBACK_PREFIX);
     }
 
     /**
@@ -111,32 +126,14 @@ public class AllergiesHandler implements CommandHandler, CallbackHandler {
     }
 
     /**
-     * Builds the {@link InlineKeyboardMarkup} for the allergen selection menu.
-     * Each allergen is represented by a button. Selected allergens are marked with a checkmark (✅).
+     * Builds the {@link InlineKeyboardMarkup} for the allergen selection menu from the cached allergen buttons.
+     * Selected allergens are marked with a checkmark (✅).
      *
      * @param user The {@link User} for whom the keyboard is being built, used to retrieve current allergens and language.
      * @return An {@link InlineKeyboardMarkup} containing buttons for all {@link Allergen} values.
      */
     private InlineKeyboardMarkup buildAllergiesKeyboard(User user) {
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-        List<Allergen> userAllergens = user.getUPD().getAllergens();
-
-        for (Allergen allergen : Allergen.values()) {
-            String buttonText = localizationService.getTranslation(user.getLanguage(), "allergen." + allergen.name().toLowerCase());
-            boolean isSelected = userAllergens != null && userAllergens.contains(allergen);
-            if (isSelected) {
-                buttonText = "✅ " + buttonText;
-            }
-
-            InlineKeyboardButton button = new InlineKeyboardButton();
-            button.setText(buttonText);
-            button.setCallbackData(ALLERGY_CALLBACK_PREFIX + allergen.name());
-            rows.add(List.of(button));
-        }
-
-        markup.setKeyboard(rows);
-        return markup;
+        return keyboardFactory.getAllergiesKeyboard(user.getLanguage(), user.getUPD().getAllergens());
     }
 
     /**
@@ -1,4 +1,5 @@
 package com.Calorizer.Bot.MainBot.CommandHandler;
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
 import com.Calorizer.Bot.Model.Enum.Language;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
@@ -10,9 +11,6 @@ import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
-import java.util.List;
 
 /**
  * Handles the '/calculatecalorieforday' command and its localized button equivalents.
@@ -28,6 +26,7 @@ public class CalorieAgreementHandler implements CommandHandler {
     private final UserServiceInt userServiceInt;
     private final LocalizationService localizationService;
     private final MessageSender messageSender;
+    private final KeyboardFactory keyboardFactory;
 
     /**
      * Constructor for dependency injection. Spring automatically provides instances of the required services.
@@ -35,33 +34,36 @@ public class CalorieAgreementHandler implements CommandHandler {
      * @param userServiceInt      Service for user-related operations, such as retrieving or creating user profiles.
      * @param localizationService Service for retrieving localized messages based on the user's language.
      * @param messageSender       Service for sending messages to Telegram users.
+     * @param keyboardFactory     Registry providing the agreement keyboard.
      */
     public CalorieAgreementHandler(UserServiceInt userServiceInt,
                                    LocalizationService localizationService,
-                                   MessageSender messageSender) {
+                                   MessageSender messageSender,
+                                   KeyboardFactory keyboardFactory) {
         this.userServiceInt = userServiceInt;
         this.localizationService = localizationService;
         this.messageSender = messageSender;
+        this.keyboardFactory = keyboardFactory;
     }
 
     /**
-     * Checks if this handler supports the given command text or its localized button equivalent.
-     * It specifically handles the "/calculatecalorieforday" command and its translations
-     * found in localization files for various languages.
+     * Returns the slash command handled by this class.
      *
-     * @param commandText The incoming command text or button text from the user.
-     * @return {@code true} if the command text matches "/calculatecalorieforday" or its localized equivalents,
-     * {@code false} otherwise.
+     * @return The "/calculatecalorieforday" command.
      */
     @Override
-    public boolean supports(String commandText) {
-        if ("/calculatecalorieforday".equals(commandText)) {
-            return true;
-        }
-        return localizationService.getTranslation(Language.English, "button.command.calculatecalorieforday").equals(commandText) ||
-                localizationService.getTranslation(Language.Russian, "button.command.calculatecalorieforday").equals(commandText) ||
-                localizationService.getTranslation(Language.Ukrainian, "button.command.calculatecalorieforday").equals(commandText) ||
-                localizationService.getTranslation(Language.German, "button.command.calculatecalorieforday").equals(commandText);
+    public String getCommand() {
+        return "/calculatecalorieforday";
+    }
+
+    /**
+     * Returns the localization key of the "Calorie Calculator" main menu button.
+     *
+     * @return The "button.command.calculatecalorieforday" key.
+     */
+    @Override
+    public String getButtonKey() {
+        return "button.command.calculatecalorieforday";
     }
 
     /**
@@ -100,17 +102,7 @@ public class CalorieAgreementHandler implements CommandHandler {
         message.setChatId(chatId);
         message.setText(termsText);
 
-        InlineKeyboardButton agreeButton = new InlineKeyboardButton();
-        agreeButton.setText(localizationService.getTranslation(language, "terms.of.use.agree_button"));
-        agreeButton.setCallbackData("AGREE_CALCULATE");
-
-        InlineKeyboardButton disagreeButton = new InlineKeyboardButton();
-        disagreeButton.setText(localizationService.getTranslation(language, "terms.of.use.disagree_button"));
-        disagreeButton.setCallbackData("DISAGREE_CALCULATE");
-
-        List<List<InlineKeyboardButton>> buttons = List.of(List.of(disagreeButton, agreeButton));
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup(buttons);
-        message.setReplyMarkup(markup);
+        message.setReplyMarkup(keyboardFactory.getCalorieAgreementKeyboard(language));
 
         messageSender.sendMessage(absSender, message);
     }
@@ -7,8 +7,27 @@ import org.telegram.telegrambots.meta.bots.AbsSender;
 /**
  * Interface for handling Telegram bot {@link Update}s that contain a command (messages starting with '/').
  * Implementations of this interface define specific logic for different bot commands.
+ * Handlers declare the command and main menu button they are bound to; the routing itself
+ * is done by {@link com.Calorizer.Bot.MainBot.Routing.CommandRegistry}.
  */
 public interface CommandHandler {
-    boolean supports(String commandText);
+    /**
+     * Returns the slash command this handler is bound to (e.g. "/profile").
+     *
+     * @return The slash command, or {@code null} if the handler is not bound to any command.
+     */
+    String getCommand();
+
+    /**
+     * Returns the localization key of the main menu button that triggers this handler
+     * (e.g. "button.command.profile"). The translation of this key in every supported
+     * language is routed to this handler.
+     *
+     * @return The button translation key, or {@code null} if the handler has no menu button.
+     */
+    default String getButtonKey() {
+        return null;
+    }
+
     void handle(AbsSender absSender, Update update);
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.Calorizer.Bot.MainBot.CommandHandler;
 
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
 import com.Calorizer.Bot.Model.Enum.Language;
 import com.Calorizer.Bot.Service.LocalizationService;
 import com.Calorizer.Bot.Service.MessageSender;
@@ -9,10 +10,6 @@ import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Handles the '/changelanguage' command.
@@ -26,37 +23,41 @@ public class LanguageHandler implements CommandHandler {
 
     private final LocalizationService localizationService;
     private final MessageSender messageSender;
+    private final KeyboardFactory keyboardFactory;
 
     /**
      * Constructor for dependency injection.
      *
      * @param localizationService Service for obtaining localized strings.
      * @param messageSender Service for sending messages to the user.
+     * @param keyboardFactory Registry providing the language selection keyboard.
      */
     public LanguageHandler(LocalizationService localizationService,
-                           MessageSender messageSender) {
+                           MessageSender messageSender,
+                           KeyboardFactory keyboardFactory) {
         this.localizationService = localizationService;
         this.messageSender = messageSender;
+        this.keyboardFactory = keyboardFactory;
     }
 
     /**
-     * Checks if this handler supports the given command text or its localized button equivalent.
-     * It specifically handles the "/changelanguage" command as well as the translated texts
-     * for the "Change Language" button across various supported languages.
+     * Returns the slash command handled by this class.
      *
-     * @param commandText The text of the command or the button text received from the user.
-     * @return {@code true} if the command text matches "/changelanguage" or any of its localized button texts,
-     * {@code false} otherwise.
+     * @return The "/changelanguage" command.
      */
     @Override
-    public boolean supports(String commandText) {
-        if ("/changelanguage".equals(commandText)) {
-            return true;
-        }
-        return localizationService.getTranslation(Language.English, "button.command.changelanguage").equals(commandText) ||
-                localizationService.getTranslation(Language.Russian, "button.command.changelanguage").equals(commandText) ||
-                localizationService.getTranslation(Language.Ukrainian, "button.command.changelanguage").equals(commandText) ||
-                localizationService.getTranslation(Language.German, "button.command.changelanguage").equals(commandText);
+    public String getCommand() {
+        return "/changelanguage";
+    }
+
+    /**
+     * Returns the localization key of the "Change Language" main menu button.
+     *
+     * @return The "button.command.changelanguage" key.
+     */
+    @Override
+    public String getButtonKey() {
+        return "button.command.changelanguage";
     }
 
     /**
@@ -74,7 +75,7 @@ public class LanguageHandler implements CommandHandler {
     }
 
     /**
-     * Constructs and sends the inline keyboard for language selection.
+     * Sends the inline keyboard for language selection.
      * The prompt message is sent in English as a neutral default.
      *
      * @param absSender The {@link AbsSender} instance.
@@ -84,32 +85,8 @@ public class LanguageHandler implements CommandHandler {
         SendMessage message = new SendMessage();
         message.setChatId(chatId);
         message.setText(localizationService.getTranslation(Language.English, "language.selection.prompt"));
-
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-
-        rows.add(List.of(createLanguageButton("🇬🇧 English", Language.English)));
-        rows.add(List.of(createLanguageButton("🇺🇦 Українська", Language.Ukrainian)));
-        rows.add(List.of(createLanguageButton("🇷🇺 Русский", Language.Russian)));
-        rows.add(List.of(createLanguageButton("🇩🇪 Deutsch", Language.German)));
-
-        markup.setKeyboard(rows);
-        message.setReplyMarkup(markup);
+        message.setReplyMarkup(keyboardFactory.getLanguageSelectionKeyboard());
 
         messageSender.sendMessage(absSender, message);
     }
-
-    /**
-     * Helper method to create an inline keyboard button for language selection.
-     *
-     * @param text The display text on the button (e.g., "🇬🇧 English").
-     * @param language The {@link Language} enum value associated with this button.
-     * @return An {@link InlineKeyboardButton} configured with the text and a callback data.
-     */
-    private InlineKeyboardButton createLanguageButton(String text, Language language) {
-        InlineKeyboardButton button = new InlineKeyboardButton();
-        button.setText(text);
-        button.setCallbackData("SET_LANGUAGE_" + language.name());
-        return button;
-    }
-}
\ No newline at end of file
+}
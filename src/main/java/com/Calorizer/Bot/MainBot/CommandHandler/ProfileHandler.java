@@ -1,6 +1,6 @@
 package com.Calorizer.Bot.MainBot.CommandHandler;
 
-import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
 import com.Calorizer.Bot.Service.LocalizationService;
@@ -9,14 +9,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
-import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Handles the "/profile" command and its localized button equivalents received from users.
  * This handler is responsible for retrieving and displaying the user's profile information.
@@ -30,6 +25,7 @@ public class ProfileHandler implements CommandHandler {
     private final UserServiceInt userServiceInt;
     private final MessageSender messageSender;
     private final LocalizationService localizationService;
+    private final KeyboardFactory keyboardFactory;
 
     /**
      * Constructs a new {@code ProfileHandler} instance, injecting necessary services.
@@ -37,30 +33,34 @@ public class ProfileHandler implements CommandHandler {
      * @param userServiceInt      Service for user-related data operations, including profile retrieval and creation.
      * @param messageSender       Service for sending messages back to the user via Telegram API.
      * @param localizationService Service for retrieving localized strings based on user's language.
+     * @param keyboardFactory     Registry providing the profile update question keyboard.
      */
-    public ProfileHandler(UserServiceInt userServiceInt, MessageSender messageSender,LocalizationService localizationService) {
+    public ProfileHandler(UserServiceInt userServiceInt, MessageSender messageSender,LocalizationService localizationService,
+                          KeyboardFactory keyboardFactory) {
         this.userServiceInt = userServiceInt;
         this.messageSender = messageSender;
         this.localizationService=localizationService;
+        this.keyboardFactory = keyboardFactory;
     }
 
     /**
-     * Checks if this handler supports the given command text or localized button text.
-     * It specifically handles the "/profile" command and its translations found in localization files.
+     * Returns the slash command handled by this class.
      *
-     * @param commandText The incoming command text or button text from the user.
-     * @return {@code true} if the command text matches "/profile" or its localized equivalents,
-     * {@code false} otherwise.
+     * @return The "/profile" command.
      */
     @Override
-    public boolean supports(String commandText) {
-        if ("/profile".equals(commandText)) {
-            return true;
-        }
-        return localizationService.getTranslation(Language.English, "button.command.profile").equals(commandText) ||
-                localizationService.getTranslation(Language.Russian, "button.command.profile").equals(commandText) ||
-                localizationService.getTranslation(Language.Ukrainian, "button.command.profile").equals(commandText) ||
-                localizationService.getTranslation(Language.German, "button.command.profile").equals(commandText);
+    public String getCommand() {
+        return "/profile";
+    }
+
+    /**
+     * Returns the localization key of the "Profile" main menu button.
+     *
+     * @return The "button.command.profile" key.
+     */
+    @Override
+    public String getButtonKey() {
+        return "button.command.profile";
     }
 
     /**
@@ -106,21 +106,7 @@ public class ProfileHandler implements CommandHandler {
         User user = userServiceInt.getOrCreateUser(chatId);
         message.setText(localizationService.getTranslation(user.getLanguage(), "question.profile.update"));
 
-        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-
-        InlineKeyboardButton button_yes = new InlineKeyboardButton();
-        button_yes.setText(localizationService.getTranslation(user.getLanguage(), "question.profile.update.yes"));
-        button_yes.setCallbackData("PROFILE_DATA_UPDATE_YES");
-
-        InlineKeyboardButton button_no = new InlineKeyboardButton();
-        button_no.setText(localizationService.getTranslation(user.getLanguage(), "question.profile.update.no"));
-        button_no.setCallbackData("PROFILE_DATA_UPDATE_NO");
-
-        rows.add(List.of(button_yes,button_no));
-
-        markup.setKeyboard(rows);
-        message.setReplyMarkup(markup);
+        message.setReplyMarkup(keyboardFactory.getProfileUpdateQuestionKeyboard(user.getLanguage()));
 
         messageSender.sendMessage(absSender, message);
     }
@@ -56,15 +56,14 @@ public class StartCommandHandler implements CommandHandler {
     }
 
     /**
-     * Checks if this handler supports the given command text.
-     * It specifically handles the "/start" command.
+     * Returns the slash command handled by this class.
+     * The "/start" command has no main menu button.
      *
-     * @param commandText The text of the command received from the user.
-     * @return true if the command text is "/start", false otherwise.
+     * @return The "/start" command.
      */
     @Override
-    public boolean supports(String commandText) {
-        return "/start".equals(commandText);
+    public String getCommand() {
+        return "/start";
     }
 
     /**
@@ -87,7 +86,7 @@ public class StartCommandHandler implements CommandHandler {
 
         User user = userServiceInt.getOrCreateUser(chatId);
 
-        commandsUpdater.updateCommands(absSender, chatId, user.getLanguage());
+        commandsUpdater.updateCommands(absSender, user, user.getLanguage());
 
         String greetingTemplate = localizationService.getTranslation(user.getLanguage(), "greeting");
         String text = MessageFormat.format(greetingTemplate, username);
@@ -96,7 +95,7 @@ public class StartCommandHandler implements CommandHandler {
         welcomeMessage.setChatId(String.valueOf(chatId));
         welcomeMessage.setText(text);
 
-        welcomeMessage.setReplyMarkup(keyboardFactory.createMainMenuKeyboard(user.getLanguage()));
+        welcomeMessage.setReplyMarkup(keyboardFactory.getMainMenuKeyboard(user.getLanguage()));
 
         messageSender.sendMessage(absSender, welcomeMessage);
         logger.info("Replied to user {} with /start command and main menu keyboard.", username);
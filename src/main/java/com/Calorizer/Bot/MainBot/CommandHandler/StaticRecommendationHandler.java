@@ -1,12 +1,9 @@
 package com.Calorizer.Bot.MainBot.CommandHandler;
 
-import com.Calorizer.Bot.Model.Enum.Language;
-import com.Calorizer.Bot.Model.Enum.MainGoal;
 import com.Calorizer.Bot.Model.User;
-import com.Calorizer.Bot.Model.UserPhysicalData;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
-import com.Calorizer.Bot.Service.LocalizationService;
 import com.Calorizer.Bot.Service.MessageSender;
+import com.Calorizer.Bot.Service.StaticRecommendationService;
 import com.Calorizer.Bot.Service.TelegramBotCommandsUpdater;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,7 +23,7 @@ public class StaticRecommendationHandler implements CommandHandler{
     private static final Logger logger = LoggerFactory.getLogger(StaticRecommendationHandler.class);
 
     private final UserServiceInt userServiceInt;
-    private final LocalizationService localizationService;
+    private final StaticRecommendationService staticRecommendationService;
     private final MessageSender messageSender;
     private final TelegramBotCommandsUpdater commandsUpdater;
 
@@ -35,38 +32,38 @@ public class StaticRecommendationHandler implements CommandHandler{
      * These dependencies are injected by Spring.
      *
      * @param userServiceInt Service for managing user-related data, like retrieving or creating user profiles.
-     * @param localizationService Service for fetching localized messages based on the user's language.
+     * @param staticRecommendationService Service building the static recommendation for the user's main goal.
      * @param messageSender Service for sending messages back to the user via the Telegram Bot API.
      * @param commandsUpdater Service responsible for updating the bot's command list in the Telegram UI.
      */
     public StaticRecommendationHandler(UserServiceInt userServiceInt,
-                               LocalizationService localizationService,
+                               StaticRecommendationService staticRecommendationService,
                                MessageSender messageSender,
                                TelegramBotCommandsUpdater commandsUpdater) {
         this.userServiceInt = userServiceInt;
-        this.localizationService = localizationService;
+        this.staticRecommendationService = staticRecommendationService;
         this.messageSender = messageSender;
         this.commandsUpdater = commandsUpdater;
     }
 
     /**
-     * Determines if this handler can process the given command text or localized button text.
-     * It specifically supports the "/recommendation_static" command and its translations
-     * found in localization files for various languages.
+     * Returns the slash command handled by this class.
      *
-     * @param commandText The incoming command text or button text from the user.
-     * @return {@code true} if the command text matches "/recommendation_static" or its localized equivalents,
-     * {@code false} otherwise.
+     * @return The "/recommendation_static" command.
      */
     @Override
-    public boolean supports(String commandText) {
-        if ("/recommendation_static".equals(commandText)) {
-            return true;
-        }
-        return localizationService.getTranslation(Language.English, "button.command.recommendation_static").equals(commandText) ||
-                localizationService.getTranslation(Language.Russian, "button.command.recommendation_static").equals(commandText) ||
-                localizationService.getTranslation(Language.Ukrainian, "button.command.recommendation_static").equals(commandText) ||
-                localizationService.getTranslation(Language.German, "button.command.recommendation_static").equals(commandText);
+    public String getCommand() {
+        return "/recommendation_static";
+    }
+
+    /**
+     * Returns the localization key of the "Static Recommendation" main menu button.
+     *
+     * @return The "button.command.recommendation_static" key.
+     */
+    @Override
+    public String getButtonKey() {
+        return "button.command.recommendation_static";
     }
 
     /**
@@ -85,30 +82,13 @@ public class StaticRecommendationHandler implements CommandHandler{
 
         User user = userServiceInt.getOrCreateUser(chatId);
 
-        commandsUpdater.updateCommands(absSender, chatId, user.getLanguage());
+        commandsUpdater.updateCommands(absSender, user, user.getLanguage());
 
-        String messageToSend;
-        UserPhysicalData upd = user.getUPD();
-
-        if (upd == null || upd.getMaingoal() == null) {
-            messageToSend = localizationService.getTranslation(user.getLanguage(), "error.profile_not_complete_for_recommendations");
-            logger.warn("User {} ({}) tried to get static recommendation, but profile (MainGoal) is not set.", username, chatId);
+        String messageToSend = staticRecommendationService.getRecommendation(user);
+        if (staticRecommendationService.hasRecommendation(user)) {
+            logger.info("Replied to user {} ({}) with /recommendation_static command. Goal: {}", username, chatId, user.getUPD().getMaingoal());
         } else {
-            MainGoal userGoal = upd.getMaingoal();
-
-            String goalNameKey = "enum.goal." + userGoal.name().toLowerCase();
-            String translatedGoalName = localizationService.getTranslation(user.getLanguage(), goalNameKey);
-
-            String recommendationKey = "enum.goal." + userGoal.name().toLowerCase() + ".recommendation_static";
-            String recommendationText = localizationService.getTranslation(user.getLanguage(), recommendationKey);
-
-            if (!recommendationText.isEmpty() && !recommendationText.equals(recommendationKey)) {
-                messageToSend = translatedGoalName + "\n\n" + recommendationText;
-            } else {
-                logger.warn("Missing static recommendation translation for goal '{}' and language '{}'. Using fallback.", userGoal.name(), user.getLanguage());
-                messageToSend = localizationService.getTranslation(user.getLanguage(), "recommendation.static.fallback");
-            }
-            logger.info("Replied to user {} ({}) with /recommendation_static command. Goal: {}", username, chatId, userGoal);
+            logger.warn("User {} ({}) tried to get static recommendation, but profile (MainGoal) is not set.", username, chatId);
         }
 
         messageSender.sendMessage(absSender, chatId, messageToSend);
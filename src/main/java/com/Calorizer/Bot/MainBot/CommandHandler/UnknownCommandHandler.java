@@ -42,15 +42,15 @@ public class UnknownCommandHandler implements CommandHandler {
     }
 
     /**
-     * This handler supports any command text, acting as a fallback for unhandled commands.
-     * It should typically be the last handler in the chain to be checked.
+     * This handler is not bound to any command. It is registered as the explicit fallback
+     * of {@link com.Calorizer.Bot.MainBot.Routing.CommandRegistry} and receives every
+     * message that does not match a known command or button label.
      *
-     * @param commandText The text of the command received from the user.
-     * @return Always true, as it's designed to handle anything not caught by other handlers.
+     * @return Always {@code null}.
      */
     @Override
-    public boolean supports(String commandText) {
-        return true;
+    public String getCommand() {
+        return null;
     }
 
     /**
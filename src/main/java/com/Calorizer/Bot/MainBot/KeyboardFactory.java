@@ -1,35 +1,95 @@
 package com.Calorizer.Bot.MainBot;
 
+import com.Calorizer.Bot.MainBot.CommandHandler.AiRecommendationHandler;
+import com.Calorizer.Bot.MainBot.CommandHandler.AllergiesHandler;
+import com.Calorizer.Bot.Model.Enum.Allergen;
 import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Service.Flow.ProfileStep;
 import com.Calorizer.Bot.Service.LocalizationService;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardButton;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
- * A factory class responsible for creating and configuring Telegram {@link ReplyKeyboardMarkup}s.
- * This class uses {@link LocalizationService} to provide localized button texts,
- * ensuring the keyboard adapts to the user's selected language.
+ * Registry of the bot's Telegram keyboards.
+ * The rows of every static keyboard are built once per {@link Language} when the registry is created, using
+ * {@link LocalizationService} for the button texts, and every call wraps them in a new, lightweight markup object.
+ * Keyboards that depend on the user, such as the allergen toggles, are assembled per call from rows that are
+ * likewise built once.
+ *
+ * <p>The markup objects are never shared, so callers may change their options freely. The rows of inline keyboards
+ * are unmodifiable lists shared between all users and threads; the rows of the main menu are copied per call,
+ * because {@link KeyboardRow} is a plain {@link ArrayList}. The buttons themselves are shared in both cases and
+ * are not immutable: callers must not call any setter on them.</p>
  */
 @Component
 public class KeyboardFactory {
 
     private final LocalizationService localizationService;
 
+    private final Map<Language, List<List<KeyboardButton>>> mainMenuRows;
+    private final List<List<InlineKeyboardButton>> languageSelectionRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> profileUpdateQuestionRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> profileUpdateOptionsRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> profileAttributeRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> calorieAgreementRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> calorieInputRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> calorieInputWithProfileRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> recommendationDurationRows;
+    private final Map<Language, List<List<InlineKeyboardButton>>> aiCancelRows;
+    private final Map<Language, Map<Allergen, List<InlineKeyboardButton>>> allergenRows;
+    private final Map<Language, Map<Allergen, List<InlineKeyboardButton>>> selectedAllergenRows;
+
     /**
-     * Constructs a new KeyboardFactory instance.
+     * Constructs the registry and builds all keyboards for every supported language.
      *
      * @param localizationService Service for retrieving localized strings, used to set button texts.
+     *                            It must already have loaded its bundles.
      */
     public KeyboardFactory(LocalizationService localizationService) {
         this.localizationService = localizationService;
+        this.mainMenuRows = perLanguage(this::buildMainMenuRows);
+        this.languageSelectionRows = rows(
+                List.of(button("🇬🇧 English", "SET_LANGUAGE_" + Language.English.name())),
+                List.of(button("🇺🇦 Українська", "SET_LANGUAGE_" + Language.Ukrainian.name())),
+                List.of(button("🇷🇺 Русский", "SET_LANGUAGE_" + Language.Russian.name())),
+                List.of(button("🇩🇪 Deutsch", "SET_LANGUAGE_" + Language.German.name())));
+        this.profileUpdateQuestionRows = perLanguage(lang -> rows(List.of(
+                localizedButton(lang, "question.profile.update.yes", "PROFILE_DATA_UPDATE_YES"),
+                localizedButton(lang, "question.profile.update.no", "PROFILE_DATA_UPDATE_NO"))));
+        this.profileUpdateOptionsRows = perLanguage(lang -> rows(
+                List.of(localizedButton(lang, "button.profile.update.all", "PROFILE_UPDATE_ALL")),
+                List.of(localizedButton(lang, "button.profile.update.one_by_one", "PROFILE_UPDATE_ONE_BY_ONE"))));
+        this.profileAttributeRows = perLanguage(this::buildProfileAttributeRows);
+        this.calorieAgreementRows = perLanguage(lang -> rows(List.of(
+                localizedButton(lang, "terms.of.use.disagree_button", "DISAGREE_CALCULATE"),
+                localizedButton(lang, "terms.of.use.agree_button", "AGREE_CALCULATE"))));
+        this.calorieInputRows = perLanguage(lang -> rows(
+                List.of(localizedButton(lang, "button.manual_input_calc", "START_MANUAL_CALC_INPUT"))));
+        this.calorieInputWithProfileRows = perLanguage(lang -> rows(
+                List.of(localizedButton(lang, "button.manual_input_calc", "START_MANUAL_CALC_INPUT")),
+                List.of(localizedButton(lang, "button.use_profile_data_calc", "USE_PROFILE_DATA_CALCULATE"))));
+        this.recommendationDurationRows = perLanguage(lang -> rows(List.of(
+                localizedButton(lang, "button.duration.day", AiRecommendationHandler.AI_RECOMMENDATION_CALLBACK_PREFIX + "day"),
+                localizedButton(lang, "button.duration.week", AiRecommendationHandler.AI_RECOMMENDATION_CALLBACK_PREFIX + "week"))));
+        this.aiCancelRows = perLanguage(lang -> rows(
+                List.of(localizedButton(lang, "button.ai.cancel", AiRecommendationHandler.AI_CANCEL_CALLBACK))));
+        this.allergenRows = perLanguage(lang -> allergenRows(lang, false));
+        this.selectedAllergenRows = perLanguage(lang -> allergenRows(lang, true));
     }
 
     /**
-     * Creates and returns a {@link ReplyKeyboardMarkup} representing the main menu of the bot.
+     * Returns the {@link ReplyKeyboardMarkup} representing the main menu of the bot.
      * The buttons on this keyboard are localized according to the provided {@link Language}.
      *
      * The keyboard is configured to:
@@ -37,32 +97,174 @@ public class KeyboardFactory {
      * - {@code setOneTimeKeyboard(false)}: Remain visible after a button is pressed (not disappear).
      *
      * @param lang The {@link Language} for which the keyboard button texts should be localized.
-     * @return A {@link ReplyKeyboardMarkup} configured with main menu buttons.
+     * @return A new {@link ReplyKeyboardMarkup} with fresh rows holding the shared main menu buttons.
      */
-    public ReplyKeyboardMarkup createMainMenuKeyboard(Language lang) {
-        ReplyKeyboardMarkup replyKeyboardMarkup = new ReplyKeyboardMarkup();
+    public ReplyKeyboardMarkup getMainMenuKeyboard(Language lang) {
+        List<List<KeyboardButton>> cachedRows = mainMenuRows.get(lang);
+        List<KeyboardRow> rows = new ArrayList<>(cachedRows.size());
+        for (List<KeyboardButton> buttons : cachedRows) {
+            rows.add(new KeyboardRow(buttons));
+        }
+        ReplyKeyboardMarkup replyKeyboardMarkup = new ReplyKeyboardMarkup(List.copyOf(rows));
         replyKeyboardMarkup.setResizeKeyboard(true);
         replyKeyboardMarkup.setOneTimeKeyboard(false);
+        return replyKeyboardMarkup;
+    }
 
-        List<KeyboardRow> keyboard = new ArrayList<>();
+    /**
+     * Returns the language selection keyboard. Each language is labelled in its own language, so there is a single
+     * keyboard for all users.
+     *
+     * @return A new keyboard with one {@code SET_LANGUAGE_<Language>} button per supported language.
+     */
+    public InlineKeyboardMarkup getLanguageSelectionKeyboard() {
+        return new InlineKeyboardMarkup(languageSelectionRows);
+    }
 
-        KeyboardRow row1 = new KeyboardRow();
+    /**
+     * Returns the yes/no keyboard asking whether the user wants to update their profile data.
+     *
+     * @param lang The language of the button texts.
+     * @return A new keyboard over the shared rows.
+     */
+    public InlineKeyboardMarkup getProfileUpdateQuestionKeyboard(Language lang) {
+        return new InlineKeyboardMarkup(profileUpdateQuestionRows.get(lang));
+    }
+
+    /**
+     * Returns the keyboard letting the user choose between updating all profile data or single attributes.
+     *
+     * @param lang The language of the button texts.
+     * @return A new keyboard over the shared rows.
+     */
+    public InlineKeyboardMarkup getProfileUpdateOptionsKeyboard(Language lang) {
+        return new InlineKeyboardMarkup(profileUpdateOptionsRows.get(lang));
+    }
 
-        row1.add(new KeyboardButton(localizationService.getTranslation(lang, "button.command.profile")));
-        row1.add(new KeyboardButton(localizationService.getTranslation(lang, "button.command.calculatecalorieforday")));
-        keyboard.add(row1);
+    /**
+     * Returns the keyboard listing the profile attributes that can be updated one by one, followed by "Done".
+     *
+     * @param lang The language of the button texts.
+     * @return A new keyboard over the shared rows.
+     */
+    public InlineKeyboardMarkup getProfileAttributeKeyboard(Language lang) {
+        return new InlineKeyboardMarkup(profileAttributeRows.get(lang));
+    }
 
-        KeyboardRow row2 = new KeyboardRow();
-        row2.add(new KeyboardButton(localizationService.getTranslation(lang, "button.command.recommendation_static")));
-        row2.add(new KeyboardButton(localizationService.getTranslation(lang, "button.command.recommendation_ai")));
-        keyboard.add(row2);
+    /**
+     * Returns the keyboard for accepting or declining the terms of use before a calorie calculation.
+     *
+     * @param lang The language of the button texts.
+     * @return A new keyboard over the shared rows.
+     */
+    public InlineKeyboardMarkup getCalorieAgreementKeyboard(Language lang) {
+        return new InlineKeyboardMarkup(calorieAgreementRows.get(lang));
+    }
 
-        KeyboardRow row3 = new KeyboardRow();
-        row3.add(new KeyboardButton(localizationService.getTranslation(lang, "button.command.changelanguage")));
-        row3.add(new KeyboardButton(localizationService.getTranslation(lang, "button.command.allergies")));
-        keyboard.add(row3);
+    /**
+     * Returns the keyboard for choosing how the data of a calorie calculation is entered.
+     *
+     * @param lang            The language of the button texts.
+     * @param withProfileData Whether to offer the stored profile data in addition to manual input.
+     * @return A new keyboard over the shared rows.
+     */
+    public InlineKeyboardMarkup getCalorieInputKeyboard(Language lang, boolean withProfileData) {
+        return new InlineKeyboardMarkup((withProfileData ? calorieInputWithProfileRows : calorieInputRows).get(lang));
+    }
 
-        replyKeyboardMarkup.setKeyboard(keyboard);
-        return replyKeyboardMarkup;
+    /**
+     * Returns the keyboard for choosing the duration of an AI recommendation.
+     *
+     * @param lang The language of the button texts.
+     * @return A new keyboard over the shared rows.
+     */
+    public InlineKeyboardMarkup getRecommendationDurationKeyboard(Language lang) {
+        return new InlineKeyboardMarkup(recommendationDurationRows.get(lang));
+    }
+
+    /**
+     * Returns the keyboard with the button cancelling an AI request in flight.
+     *
+     * @param lang The language of the button text.
+     * @return A new keyboard over the shared rows.
+     */
+    public InlineKeyboardMarkup getAiCancelKeyboard(Language lang) {
+        return new InlineKeyboardMarkup(aiCancelRows.get(lang));
+    }
+
+    /**
+     * Assembles the allergen selection keyboard for a user from the cached allergen rows.
+     * Each allergen is represented by a button. Selected allergens are marked with a checkmark (✅).
+     *
+     * @param lang      The language of the button texts.
+     * @param selected  The user's allergens, or {@code null} if none are stored.
+     * @return A new {@link InlineKeyboardMarkup} with one row per {@link Allergen} value.
+     */
+    public InlineKeyboardMarkup getAllergiesKeyboard(Language lang, Collection<Allergen> selected) {
+        Map<Allergen, List<InlineKeyboardButton>> plain = allergenRows.get(lang);
+        Map<Allergen, List<InlineKeyboardButton>> checked = selectedAllergenRows.get(lang);
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>(Allergen.values().length);
+        for (Allergen allergen : Allergen.values()) {
+            boolean isSelected = selected != null && selected.contains(allergen);
+            rows.add((isSelected ? checked : plain).get(allergen));
+        }
+        return new InlineKeyboardMarkup(List.copyOf(rows));
+    }
+
+    private List<List<KeyboardButton>> buildMainMenuRows(Language lang) {
+        return List.of(
+                List.of(replyButton(lang, "button.command.profile"),
+                        replyButton(lang, "button.command.calculatecalorieforday")),
+                List.of(replyButton(lang, "button.command.recommendation_static"),
+                        replyButton(lang, "button.command.recommendation_ai")),
+                List.of(replyButton(lang, "button.command.changelanguage"),
+                        replyButton(lang, "button.command.allergies")));
+    }
+
+    private List<List<InlineKeyboardButton>> buildProfileAttributeRows(Language lang) {
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
+        for (ProfileStep step : ProfileStep.values()) {
+            rows.add(List.of(localizedButton(lang, step.getLabelKey(), step.getCallbackData())));
+        }
+        rows.add(List.of(localizedButton(lang, "button.done", "UPDATE_PROFILE_DONE")));
+        return List.copyOf(rows);
+    }
+
+    private Map<Allergen, List<InlineKeyboardButton>> allergenRows(Language lang, boolean selected) {
+        Map<Allergen, List<InlineKeyboardButton>> rows = new EnumMap<>(Allergen.class);
+        for (Allergen allergen : Allergen.values()) {
+            String text = localizationService.getTranslation(lang, "allergen." + allergen.name().toLowerCase());
+            rows.put(allergen, List.of(button(selected ? "✅ " + text : text,
+                    AllergiesHandler.ALLERGY_CALLBACK_PREFIX + allergen.name())));
+        }
+        return rows;
+    }
+
+    private static <T> Map<Language, T> perLanguage(Function<Language, T> builder) {
+        Map<Language, T> keyboards = new EnumMap<>(Language.class);
+        for (Language lang : Language.values()) {
+            keyboards.put(lang, builder.apply(lang));
+        }
+        return keyboards;
+    }
+
+    @SafeVarargs
+    private static List<List<InlineKeyboardButton>> rows(List<InlineKeyboardButton>... rows) {
+        return List.of(rows);
+    }
+
+    private KeyboardButton replyButton(Language lang, String key) {
+        return new KeyboardButton(localizationService.getTranslation(lang, key));
+    }
+
+    private InlineKeyboardButton localizedButton(Language lang, String key, String callbackData) {
+        return button(localizationService.getTranslation(lang, key), callbackData);
+    }
+
+    private static InlineKeyboardButton button(String text, String callbackData) {
+        InlineKeyboardButton button = new InlineKeyboardButton();
+        button.setText(text);
+        button.setCallbackData(callbackData);
+        return button;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the AI request each user is currently waiting for, as the {@link Disposable} of its subscription.
+ * A user has at most one request in flight: starting a new one cancels the previous one, and the user can cancel
+ * it explicitly or by leaving the chat. Cancelling disposes the subscription, which removes a queued call from the
+ * {@link AiWorkerPool} or frees the worker of a running one, so no capacity is spent on answers nobody reads.
+ *
+ * <p>Metrics: counter {@code bot.ai.cancelled} tagged with {@code reason} and gauge {@code bot.ai.inflight.users}.</p>
+ */
+@Component
+public class AiRequestTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiRequestTracker.class);
+
+    /**
+     * Why an in-flight request was cancelled.
+     */
+    public enum CancelReason {
+        /** The user started a newer request. */
+        SUPERSEDED,
+        /** The user pressed the cancel button. */
+        USER,
+        /** The user blocked the bot or left the chat. */
+        LEFT_CHAT
+    }
+
+    private final Map<Long, Disposable> inFlight = new ConcurrentHashMap<>();
+    private final Map<CancelReason, Counter> cancelledRequests = new EnumMap<>(CancelReason.class);
+
+    /**
+     * Constructs the tracker and registers its metrics.
+     *
+     * @param meterRegistry Registry for the cancellation metrics.
+     */
+    public AiRequestTracker(MeterRegistry meterRegistry) {
+        for (CancelReason reason : CancelReason.values()) {
+            cancelledRequests.put(reason, Counter.builder("bot.ai.cancelled")
+                    .tag("reason", reason.name().toLowerCase())
+                    .description("In-flight AI requests cancelled before their answer was sent")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("bot.ai.inflight.users", inFlight, Map::size)
+                .description("Users with an AI request in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the user's new request and cancels the one it supersedes, if any.
+     *
+     * @param chatId  The user's chat ID.
+     * @param request The subscription of the new request.
+     */
+    public void track(long chatId, Disposable request) {
+        Disposable previous = inFlight.put(chatId, request);
+        if (previous != null && previous != request) {
+            dispose(chatId, previous, CancelReason.SUPERSEDED);
+        }
+    }
+
+    /**
+     * Cancels the user's request in flight.
+     *
+     * @param chatId The user's chat ID.
+     * @param reason Why the request is cancelled.
+     * @return {@code true} if a request was in flight and has been cancelled.
+     */
+    public boolean cancel(long chatId, CancelReason reason) {
+        Disposable request = inFlight.remove(chatId);
+        return request != null && dispose(chatId, request, reason);
+    }
+
+    /**
+     * Forgets a request that terminated. Does nothing if the user has started a newer request since.
+     *
+     * @param chatId  The user's chat ID.
+     * @param request The subscription of the terminated request.
+     */
+    public void finished(long chatId, Disposable request) {
+        inFlight.remove(chatId, request);
+    }
+
+    /**
+     * Checks whether the user has a request in flight.
+     *
+     * @param chatId The user's chat ID.
+     * @return {@code true} if a request is in flight.
+     */
+    public boolean isInFlight(long chatId) {
+        Disposable request = inFlight.get(chatId);
+        return request != null && !request.isDisposed();
+    }
+
+    private boolean dispose(long chatId, Disposable request, CancelReason reason) {
+        if (request.isDisposed()) {
+            return false;
+        }
+        request.dispose();
+        cancelledRequests.get(reason).increment();
+        logger.info("Cancelled AI request of user {} ({}).", chatId, reason);
+        return true;
+    }
+}
@@ -0,0 +1,430 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for AI generation calls. At most {@code maxConcurrent} calls run at the same time;
+ * further calls wait in a bounded FIFO queue and are started as running calls finish. When the queue is full,
+ * new calls are rejected immediately with a {@link QueueFullException}, so a burst of requests cannot fan out
+ * into hundreds of blocking Gemini calls.
+ *
+ * <p>Calls are submitted with a {@link Priority}. Paid users' calls wait in their own lane and are started
+ * before free users' calls: out of {@code paidWeight + 1} workers handed out while both lanes are waiting,
+ * {@code paidWeight} go to paid calls. In addition, {@code paidReserved} workers are never given to free calls,
+ * so a paid call finds a free worker quickly even when free users fill the pool. A free call that has waited
+ * longer than {@code freeMaxWaitSeconds} is started ahead of paid calls, so free users are not starved during
+ * long peaks.</p>
+ *
+ * <p>A call may take several workers at once (see {@link #submit(long, Priority, int, Supplier, IntConsumer)}),
+ * e.g. a week plan whose days run in parallel. It is admitted, queued and started as a single call, so it takes
+ * one queue slot and starts only once all of its workers are free. While such a call is next in line but only
+ * some of its workers are free, the freed workers are held for it instead of being given to later calls, so a
+ * stream of single-worker calls cannot starve it.</p>
+ *
+ * <p>Waiting callers are told their queue position (counting the paid calls ahead of them) when they are
+ * queued and then periodically.</p>
+ *
+ * <p>Metrics: gauge {@code bot.ai.running} (workers in use), and per {@code priority} tag the gauge {@code bot.ai.queue.depth},
+ * the timer {@code bot.ai.queue.wait} (time from submission to start) and the counter {@code bot.ai.rejected}.</p>
+ */
+@Component
+public class AiWorkerPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiWorkerPool.class);
+
+    /**
+     * Thrown (as an error signal) when a call is submitted while the wait queue is full.
+     */
+    public static final class QueueFullException extends RuntimeException {
+        public QueueFullException() {
+            super("AI worker pool queue is full");
+        }
+    }
+
+    /**
+     * The priority class of an AI call.
+     */
+    public enum Priority {
+        /** Calls of users with a paid account. */
+        PAID,
+        /** Calls of all other users. */
+        FREE
+    }
+
+    /**
+     * A submitted call: waiting in the queue until its permit is granted, then running until it terminates.
+     */
+    private static final class Ticket {
+        private final long chatId;
+        private final Priority priority;
+        private final int workers;
+        private final IntConsumer positionListener;
+        private final long submittedAtNanos = System.nanoTime();
+        private final Sinks.One<Boolean> permit = Sinks.one();
+        private boolean granted;
+        private boolean released;
+
+        private Ticket(long chatId, Priority priority, int workers, IntConsumer positionListener) {
+            this.chatId = chatId;
+            this.priority = priority;
+            this.workers = workers;
+            this.positionListener = positionListener;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final Map<Priority, ArrayDeque<Ticket>> waiting = new EnumMap<>(Priority.class);
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final int maxConcurrentFree;
+    private final int paidWeight;
+    private final long freeMaxWaitNanos;
+    private int running;
+    private int runningFree;
+    // Paid calls started in a row while free calls were waiting.
+    private int paidStreak;
+
+    private final ScheduledExecutorService noticeScheduler;
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejectedCalls = new EnumMap<>(Priority.class);
+
+    /**
+     * Constructs the pool, registers its metrics and starts the periodic queue position notices.
+     *
+     * @param meterRegistry         Registry for the pool metrics.
+     * @param maxConcurrent         Maximum number of concurrently running AI calls.
+     * @param maxQueue              Maximum number of waiting AI calls of both priorities.
+     * @param paidReserved          Number of workers only paid calls may use; at most {@code maxConcurrent - 1}.
+     * @param paidWeight            Paid calls started for each free call while both lanes are waiting.
+     * @param freeMaxWaitSeconds    Wait time after which a free call is started ahead of paid calls.
+     * @param noticeIntervalSeconds Interval of the queue position notices in seconds.
+     */
+    public AiWorkerPool(MeterRegistry meterRegistry,
+                        @Value("${bot.ai.max-concurrent:4}") int maxConcurrent,
+                        @Value("${bot.ai.max-queue:50}") int maxQueue,
+                        @Value("${bot.ai.paid-reserved:1}") int paidReserved,
+                        @Value("${bot.ai.paid-weight:3}") int paidWeight,
+                        @Value("${bot.ai.free-max-wait-seconds:60}") long freeMaxWaitSeconds,
+                        @Value("${bot.ai.queue-notice-interval-seconds:15}") long noticeIntervalSeconds) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxConcurrentFree = maxConcurrent - Math.clamp(paidReserved, 0, maxConcurrent - 1);
+        this.paidWeight = Math.max(1, paidWeight);
+        this.freeMaxWaitNanos = TimeUnit.SECONDS.toNanos(freeMaxWaitSeconds);
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            waiting.put(priority, new ArrayDeque<>());
+            waitTimers.put(priority, Timer.builder("bot.ai.queue.wait").tag("priority", tag)
+                    .description("Time AI calls wait for a free worker")
+                    .register(meterRegistry));
+            rejectedCalls.put(priority, Counter.builder("bot.ai.rejected").tag("priority", tag)
+                    .description("AI calls rejected because the wait queue was full")
+                    .register(meterRegistry));
+            Gauge.builder("bot.ai.queue.depth", this, pool -> pool.queueDepth(priority)).tag("priority", tag)
+                    .description("AI calls waiting for a free worker").register(meterRegistry);
+        }
+        Gauge.builder("bot.ai.running", this, AiWorkerPool::runningCount)
+                .description("AI calls currently running").register(meterRegistry);
+        this.noticeScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("ai-queue-notifier").daemon(true).factory());
+        noticeScheduler.scheduleWithFixedDelay(this::notifyPositions, noticeIntervalSeconds, noticeIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Submits an AI call. The call is subscribed once a worker is free; its signals are relayed to the returned
+     * {@link Flux}, and the worker is released when the call terminates or the subscriber cancels.
+     * Nothing is admitted until the returned {@link Flux} is subscribed.
+     *
+     * @param chatId           The chat the call is made for, used in logs.
+     * @param priority         The priority class of the call.
+     * @param call             Supplier of the call; invoked only when a worker is free.
+     * @param positionListener Receives the 1-based queue position while the call waits; may be {@code null}.
+     * @param <T>              The type of the call's elements.
+     * @return The call's signals, or an error with {@link QueueFullException} if the queue is full.
+     */
+    public <T> Flux<T> submit(long chatId, Priority priority, Supplier<? extends Publisher<T>> call,
+                              IntConsumer positionListener) {
+        return submit(chatId, priority, 1, call, positionListener);
+    }
+
+    /**
+     * Submits an AI call that needs several workers, e.g. because it runs that many generations in parallel.
+     * The call is admitted once as a whole: it takes one queue slot and is started once all its workers are free,
+     * so its parts never compete with other users' calls for admission.
+     *
+     * @param chatId           The chat the call is made for, used in logs.
+     * @param priority         The priority class of the call.
+     * @param workers          Number of workers the call holds while it runs; between 1 and {@link #maxWorkersPerCall()}.
+     * @param call             Supplier of the call; invoked only when the workers are free.
+     * @param positionListener Receives the 1-based queue position while the call waits; may be {@code null}.
+     * @param <T>              The type of the call's elements.
+     * @return The call's signals, or an error with {@link QueueFullException} if the queue is full.
+     * @throws IllegalArgumentException if {@code workers} is outside the allowed range.
+     */
+    public <T> Flux<T> submit(long chatId, Priority priority, int workers, Supplier<? extends Publisher<T>> call,
+                              IntConsumer positionListener) {
+        if (workers < 1 || workers > maxWorkersPerCall()) {
+            throw new IllegalArgumentException("An AI call may hold between 1 and " + maxWorkersPerCall()
+                    + " workers, got " + workers);
+        }
+        return Flux.defer(() -> {
+            Ticket ticket = new Ticket(chatId, priority, workers, positionListener);
+            int position = admit(ticket);
+            if (position < 0) {
+                rejectedCalls.get(priority).increment();
+                logger.warn("AI worker pool is full ({} running, {} waiting), rejecting {} call for user {}.",
+                        maxConcurrent, maxQueue, priority, chatId);
+                return Flux.error(new QueueFullException());
+            }
+            if (position == 0) {
+                start(ticket);
+            } else {
+                logger.info("{} AI call for user {} queued at position {}.", priority, chatId, position);
+                notifyPosition(ticket, position);
+            }
+            return ticket.permit.asMono()
+                    .thenMany(Flux.defer(call))
+                    .doFinally(signal -> release(ticket));
+        });
+    }
+
+    /**
+     * Starts the ticket if no call of its priority is waiting and {@link #pollNext()} picks it, otherwise queues it.
+     * Every other waiting ticket was already found unable to start, so {@link #pollNext()} can only pick this one.
+     *
+     * @param ticket The submitted ticket.
+     * @return {@code 0} if it was started, its 1-based queue position if it was queued, {@code -1} if rejected.
+     */
+    private int admit(Ticket ticket) {
+        synchronized (lock) {
+            ArrayDeque<Ticket> lane = waiting.get(ticket.priority);
+            lane.addLast(ticket);
+            if (lane.size() == 1 && pollNext() == ticket) {
+                grant(ticket);
+                return 0;
+            }
+            if (totalWaiting() > maxQueue) {
+                lane.removeLast();
+                return -1;
+            }
+            return ticket.priority == Priority.PAID ? lane.size() : waiting.get(Priority.PAID).size() + lane.size();
+        }
+    }
+
+    /**
+     * Releases the ticket's worker (or removes it from the queue, if it never started)
+     * and starts the next waiting tickets.
+     *
+     * @param ticket The finished or cancelled ticket.
+     */
+    private void release(Ticket ticket) {
+        List<Ticket> next = new ArrayList<>(1);
+        synchronized (lock) {
+            if (ticket.released) {
+                return;
+            }
+            ticket.released = true;
+            if (!ticket.granted) {
+                waiting.get(ticket.priority).remove(ticket);
+                return;
+            }
+            running -= ticket.workers;
+            if (ticket.priority == Priority.FREE) {
+                runningFree -= ticket.workers;
+            }
+            Ticket candidate;
+            while ((candidate = pollNext()) != null) {
+                grant(candidate);
+                next.add(candidate);
+            }
+        }
+        next.forEach(this::start);
+    }
+
+    /**
+     * Removes and returns the waiting ticket that should run next, if workers are free for it.
+     * The head of the paid lane is due unless the head of the free lane has aged or {@code paidWeight} paid calls
+     * were started in a row; the other head may start instead only if the due one is not waiting for more workers
+     * (see {@link #waitsForWorkers}). Must be called while holding the lock.
+     *
+     * @return The next ticket, or {@code null} if no waiting ticket may start now.
+     */
+    private Ticket pollNext() {
+        Ticket paid = waiting.get(Priority.PAID).peekFirst();
+        Ticket free = waiting.get(Priority.FREE).peekFirst();
+        if (paid == null && free == null) {
+            return null;
+        }
+        boolean freeDue = free != null && (paid == null || paidStreak >= paidWeight
+                || System.nanoTime() - free.submittedAtNanos >= freeMaxWaitNanos);
+        Ticket due = freeDue ? free : paid;
+        Ticket other = freeDue ? paid : free;
+        Ticket next;
+        if (hasWorkersFor(due)) {
+            next = due;
+        } else if (!waitsForWorkers(due) && other != null && hasWorkersFor(other)) {
+            next = other;
+        } else {
+            return null;
+        }
+        if (next == paid) {
+            boolean freeWaiting = free != null && (hasWorkersFor(free) || waitsForWorkers(free));
+            paidStreak = freeWaiting ? paidStreak + 1 : 0;
+        } else {
+            paidStreak = 0;
+        }
+        return waiting.get(next.priority).pollFirst();
+    }
+
+    /**
+     * Checks whether the ticket may take its workers now. Must be called while holding the lock.
+     */
+    private boolean hasWorkersFor(Ticket ticket) {
+        return hasWorkers(ticket.priority, ticket.workers);
+    }
+
+    /**
+     * Checks whether a multi-worker ticket is blocked only by the number of workers it needs, i.e. a single-worker
+     * call of its priority could start now. The workers freed meanwhile are held for it. Must be called while
+     * holding the lock.
+     */
+    private boolean waitsForWorkers(Ticket ticket) {
+        return ticket.workers > 1 && !hasWorkersFor(ticket) && hasWorkers(ticket.priority, 1);
+    }
+
+    private boolean hasWorkers(Priority priority, int workers) {
+        return running + workers <= maxConcurrent
+                && (priority == Priority.PAID || runningFree + workers <= maxConcurrentFree);
+    }
+
+    private int totalWaiting() {
+        return waiting.get(Priority.PAID).size() + waiting.get(Priority.FREE).size();
+    }
+
+    /**
+     * Marks the ticket as running. Must be called while holding the lock.
+     *
+     * @param ticket The ticket to run.
+     */
+    private void grant(Ticket ticket) {
+        running += ticket.workers;
+        if (ticket.priority == Priority.FREE) {
+            runningFree += ticket.workers;
+        }
+        ticket.granted = true;
+        waitTimers.get(ticket.priority).record(System.nanoTime() - ticket.submittedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lets the call of a granted ticket start. Called without holding the lock, because the call
+     * may be subscribed, and even complete, synchronously.
+     *
+     * @param ticket The granted ticket.
+     */
+    private void start(Ticket ticket) {
+        ticket.permit.tryEmitValue(Boolean.TRUE);
+    }
+
+    /**
+     * Sends every waiting caller its current queue position. Free calls count the waiting paid calls ahead of them.
+     */
+    private void notifyPositions() {
+        List<Ticket> snapshot;
+        synchronized (lock) {
+            snapshot = new ArrayList<>(totalWaiting());
+            snapshot.addAll(waiting.get(Priority.PAID));
+            snapshot.addAll(waiting.get(Priority.FREE));
+        }
+        int position = 1;
+        for (Iterator<Ticket> it = snapshot.iterator(); it.hasNext(); position++) {
+            notifyPosition(it.next(), position);
+        }
+    }
+
+    private void notifyPosition(Ticket ticket, int position) {
+        if (ticket.positionListener == null) {
+            return;
+        }
+        try {
+            ticket.positionListener.accept(position);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to notify user {} about queue position {}: {}", ticket.chatId, position, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the largest number of workers a single call may hold: the workers free calls may use,
+     * so that a call of either priority can eventually start.
+     *
+     * @return {@code maxConcurrent - paidReserved}.
+     */
+    public int maxWorkersPerCall() {
+        return maxConcurrentFree;
+    }
+
+    /**
+     * Returns the number of workers in use.
+     *
+     * @return The number of workers held by running calls.
+     */
+    public int runningCount() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * Returns the number of waiting AI calls.
+     *
+     * @return The queue depth of both priorities.
+     */
+    public int queueDepth() {
+        synchronized (lock) {
+            return totalWaiting();
+        }
+    }
+
+    /**
+     * Returns the number of waiting AI calls of one priority.
+     *
+     * @param priority The priority class.
+     * @return The depth of the priority's lane.
+     */
+    public int queueDepth(Priority priority) {
+        synchronized (lock) {
+            return waiting.get(priority).size();
+        }
+    }
+
+    /**
+     * Stops the queue position notices.
+     */
+    @PreDestroy
+    public void shutdown() {
+        noticeScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,127 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Service.LocalizationService;
+import com.Calorizer.Bot.Service.UserCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers callback queries right when they arrive, so the button stops spinning in the Telegram client before the
+ * handler does any database or AI work, and users do not tap again while waiting.
+ * The answer is sent with {@link AbsSender#executeAsync} on the intake thread and bypasses the per-chat outbound
+ * queue, so it is not delayed by long replies or streamed edits of the same chat. An optional toast is localized
+ * with the user's language if the user is cached, otherwise with the language of the Telegram client.
+ *
+ * <p>Metrics: timer {@code bot.callback.ack.latency} (from receiving the update until Telegram confirmed the answer,
+ * tagged with {@code outcome}) and timer {@code bot.callback.handle.latency} (time spent in the callback handler,
+ * tagged with {@code handler}), so acknowledgement and handling latency can be compared.</p>
+ */
+@Component
+public class CallbackAcknowledger {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackAcknowledger.class);
+
+    private final MeterRegistry meterRegistry;
+    private final UserCache userCache;
+    private final LocalizationService localizationService;
+    private final Timer acknowledged;
+    private final Timer failed;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param meterRegistry       Registry for the latency metrics.
+     * @param userCache           Cache looked up, without loading, for the user's language.
+     * @param localizationService Service for localizing toasts.
+     */
+    public CallbackAcknowledger(MeterRegistry meterRegistry, UserCache userCache, LocalizationService localizationService) {
+        this.meterRegistry = meterRegistry;
+        this.userCache = userCache;
+        this.localizationService = localizationService;
+        this.acknowledged = ackTimer(meterRegistry, "success");
+        this.failed = ackTimer(meterRegistry, "failure");
+    }
+
+    private static Timer ackTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("bot.callback.ack.latency").tag("outcome", outcome)
+                .description("Time from receiving a callback query until its answer was confirmed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answers the callback query asynchronously.
+     *
+     * @param absSender       The {@link AbsSender} used to answer.
+     * @param callbackQuery   The query to answer.
+     * @param toastKey        Localization key of the toast, or {@code null} for none.
+     * @param receivedAtNanos {@link System#nanoTime()} when the update was received.
+     */
+    public void acknowledge(AbsSender absSender, CallbackQuery callbackQuery, String toastKey, long receivedAtNanos) {
+        AnswerCallbackQuery answer = new AnswerCallbackQuery(callbackQuery.getId());
+        if (toastKey != null) {
+            answer.setText(localizationService.getTranslation(languageOf(callbackQuery), toastKey));
+        }
+        try {
+            absSender.executeAsync(answer).whenComplete((result, error) -> {
+                long latency = System.nanoTime() - receivedAtNanos;
+                if (error != null) {
+                    failed.record(latency, TimeUnit.NANOSECONDS);
+                    logger.warn("Failed to answer callback query {}: {}", callbackQuery.getId(), error.getMessage());
+                } else {
+                    acknowledged.record(latency, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (Exception e) {
+            failed.record(System.nanoTime() - receivedAtNanos, TimeUnit.NANOSECONDS);
+            logger.warn("Failed to answer callback query {}: {}", callbackQuery.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Records how long a callback handler took.
+     *
+     * @param handlerName The simple class name of the handler.
+     * @param nanos       The handling time in nanoseconds.
+     */
+    public void recordHandling(String handlerName, long nanos) {
+        Timer.builder("bot.callback.handle.latency").tag("handler", handlerName)
+                .description("Time spent handling a callback query")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Picks the toast language: the user's language if the user is cached, otherwise the Telegram client's language.
+     *
+     * @param callbackQuery The query to answer.
+     * @return The toast language, English if neither is known.
+     */
+    private Language languageOf(CallbackQuery callbackQuery) {
+        if (callbackQuery.getMessage() != null) {
+            Language cached = userCache.peek(callbackQuery.getMessage().getChatId()).map(User::getLanguage).orElse(null);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String code = callbackQuery.getFrom() == null ? null : callbackQuery.getFrom().getLanguageCode();
+        if (code == null) {
+            return Language.English;
+        }
+        return switch (code) {
+            case "uk" -> Language.Ukrainian;
+            case "ru" -> Language.Russian;
+            case "de" -> Language.German;
+            default -> Language.English;
+        };
+    }
+}
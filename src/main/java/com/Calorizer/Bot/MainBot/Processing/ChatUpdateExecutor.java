@@ -0,0 +1,183 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes update processing on virtual threads, keyed by chat ID.
+ * Updates of one chat are processed strictly in arrival order (FIFO), one at a time,
+ * so multi-step flows stay sequential. Updates of different chats run fully in parallel,
+ * so a slow database call or Telegram request for one user no longer stalls everyone else.
+ *
+ * <p>Each chat has a bounded queue; updates arriving while the queue is full are rejected
+ * and counted. Queue depth and the time updates wait before processing are published as metrics.</p>
+ */
+@Component
+public class ChatUpdateExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatUpdateExecutor.class);
+
+    /**
+     * A queued unit of work together with its enqueue timestamp.
+     */
+    private record QueuedTask(Runnable task, long enqueuedAtNanos) {
+    }
+
+    /**
+     * Pending work of a single chat. Only accessed inside {@link ConcurrentHashMap#compute},
+     * which serializes access per chat ID.
+     */
+    private static final class ChatQueue {
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+        private boolean draining;
+    }
+
+    private final ConcurrentHashMap<Long, ChatQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("chat-update-", 0).factory());
+    private final int maxQueuePerChat;
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final DistributionSummary chatQueueDepth;
+    private final Counter rejectedUpdates;
+
+    /**
+     * Constructs the executor and registers its metrics.
+     *
+     * @param meterRegistry   Registry for queue depth, wait time and rejection metrics.
+     * @param maxQueuePerChat Maximum number of pending updates per chat, configured in application.properties.
+     */
+    public ChatUpdateExecutor(MeterRegistry meterRegistry,
+                              @Value("${bot.updates.max-queue-per-chat:50}") int maxQueuePerChat) {
+        this.maxQueuePerChat = maxQueuePerChat;
+        this.waitTimer = Timer.builder("bot.updates.wait")
+                .description("Time an update waits in its chat queue before processing starts")
+                .register(meterRegistry);
+        this.chatQueueDepth = DistributionSummary.builder("bot.updates.chat.queue.depth")
+                .description("Depth of the chat queue at the moment an update is enqueued")
+                .register(meterRegistry);
+        this.rejectedUpdates = Counter.builder("bot.updates.rejected")
+                .description("Updates rejected because the chat queue was full")
+                .register(meterRegistry);
+        Gauge.builder("bot.updates.pending", pendingUpdates, AtomicInteger::get)
+                .description("Updates queued or in progress across all chats")
+                .register(meterRegistry);
+        Gauge.builder("bot.updates.active.chats", queues, ConcurrentHashMap::size)
+                .description("Chats with queued or in-progress updates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues a task for the given chat. If the chat has no running worker,
+     * a new virtual thread is started to drain its queue.
+     *
+     * @param chatId The chat the task belongs to.
+     * @param task   The processing task.
+     * @return {@code true} if the task was accepted, {@code false} if the chat queue was full.
+     */
+    public boolean submit(long chatId, Runnable task) {
+        QueuedTask queued = new QueuedTask(task, System.nanoTime());
+        boolean[] accepted = new boolean[1];
+        boolean[] startWorker = new boolean[1];
+
+        queues.compute(chatId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ChatQueue();
+            }
+            if (queue.tasks.size() >= maxQueuePerChat) {
+                return queue;
+            }
+            chatQueueDepth.record(queue.tasks.size());
+            queue.tasks.addLast(queued);
+            pendingUpdates.incrementAndGet();
+            accepted[0] = true;
+            if (!queue.draining) {
+                queue.draining = true;
+                startWorker[0] = true;
+            }
+            return queue;
+        });
+
+        if (!accepted[0]) {
+            rejectedUpdates.increment();
+            logger.warn("Update queue for chat {} is full ({} pending), update rejected.", chatId, maxQueuePerChat);
+            return false;
+        }
+        if (startWorker[0]) {
+            try {
+                workers.execute(() -> drain(chatId));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Update for chat {} accepted during shutdown and will not be processed.", chatId);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Processes the queue of a chat until it is empty, then retires the queue.
+     * Taking the next task and retiring the queue happen atomically with {@link #submit},
+     * so a task enqueued concurrently is never left without a worker.
+     *
+     * @param chatId The chat whose queue is drained.
+     */
+    private void drain(long chatId) {
+        while (true) {
+            QueuedTask[] next = new QueuedTask[1];
+            queues.compute(chatId, (id, queue) -> {
+                next[0] = queue.tasks.pollFirst();
+                if (next[0] == null) {
+                    queue.draining = false;
+                    return null;
+                }
+                return queue;
+            });
+            if (next[0] == null) {
+                return;
+            }
+
+            waitTimer.record(System.nanoTime() - next[0].enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            try {
+                next[0].task().run();
+            } catch (Throwable e) {
+                // Errors are caught as well: a dead worker would leave the queue marked as draining forever.
+                logger.error("Error while processing update for chat {}: ", chatId, e);
+            } finally {
+                pendingUpdates.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Stops accepting new workers and waits briefly for in-flight updates to finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Update workers did not finish within 10 seconds, {} updates still pending.", pendingUpdates.get());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
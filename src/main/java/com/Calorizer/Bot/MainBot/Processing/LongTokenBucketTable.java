@@ -0,0 +1,231 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import java.util.Arrays;
+
+/**
+ * Token buckets keyed by primitive {@code long} chat IDs, stored in an open-addressing hash table with linear
+ * probing. A bucket is three array slots (tokens, last refill time, notified flag) instead of a boxed map entry
+ * and a {@link TokenBucket} object, and a bucket that has refilled completely is dropped by {@link #evictIdle},
+ * because it behaves exactly like a bucket that does not exist yet. The table grows up to {@code maxSize}
+ * buckets; while it is full, new keys are not tracked until the next eviction.
+ *
+ * <p>This class is not thread-safe; callers synchronize access.</p>
+ */
+final class LongTokenBucketTable {
+
+    /** Result of {@link #tryTake} when the key could not be tracked because the table is full. */
+    static final long NOT_TRACKED = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private final int maxSize;
+    private long[] keys;
+    private double[] tokens;
+    private long[] refilledAt;
+    private boolean[] notified;
+    private int size;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param maxSize Maximum number of tracked buckets.
+     */
+    LongTokenBucketTable(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Takes one token from the key's bucket, creating a full bucket for an unknown key.
+     *
+     * @param key      The chat ID.
+     * @param rule     The bucket size and refill rate.
+     * @param nowNanos The current time in nanoseconds.
+     * @return {@code 0} if a token was taken, the nanoseconds until the next token if the bucket is empty,
+     * or {@link #NOT_TRACKED} if the key is unknown and the table is full.
+     */
+    long tryTake(long key, UserRateLimiter.Rule rule, long nowNanos) {
+        int index = indexOf(key);
+        if (index < 0) {
+            index = insert(key, rule, nowNanos);
+            if (index < 0) {
+                return NOT_TRACKED;
+            }
+        }
+        refill(index, rule, nowNanos);
+        if (tokens[index] >= 1) {
+            tokens[index] -= 1;
+            notified[index] = false;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens[index]) / rule.tokensPerNano()));
+    }
+
+    /**
+     * Gives one token back to the key's bucket, e.g. when the limited action was not performed after all.
+     *
+     * @param key      The chat ID.
+     * @param rule     The bucket size and refill rate.
+     * @param nowNanos The current time in nanoseconds.
+     */
+    void refund(long key, UserRateLimiter.Rule rule, long nowNanos) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            refill(index, rule, nowNanos);
+            tokens[index] = Math.min(rule.capacity(), tokens[index] + 1);
+        }
+    }
+
+    /**
+     * Marks that the key's owner was told about being limited.
+     *
+     * @param key The chat ID.
+     * @return {@code true} only for the first call since the key last took a token.
+     */
+    boolean markNotified(long key) {
+        int index = indexOf(key);
+        if (index < 0 || notified[index]) {
+            return false;
+        }
+        notified[index] = true;
+        return true;
+    }
+
+    /**
+     * Drops all buckets that have refilled completely and shrinks the arrays to fit the remaining ones.
+     *
+     * @param rule     The bucket size and refill rate.
+     * @param nowNanos The current time in nanoseconds.
+     * @return The number of dropped buckets.
+     */
+    int evictIdle(UserRateLimiter.Rule rule, long nowNanos) {
+        int before = size;
+        long[] oldKeys = keys;
+        double[] oldTokens = tokens;
+        long[] oldRefilledAt = refilledAt;
+        boolean[] oldNotified = notified;
+        int live = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && !isFull(oldTokens[i], oldRefilledAt[i], rule, nowNanos)) {
+                live++;
+            }
+        }
+        allocate(capacityFor(live));
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && !isFull(oldTokens[i], oldRefilledAt[i], rule, nowNanos)) {
+                int index = slotFor(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                tokens[index] = oldTokens[i];
+                refilledAt[index] = oldRefilledAt[i];
+                notified[index] = oldNotified[i];
+                size++;
+            }
+        }
+        return before - size;
+    }
+
+    /**
+     * Returns the number of tracked buckets.
+     *
+     * @return The table size.
+     */
+    int size() {
+        return size;
+    }
+
+    private int insert(long key, UserRateLimiter.Rule rule, long nowNanos) {
+        if (key == EMPTY || size >= maxSize) {
+            // A full table is cleaned up by the periodic eviction, not on the hot path.
+            return -1;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            // Grow only; idle buckets are dropped by the periodic eviction, which would otherwise scan the whole
+            // table on every new key once churn keeps the table at the load threshold.
+            rehash(keys.length * 2);
+        }
+        int index = slotFor(key);
+        keys[index] = key;
+        tokens[index] = rule.capacity();
+        refilledAt[index] = nowNanos;
+        notified[index] = false;
+        size++;
+        return index;
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+            if (keys[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private int slotFor(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void refill(int index, UserRateLimiter.Rule rule, long nowNanos) {
+        long elapsed = nowNanos - refilledAt[index];
+        if (elapsed > 0) {
+            tokens[index] = Math.min(rule.capacity(), tokens[index] + elapsed * rule.tokensPerNano());
+            refilledAt[index] = nowNanos;
+        }
+    }
+
+    private static boolean isFull(double tokens, long refilledAt, UserRateLimiter.Rule rule, long nowNanos) {
+        return tokens + Math.max(0, nowNanos - refilledAt) * rule.tokensPerNano() >= rule.capacity();
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldTokens = tokens;
+        long[] oldRefilledAt = refilledAt;
+        boolean[] oldNotified = notified;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = slotFor(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                tokens[index] = oldTokens[i];
+                refilledAt[index] = oldRefilledAt[i];
+                notified[index] = oldNotified[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        tokens = new double[capacity];
+        refilledAt = new long[capacity];
+        notified = new boolean[capacity];
+        size = 0;
+    }
+
+    /**
+     * Returns the smallest power-of-two array length keeping the load factor at or below one half.
+     */
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
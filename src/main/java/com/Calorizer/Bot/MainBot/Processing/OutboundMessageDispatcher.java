@@ -0,0 +1,373 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous outbound queue for Telegram API calls that respects Telegram's flood limits.
+ * Calls are queued per chat and executed strictly in order, one at a time per chat, so chunks of a long
+ * message and a message followed by an edit always arrive in the order they were submitted.
+ *
+ * <p>Sending is paced by a global token bucket (about 30 messages per second for the whole bot) and a
+ * per-chat token bucket (about one message per second with a small burst). When Telegram still answers
+ * with 429 Too Many Requests, the call is put back at the head of its chat queue and retried after the
+ * {@code retry_after} period from the response. Waiting is done by scheduling, never by sleeping:
+ * a single scheduler thread decides when a chat may send next and the blocking HTTP calls run on
+ * virtual threads.</p>
+ *
+ * <p>Callers receive a {@link CompletableFuture} completed with the API result, or exceptionally
+ * if the call fails permanently.</p>
+ */
+@Component
+public class OutboundMessageDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundMessageDispatcher.class);
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * A queued API call.
+     */
+    private record Pending<T extends Serializable>(AbsSender sender, BotApiMethod<T> method,
+                                                   CompletableFuture<T> future, long enqueuedAtNanos, int attempt) {
+        Pending<T> nextAttempt() {
+            return new Pending<>(sender, method, future, enqueuedAtNanos, attempt + 1);
+        }
+    }
+
+    /**
+     * Outbound state of a single chat. Only accessed inside {@link ConcurrentHashMap#compute},
+     * which serializes access per chat ID.
+     */
+    private static final class ChatOutbox {
+        private final ArrayDeque<Pending<?>> queue = new ArrayDeque<>();
+        private final TokenBucket bucket;
+        private long blockedUntilNanos;
+        private boolean stepScheduled;
+        private boolean inFlight;
+
+        private ChatOutbox(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    private final ConcurrentHashMap<Long, ChatOutbox> outboxes = new ConcurrentHashMap<>();
+    private final TokenBucket globalBucket;
+    private final double perChatRate;
+    private final int perChatBurst;
+    private final int maxRetries;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbound-scheduler").daemon(true).factory());
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("outbound-send-", 0).factory());
+
+    private final AtomicInteger queuedCalls = new AtomicInteger();
+    private final Timer deliveryTimer;
+    private final Counter failedCalls;
+    private final Counter retriedCalls;
+
+    /**
+     * Constructs the dispatcher and registers its metrics.
+     *
+     * @param meterRegistry Registry for delivery latency, failure and retry metrics.
+     * @param globalRate    Messages per second for the whole bot.
+     * @param perChatRate   Messages per second per chat.
+     * @param perChatBurst  Messages a chat may send back to back before pacing applies.
+     * @param maxRetries    Maximum number of retries after 429 responses.
+     */
+    public OutboundMessageDispatcher(MeterRegistry meterRegistry,
+                                     @Value("${bot.outbound.global-rate:30}") double globalRate,
+                                     @Value("${bot.outbound.per-chat-rate:1}") double perChatRate,
+                                     @Value("${bot.outbound.per-chat-burst:3}") int perChatBurst,
+                                     @Value("${bot.outbound.max-retries:5}") int maxRetries) {
+        this.globalBucket = new TokenBucket(globalRate, globalRate, System.nanoTime());
+        this.perChatRate = perChatRate;
+        this.perChatBurst = perChatBurst;
+        this.maxRetries = maxRetries;
+        this.deliveryTimer = Timer.builder("bot.outbound.delivery")
+                .description("Time from enqueueing an outbound call until Telegram accepted it")
+                .register(meterRegistry);
+        this.failedCalls = Counter.builder("bot.outbound.failed")
+                .description("Outbound calls that failed permanently")
+                .register(meterRegistry);
+        this.retriedCalls = Counter.builder("bot.outbound.retried")
+                .description("Outbound calls re-enqueued after a 429 response")
+                .register(meterRegistry);
+        Gauge.builder("bot.outbound.queued", queuedCalls, AtomicInteger::get)
+                .description("Outbound calls queued or in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues an API call for the given chat.
+     *
+     * @param sender The {@link AbsSender} executing the call.
+     * @param chatId The chat the call targets; calls of one chat are executed in submission order.
+     * @param method The API method to execute.
+     * @param <T>    The result type of the method.
+     * @return A future completed with the API result, or exceptionally with the {@link TelegramApiException}.
+     */
+    public <T extends Serializable> CompletableFuture<T> submit(AbsSender sender, long chatId, BotApiMethod<T> method) {
+        Pending<T> pending = new Pending<>(sender, method, new CompletableFuture<>(), System.nanoTime(), 0);
+        boolean[] startStep = new boolean[1];
+        outboxes.compute(chatId, (id, box) -> {
+            if (box == null) {
+                box = new ChatOutbox(new TokenBucket(perChatBurst, perChatRate, System.nanoTime()));
+            }
+            box.queue.addLast(pending);
+            queuedCalls.incrementAndGet();
+            startStep[0] = requestStep(box);
+            return box;
+        });
+        if (startStep[0]) {
+            schedule(chatId, 0);
+        }
+        return pending.future();
+    }
+
+    /**
+     * Marks that a step must run for an outbox, unless one is already pending or a call is in flight
+     * (the step is then triggered when that call finishes).
+     *
+     * @param box The outbox, accessed inside {@link ConcurrentHashMap#compute}.
+     * @return {@code true} if the caller must schedule the step.
+     */
+    private boolean requestStep(ChatOutbox box) {
+        if (box.stepScheduled || box.inFlight) {
+            return false;
+        }
+        box.stepScheduled = true;
+        return true;
+    }
+
+    /**
+     * Decides what a chat does next: send its head call, wait for pacing or a 429 block,
+     * or, once the queue is empty, arrange for the outbox to be retired.
+     * Runs on the scheduler thread.
+     *
+     * @param chatId The chat to advance.
+     */
+    private void step(long chatId) {
+        long now = System.nanoTime();
+        long[] delay = {-1};
+        long[] retireDelay = {-1};
+        Pending<?>[] toSend = new Pending<?>[1];
+        outboxes.computeIfPresent(chatId, (id, box) -> {
+            box.stepScheduled = false;
+            if (box.inFlight) {
+                return box;
+            }
+            if (box.queue.isEmpty()) {
+                long untilFull = box.bucket.nanosUntilFull(now);
+                if (untilFull <= 0) {
+                    return null;
+                }
+                retireDelay[0] = untilFull;
+                return box;
+            }
+            long wait = Math.max(box.blockedUntilNanos - now, box.bucket.nanosUntilToken(now));
+            if (wait <= 0) {
+                wait = acquireGlobalToken(now);
+            }
+            if (wait > 0) {
+                box.stepScheduled = true;
+                delay[0] = wait;
+                return box;
+            }
+            box.bucket.tryTake(now);
+            box.inFlight = true;
+            toSend[0] = box.queue.pollFirst();
+            return box;
+        });
+        if (retireDelay[0] >= 0) {
+            scheduleRetire(chatId, retireDelay[0]);
+        } else if (delay[0] >= 0) {
+            schedule(chatId, delay[0]);
+        } else if (toSend[0] != null) {
+            Pending<?> pending = toSend[0];
+            try {
+                senders.execute(() -> send(chatId, pending));
+            } catch (RejectedExecutionException e) {
+                pending.future().completeExceptionally(e);
+                queuedCalls.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes the outbox of an idle chat once its pacing bucket is full again, so per-chat state only
+     * exists for chats that sent recently. If the chat became busy in the meantime, the regular steps
+     * take care of it.
+     *
+     * @param chatId The chat to check.
+     */
+    private void retireIfIdle(long chatId) {
+        long now = System.nanoTime();
+        long[] retireDelay = {-1};
+        outboxes.computeIfPresent(chatId, (id, box) -> {
+            if (!box.queue.isEmpty() || box.inFlight || box.stepScheduled) {
+                return box;
+            }
+            long untilFull = box.bucket.nanosUntilFull(now);
+            if (untilFull <= 0) {
+                return null;
+            }
+            retireDelay[0] = untilFull;
+            return box;
+        });
+        if (retireDelay[0] >= 0) {
+            scheduleRetire(chatId, retireDelay[0]);
+        }
+    }
+
+    /**
+     * Executes a call on a virtual thread and advances the chat afterwards.
+     * A 429 response puts the call back at the head of the chat queue and blocks the chat for {@code retry_after}.
+     *
+     * @param chatId  The chat of the call.
+     * @param pending The call to execute.
+     * @param <T>     The result type of the call.
+     */
+    private <T extends Serializable> void send(long chatId, Pending<T> pending) {
+        try {
+            T result = pending.sender().execute(pending.method());
+            deliveryTimer.record(System.nanoTime() - pending.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            queuedCalls.decrementAndGet();
+            pending.future().complete(result);
+        } catch (TelegramApiException e) {
+            Integer retryAfter = retryAfterSeconds(e);
+            if (retryAfter != null && pending.attempt() < maxRetries) {
+                retriedCalls.increment();
+                logger.warn("Telegram rate limit hit for chat {}, retrying {} in {} s.",
+                        chatId, pending.method().getMethod(), retryAfter);
+                long blockedUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfter);
+                outboxes.computeIfPresent(chatId, (id, box) -> {
+                    box.queue.addFirst(pending.nextAttempt());
+                    box.blockedUntilNanos = blockedUntil;
+                    return box;
+                });
+                finish(chatId);
+                return;
+            } else {
+                failedCalls.increment();
+                queuedCalls.decrementAndGet();
+                logger.error("Error executing {} for chat {}: {}", pending.method().getMethod(), chatId, e.getMessage());
+                pending.future().completeExceptionally(e);
+            }
+        } catch (RuntimeException e) {
+            failedCalls.increment();
+            queuedCalls.decrementAndGet();
+            logger.error("Unexpected error executing {} for chat {}: ", pending.method().getMethod(), chatId, e);
+            pending.future().completeExceptionally(e);
+        }
+        finish(chatId);
+    }
+
+    /**
+     * Marks the in-flight call of a chat as finished and triggers the next step.
+     *
+     * @param chatId The chat whose call finished.
+     */
+    private void finish(long chatId) {
+        boolean[] startStep = new boolean[1];
+        outboxes.computeIfPresent(chatId, (id, box) -> {
+            box.inFlight = false;
+            startStep[0] = requestStep(box);
+            return box;
+        });
+        if (startStep[0]) {
+            schedule(chatId, 0);
+        }
+    }
+
+    /**
+     * Takes a token from the global bucket.
+     *
+     * @param now The current time in nanoseconds.
+     * @return {@code 0} if a token was taken, otherwise the wait until one is available.
+     */
+    private long acquireGlobalToken(long now) {
+        synchronized (globalBucket) {
+            if (globalBucket.tryTake(now)) {
+                return 0;
+            }
+            return Math.max(1, globalBucket.nanosUntilToken(now));
+        }
+    }
+
+    /**
+     * Extracts {@code retry_after} from a 429 response.
+     *
+     * @param e The exception thrown by the API call.
+     * @return The number of seconds to wait, or {@code null} if the error is not a rate limit response.
+     */
+    private Integer retryAfterSeconds(TelegramApiException e) {
+        if (e instanceof TelegramApiRequestException requestException
+                && requestException.getErrorCode() != null
+                && requestException.getErrorCode() == TOO_MANY_REQUESTS) {
+            if (requestException.getParameters() != null && requestException.getParameters().getRetryAfter() != null) {
+                return requestException.getParameters().getRetryAfter();
+            }
+            return 1;
+        }
+        return null;
+    }
+
+    private void schedule(long chatId, long delayNanos) {
+        try {
+            scheduler.schedule(() -> step(chatId), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Outbound dispatcher is shut down, pending calls for chat {} are dropped.", chatId);
+        }
+    }
+
+    private void scheduleRetire(long chatId, long delayNanos) {
+        try {
+            scheduler.schedule(() -> retireIfIdle(chatId), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down, nothing to retire.
+        }
+    }
+
+    /**
+     * Stops scheduling and waits briefly for calls in flight.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            senders.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (queuedCalls.get() > 0) {
+            logger.warn("Outbound dispatcher stopped with {} calls still queued.", queuedCalls.get());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Service.Interface.UserServiceInt;
+import com.Calorizer.Bot.Service.LocalizationService;
+import com.Calorizer.Bot.Service.MessageSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link UserRateLimiter} on the update dispatch path. A limited action is dropped; the user is told
+ * once per limited stretch how long to wait, so a flood of messages does not turn into a flood of replies.
+ */
+@Component
+public class RateLimitGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitGate.class);
+
+    private final UserRateLimiter rateLimiter;
+    private final UserServiceInt userServiceInt;
+    private final LocalizationService localizationService;
+    private final MessageSender messageSender;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param rateLimiter         The per-user rate limiter.
+     * @param userServiceInt      Service for loading the user, used to localize the notice.
+     * @param localizationService Service for fetching localized messages based on the user's language.
+     * @param messageSender       Service for sending the notice.
+     */
+    public RateLimitGate(UserRateLimiter rateLimiter, UserServiceInt userServiceInt,
+                         LocalizationService localizationService, MessageSender messageSender) {
+        this.rateLimiter = rateLimiter;
+        this.userServiceInt = userServiceInt;
+        this.localizationService = localizationService;
+        this.messageSender = messageSender;
+    }
+
+    /**
+     * Takes a token for an action of the user and tells the user about the limit if it is exhausted.
+     *
+     * @param absSender The {@link AbsSender} used to send the notice.
+     * @param limit     The kind of action.
+     * @param chatId    The user's chat ID.
+     * @return {@code true} if the action may be performed.
+     */
+    public boolean admit(AbsSender absSender, UserRateLimiter.Limit limit, long chatId) {
+        long waitNanos = rateLimiter.tryAcquire(limit, chatId);
+        if (waitNanos == 0) {
+            return true;
+        }
+        logger.debug("Dropping {} action of user {}, rate limit exhausted.", limit, chatId);
+        if (rateLimiter.shouldNotify(limit, chatId)) {
+            User user = userServiceInt.getOrCreateUser(chatId);
+            long waitSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            messageSender.sendMessage(absSender, chatId,
+                    localizationService.getTranslation(user.getLanguage(), "error.rate_limited", waitSeconds));
+        }
+        return false;
+    }
+}
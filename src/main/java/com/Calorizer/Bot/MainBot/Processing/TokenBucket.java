@@ -0,0 +1,74 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+/**
+ * A classic token bucket: holds up to {@code capacity} tokens and refills continuously at a fixed rate.
+ * Time is passed in explicitly as monotonic nanoseconds, which keeps the bucket deterministic in tests.
+ *
+ * <p>This class is not thread-safe; callers synchronize access.</p>
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity        Maximum number of tokens (burst size).
+     * @param tokensPerSecond Refill rate.
+     * @param nowNanos        The current time in nanoseconds.
+     */
+    public TokenBucket(double capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @param nowNanos The current time in nanoseconds.
+     * @return {@code true} if a token was taken, {@code false} if the bucket is empty.
+     */
+    public boolean tryTake(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns how long to wait until one token is available.
+     *
+     * @param nowNanos The current time in nanoseconds.
+     * @return The wait in nanoseconds, {@code 0} if a token is available now.
+     */
+    public long nanosUntilToken(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Returns how long until the bucket is full again, i.e. until its state no longer matters.
+     *
+     * @param nowNanos The current time in nanoseconds.
+     * @return The wait in nanoseconds, {@code 0} if the bucket is full.
+     */
+    public long nanosUntilFull(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= capacity ? 0 : (long) Math.ceil((capacity - tokens) / tokensPerNano);
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Ingress filter in front of update dispatch that drops work which would only repeat work already done.
+ * <ul>
+ * <li>Redelivered updates (the same {@code update_id} received again, e.g. when a long poll is repeated or Telegram
+ * retries a webhook call) are recognized in a sliding window of the most recent update IDs, kept as a ring bitmap
+ * of one bit per ID.</li>
+ * <li>Identical callback queries (same chat, same callback data) arriving within the debounce window, typically a
+ * double tap on an inline button, are collapsed into the first one.</li>
+ * </ul>
+ * The state is kept in memory only, so updates redelivered after a restart are processed again.
+ *
+ * <p>Metrics: counter {@code bot.ingress.suppressed} tagged with {@code reason}
+ * ({@code duplicate_update} or {@code debounced_callback}).</p>
+ */
+@Component
+public class UpdateDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdateDeduplicator.class);
+
+    /**
+     * Key of a callback query for debouncing.
+     */
+    private record CallbackKey(long chatId, String callbackData) {
+    }
+
+    private final int windowSize;
+    private final long[] seenBits;
+    private long highestUpdateId = Long.MIN_VALUE;
+    private final Cache<CallbackKey, Boolean> recentCallbacks;
+    private final Counter duplicateUpdates;
+    private final Counter debouncedCallbacks;
+
+    /**
+     * Constructs the filter and registers its metrics.
+     *
+     * @param meterRegistry      Registry for the suppression counters.
+     * @param updateWindow       Number of most recent update IDs remembered; rounded up to a power of two.
+     * @param callbackDebounceMs Window in milliseconds within which an identical callback query is dropped; 0 disables debouncing.
+     * @param maxCallbacks       Maximum number of callback queries remembered for debouncing.
+     */
+    public UpdateDeduplicator(MeterRegistry meterRegistry,
+                              @Value("${bot.dedup.update-window:4096}") int updateWindow,
+                              @Value("${bot.dedup.callback-debounce-ms:1000}") long callbackDebounceMs,
+                              @Value("${bot.dedup.max-callbacks:100000}") long maxCallbacks) {
+        this.windowSize = Math.max(64, Integer.highestOneBit(Math.max(1, updateWindow - 1)) << 1);
+        this.seenBits = new long[windowSize / 64];
+        this.recentCallbacks = callbackDebounceMs <= 0 ? null : Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(callbackDebounceMs))
+                .maximumSize(maxCallbacks)
+                .build();
+        this.duplicateUpdates = suppressedCounter(meterRegistry, "duplicate_update");
+        this.debouncedCallbacks = suppressedCounter(meterRegistry, "debounced_callback");
+        logger.info("Update deduplication: window of {} update IDs, callback debounce {} ms.", windowSize, callbackDebounceMs);
+    }
+
+    private static Counter suppressedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("bot.ingress.suppressed").tag("reason", reason)
+                .description("Incoming updates dropped before dispatch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the update ID and checks whether it was seen before.
+     * An ID far below the window is taken as a restarted ID sequence (Telegram picks a random next ID after a week
+     * without updates), so the window starts over instead of dropping every following update.
+     *
+     * @param updateId The {@code update_id} of the incoming update.
+     * @return {@code true} if the update is new, {@code false} if it is a duplicate and should be dropped.
+     */
+    public synchronized boolean markUpdate(long updateId) {
+        if (highestUpdateId == Long.MIN_VALUE || updateId <= highestUpdateId - windowSize) {
+            Arrays.fill(seenBits, 0L);
+            highestUpdateId = updateId;
+        } else if (updateId > highestUpdateId) {
+            if (updateId - highestUpdateId >= windowSize) {
+                Arrays.fill(seenBits, 0L);
+            } else {
+                for (long id = highestUpdateId + 1; id < updateId; id++) {
+                    clearBit(id);
+                }
+            }
+            highestUpdateId = updateId;
+        } else if (isBitSet(updateId)) {
+            duplicateUpdates.increment();
+            logger.debug("Dropping redelivered update {}.", updateId);
+            return false;
+        }
+        setBit(updateId);
+        return true;
+    }
+
+    /**
+     * Records the callback query and checks whether an identical one arrived within the debounce window.
+     *
+     * @param chatId       The chat ID of the query.
+     * @param callbackData The callback data of the query.
+     * @return {@code true} if the query should be dispatched, {@code false} if it repeats a recent one.
+     */
+    public boolean markCallback(long chatId, String callbackData) {
+        if (recentCallbacks == null || callbackData == null) {
+            return true;
+        }
+        if (recentCallbacks.asMap().putIfAbsent(new CallbackKey(chatId, callbackData), Boolean.TRUE) == null) {
+            return true;
+        }
+        debouncedCallbacks.increment();
+        logger.debug("Dropping repeated callback {} of user {} within the debounce window.", callbackData, chatId);
+        return false;
+    }
+
+    private int slot(long updateId) {
+        return (int) (updateId & (windowSize - 1));
+    }
+
+    private boolean isBitSet(long updateId) {
+        int slot = slot(updateId);
+        return (seenBits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private void setBit(long updateId) {
+        int slot = slot(updateId);
+        seenBits[slot >>> 6] |= 1L << slot;
+    }
+
+    private void clearBit(long updateId) {
+        int slot = slot(updateId);
+        seenBits[slot >>> 6] &= ~(1L << slot);
+    }
+}
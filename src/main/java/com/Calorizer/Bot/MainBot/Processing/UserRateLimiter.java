@@ -0,0 +1,266 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user rate limiting with one token bucket per chat and {@link Limit}. Every limit has a {@link Rule}
+ * (bucket size and the time it takes to refill one token) that is read from application.properties at startup
+ * and can be changed at runtime with {@link #setRule}; existing buckets keep their tokens under the new rule.
+ *
+ * <p>Buckets live in {@link LongTokenBucketTable}s keyed by the primitive chat ID and split into stripes to keep
+ * lock contention low. A bucket that has refilled completely is indistinguishable from a missing one, so a
+ * periodic sweep drops it; memory therefore grows with the number of recently active users only, and is capped
+ * at {@code maxUsersPerLimit} buckets per limit. Users arriving while a limit's table is full are not limited
+ * until the next sweep frees space ({@code bot.ratelimit.untracked} counts them).</p>
+ *
+ * <p>Metrics (tagged with {@code limit}): counter {@code bot.ratelimit.limited}, counter
+ * {@code bot.ratelimit.untracked} and gauge {@code bot.ratelimit.tracked}.</p>
+ */
+@Component
+public class UserRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRateLimiter.class);
+
+    private static final int STRIPES = 16;
+
+    /**
+     * The kinds of user actions that are limited separately.
+     */
+    public enum Limit {
+        /** AI recommendation requests that reach Gemini. */
+        AI,
+        /** Steps of the calorie calculation input flow. */
+        CALCULATION,
+        /** Steps of the profile update input flow. */
+        PROFILE_EDIT,
+        /** Every message and button press handled by the bot. */
+        MESSAGE
+    }
+
+    /**
+     * The bucket configuration of a {@link Limit}.
+     *
+     * @param capacity      Maximum number of tokens, i.e. the allowed burst.
+     * @param refillSeconds Seconds it takes to refill one token.
+     */
+    public record Rule(double capacity, double refillSeconds) {
+
+        /**
+         * Validates the rule.
+         */
+        public Rule {
+            if (capacity < 1 || refillSeconds <= 0) {
+                throw new IllegalArgumentException("Rate limit needs a capacity of at least 1 and a positive refill time");
+            }
+        }
+
+        double tokensPerNano() {
+            return 1 / (refillSeconds * 1_000_000_000d);
+        }
+    }
+
+    private final Map<Limit, LongTokenBucketTable[]> tables = new EnumMap<>(Limit.class);
+    private final Map<Limit, Counter> limitedCounters = new EnumMap<>(Limit.class);
+    private final Map<Limit, Counter> untrackedCounters = new EnumMap<>(Limit.class);
+    private volatile Map<Limit, Rule> rules;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Constructs the limiter from application.properties, registers its metrics and starts the idle sweep.
+     *
+     * @param meterRegistry             Registry for the limiter metrics.
+     * @param aiCapacity                Burst of AI requests.
+     * @param aiRefillSeconds           Seconds per additional AI request.
+     * @param calculationCapacity       Burst of calorie calculation steps.
+     * @param calculationRefillSeconds  Seconds per additional calorie calculation step.
+     * @param profileEditCapacity       Burst of profile update steps.
+     * @param profileEditRefillSeconds  Seconds per additional profile update step.
+     * @param messageCapacity           Burst of messages and button presses.
+     * @param messageRefillSeconds      Seconds per additional message or button press.
+     * @param maxUsersPerLimit          Maximum number of tracked users per limit.
+     * @param sweepIntervalSeconds      Interval of the idle bucket sweep in seconds.
+     */
+    public UserRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${bot.rate-limit.ai.capacity:1}") double aiCapacity,
+                           @Value("${bot.rate-limit.ai.refill-seconds:30}") double aiRefillSeconds,
+                           @Value("${bot.rate-limit.calculation.capacity:10}") double calculationCapacity,
+                           @Value("${bot.rate-limit.calculation.refill-seconds:3}") double calculationRefillSeconds,
+                           @Value("${bot.rate-limit.profile-edit.capacity:10}") double profileEditCapacity,
+                           @Value("${bot.rate-limit.profile-edit.refill-seconds:3}") double profileEditRefillSeconds,
+                           @Value("${bot.rate-limit.message.capacity:20}") double messageCapacity,
+                           @Value("${bot.rate-limit.message.refill-seconds:0.5}") double messageRefillSeconds,
+                           @Value("${bot.rate-limit.max-users-per-limit:1000000}") int maxUsersPerLimit,
+                           @Value("${bot.rate-limit.sweep-interval-seconds:60}") long sweepIntervalSeconds) {
+        Map<Limit, Rule> initialRules = new EnumMap<>(Limit.class);
+        initialRules.put(Limit.AI, new Rule(aiCapacity, aiRefillSeconds));
+        initialRules.put(Limit.CALCULATION, new Rule(calculationCapacity, calculationRefillSeconds));
+        initialRules.put(Limit.PROFILE_EDIT, new Rule(profileEditCapacity, profileEditRefillSeconds));
+        initialRules.put(Limit.MESSAGE, new Rule(messageCapacity, messageRefillSeconds));
+        this.rules = Collections.unmodifiableMap(initialRules);
+
+        int maxUsersPerStripe = Math.max(1, maxUsersPerLimit / STRIPES);
+        for (Limit limit : Limit.values()) {
+            LongTokenBucketTable[] stripes = new LongTokenBucketTable[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new LongTokenBucketTable(maxUsersPerStripe);
+            }
+            tables.put(limit, stripes);
+            String tag = limit.name().toLowerCase(Locale.ROOT);
+            limitedCounters.put(limit, Counter.builder("bot.ratelimit.limited").tag("limit", tag)
+                    .description("User actions rejected by the rate limiter").register(meterRegistry));
+            untrackedCounters.put(limit, Counter.builder("bot.ratelimit.untracked").tag("limit", tag)
+                    .description("User actions let through because the rate limiter was full").register(meterRegistry));
+            Gauge.builder("bot.ratelimit.tracked", this, limiter -> limiter.trackedUsers(limit)).tag("limit", tag)
+                    .description("Users with a partially used token bucket").register(meterRegistry);
+        }
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("rate-limit-sweeper").daemon(true).factory());
+        sweeper.scheduleWithFixedDelay(this::evictIdle, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Takes a token for an action of the user.
+     *
+     * @param limit  The kind of action.
+     * @param chatId The user's chat ID.
+     * @return {@code 0} if the action is allowed, otherwise the nanoseconds until it will be allowed.
+     */
+    public long tryAcquire(Limit limit, long chatId) {
+        LongTokenBucketTable table = stripe(limit, chatId);
+        long result;
+        synchronized (table) {
+            result = table.tryTake(chatId, rules.get(limit), System.nanoTime());
+        }
+        if (result == LongTokenBucketTable.NOT_TRACKED) {
+            untrackedCounters.get(limit).increment();
+            return 0;
+        }
+        if (result > 0) {
+            limitedCounters.get(limit).increment();
+        }
+        return result;
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire} for an action that was not performed after all,
+     * e.g. an AI request rejected because the bot was busy.
+     *
+     * @param limit  The kind of action.
+     * @param chatId The user's chat ID.
+     */
+    public void refund(Limit limit, long chatId) {
+        LongTokenBucketTable table = stripe(limit, chatId);
+        synchronized (table) {
+            table.refund(chatId, rules.get(limit), System.nanoTime());
+        }
+    }
+
+    /**
+     * Records that the limited user is being told about the limit.
+     * Used to send one notice per limited stretch instead of one per rejected message.
+     *
+     * @param limit  The kind of action.
+     * @param chatId The user's chat ID.
+     * @return {@code true} if the user has not been notified since their last allowed action.
+     */
+    public boolean shouldNotify(Limit limit, long chatId) {
+        LongTokenBucketTable table = stripe(limit, chatId);
+        synchronized (table) {
+            return table.markNotified(chatId);
+        }
+    }
+
+    /**
+     * Returns the current rule of a limit.
+     *
+     * @param limit The kind of action.
+     * @return The rule.
+     */
+    public Rule getRule(Limit limit) {
+        return rules.get(limit);
+    }
+
+    /**
+     * Returns the current rules of all limits.
+     *
+     * @return An unmodifiable map of the rules.
+     */
+    public Map<Limit, Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Replaces the rule of a limit at runtime.
+     *
+     * @param limit The kind of action.
+     * @param rule  The new rule.
+     */
+    public synchronized void setRule(Limit limit, Rule rule) {
+        Map<Limit, Rule> updated = new EnumMap<>(rules);
+        updated.put(limit, rule);
+        rules = Collections.unmodifiableMap(updated);
+        logger.info("Rate limit {} changed to {} requests, one more every {} s.", limit, rule.capacity(), rule.refillSeconds());
+    }
+
+    /**
+     * Returns the number of users tracked for a limit.
+     *
+     * @param limit The kind of action.
+     * @return The number of buckets that have not refilled yet (up to the last sweep).
+     */
+    public int trackedUsers(Limit limit) {
+        int total = 0;
+        for (LongTokenBucketTable table : tables.get(limit)) {
+            synchronized (table) {
+                total += table.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Drops the buckets that have refilled completely.
+     */
+    void evictIdle() {
+        int evicted = 0;
+        for (Limit limit : Limit.values()) {
+            Rule rule = rules.get(limit);
+            for (LongTokenBucketTable table : tables.get(limit)) {
+                synchronized (table) {
+                    evicted += table.evictIdle(rule, System.nanoTime());
+                }
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Rate limiter dropped {} idle buckets.", evicted);
+        }
+    }
+
+    /**
+     * Stops the idle sweep.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private LongTokenBucketTable stripe(Limit limit, long chatId) {
+        return tables.get(limit)[Long.hashCode(chatId) & (STRIPES - 1)];
+    }
+}
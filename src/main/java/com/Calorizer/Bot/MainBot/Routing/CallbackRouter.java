@@ -0,0 +1,56 @@
+package com.Calorizer.Bot.MainBot.Routing;
+
+import com.Calorizer.Bot.MainBot.CallbackCallback.CallbackHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Routes callback queries to their {@link CallbackHandler}.
+ * The exact keys and prefixes declared by all handlers are compiled into a {@link PrefixTrie}
+ * at startup. Overlapping declarations (a prefix covering another handler's key or prefix)
+ * fail the application start instead of being resolved by "first match wins" at runtime.
+ */
+@Component
+public class CallbackRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackRouter.class);
+
+    private final PrefixTrie<CallbackHandler> trie = new PrefixTrie<>();
+
+    /**
+     * Compiles the callback declarations of all discovered {@link CallbackHandler} beans.
+     *
+     * @param callbackHandlers All available {@link CallbackHandler} implementations.
+     * @throws IllegalStateException if two declarations overlap.
+     */
+    public CallbackRouter(List<CallbackHandler> callbackHandlers) {
+        int entries = 0;
+        for (CallbackHandler handler : callbackHandlers) {
+            for (String key : handler.getCallbackKeys()) {
+                trie.putExact(key, handler);
+                entries++;
+            }
+            for (String prefix : handler.getCallbackPrefixes()) {
+                trie.putPrefix(prefix, handler);
+                entries++;
+            }
+        }
+        logger.info("Callback router compiled {} keys and prefixes for {} handlers.", entries, callbackHandlers.size());
+    }
+
+    /**
+     * Resolves the handler for the given callback data.
+     *
+     * @param callbackData The data string received from a callback query.
+     * @return The matching {@link CallbackHandler}, or {@code null} if no handler accepts the data.
+     */
+    public CallbackHandler route(String callbackData) {
+        if (callbackData == null) {
+            return null;
+        }
+        return trie.find(callbackData);
+    }
+}
@@ -0,0 +1,98 @@
+package com.Calorizer.Bot.MainBot.Routing;
+
+import com.Calorizer.Bot.MainBot.CommandHandler.CommandHandler;
+import com.Calorizer.Bot.MainBot.CommandHandler.UnknownCommandHandler;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Service.LocalizationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatch index for text messages, built once at startup.
+ * Every slash command and every localized main menu button label (in every {@link Language})
+ * is mapped to its {@link CommandHandler} in a hash index, so resolving a handler for an incoming
+ * message is a single map lookup regardless of the number of handlers and languages.
+ * Messages that match nothing are routed to the explicit fallback handler ({@link UnknownCommandHandler}).
+ */
+@Component
+public class CommandRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandRegistry.class);
+
+    private final Map<String, CommandHandler> handlersByText;
+    private final CommandHandler fallbackHandler;
+
+    /**
+     * Builds the dispatch index from all discovered {@link CommandHandler} beans.
+     *
+     * @param commandHandlers       All available {@link CommandHandler} implementations.
+     * @param unknownCommandHandler The handler used when no command or button label matches.
+     * @param localizationService   Service used to resolve button labels for every supported language.
+     * @throws IllegalStateException if two different handlers claim the same command or button label.
+     */
+    public CommandRegistry(List<CommandHandler> commandHandlers,
+                           UnknownCommandHandler unknownCommandHandler,
+                           LocalizationService localizationService) {
+        Map<String, CommandHandler> index = new HashMap<>();
+        for (CommandHandler handler : commandHandlers) {
+            if (handler == unknownCommandHandler) {
+                continue;
+            }
+            register(index, handler.getCommand(), handler);
+
+            String buttonKey = handler.getButtonKey();
+            if (buttonKey != null) {
+                for (Language lang : Language.values()) {
+                    register(index, localizationService.getTranslation(lang, buttonKey), handler);
+                }
+            }
+        }
+        this.handlersByText = Map.copyOf(index);
+        this.fallbackHandler = unknownCommandHandler;
+        logger.info("Command registry built with {} entries for {} handlers.", handlersByText.size(), commandHandlers.size() - 1);
+    }
+
+    /**
+     * Adds a single text-to-handler mapping to the index under construction.
+     * The same handler may be registered several times for one text (e.g. equal labels in two languages),
+     * but two different handlers for the same text are rejected.
+     *
+     * @param index   The index under construction.
+     * @param text    The command or button label to register; ignored if {@code null}.
+     * @param handler The handler responsible for the text.
+     */
+    private void register(Map<String, CommandHandler> index, String text, CommandHandler handler) {
+        if (text == null) {
+            return;
+        }
+        CommandHandler existing = index.putIfAbsent(text, handler);
+        if (existing != null && existing != handler) {
+            throw new IllegalStateException("Command text '" + text + "' is claimed by both "
+                    + existing.getClass().getSimpleName() + " and " + handler.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Resolves the handler for an incoming text message.
+     *
+     * @param messageText The text of the message (a slash command or a button label).
+     * @return The matching {@link CommandHandler}, or the fallback handler if nothing matches.
+     */
+    public CommandHandler resolve(String messageText) {
+        return handlersByText.getOrDefault(messageText, fallbackHandler);
+    }
+
+    /**
+     * Returns the number of indexed commands and button labels.
+     *
+     * @return The size of the dispatch index.
+     */
+    public int size() {
+        return handlersByText.size();
+    }
+}
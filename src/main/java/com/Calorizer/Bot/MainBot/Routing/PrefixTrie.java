@@ -0,0 +1,124 @@
+package com.Calorizer.Bot.MainBot.Routing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A character trie mapping exact keys and key prefixes to values.
+ * Lookups walk the input once, character by character, and stop at the first prefix terminal.
+ * Overlapping registrations are rejected on insert, so a lookup never has to choose between
+ * several candidates and the result does not depend on registration order.
+ *
+ * <p>The trie is filled once at startup and only read afterwards; it is not synchronized
+ * for concurrent writes.</p>
+ *
+ * @param <T> The type of the values stored in the trie.
+ */
+public class PrefixTrie<T> {
+
+    /**
+     * A single trie node. A node is either a prefix terminal (and then has no children),
+     * an exact key terminal, an inner node, or an exact terminal with children.
+     */
+    private static final class Node<T> {
+        private final Map<Character, Node<T>> children = new HashMap<>();
+        private T exactValue;
+        private T prefixValue;
+        private String key;
+    }
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Registers a value for an exact key.
+     *
+     * @param key   The exact key; must not be empty.
+     * @param value The value returned for this key.
+     * @throws IllegalStateException if the key is already registered or is covered by a registered prefix.
+     */
+    public void putExact(String key, T value) {
+        Node<T> node = descend(key);
+        if (node.exactValue != null) {
+            throw new IllegalStateException("Duplicate callback key '" + key + "'");
+        }
+        node.exactValue = value;
+        node.key = key;
+    }
+
+    /**
+     * Registers a value for every key starting with the given prefix.
+     *
+     * @param prefix The prefix; must not be empty.
+     * @param value  The value returned for keys starting with this prefix.
+     * @throws IllegalStateException if the prefix overlaps an already registered key or prefix.
+     */
+    public void putPrefix(String prefix, T value) {
+        Node<T> node = descend(prefix);
+        if (node.exactValue != null || !node.children.isEmpty()) {
+            throw new IllegalStateException("Callback prefix '" + prefix + "' overlaps already registered key '"
+                    + findAnyKey(node) + "'");
+        }
+        node.prefixValue = value;
+        node.key = prefix;
+    }
+
+    /**
+     * Resolves the value for the given input with a single walk over its characters.
+     *
+     * @param input The input to resolve.
+     * @return The value of the matching prefix or exact key, or {@code null} if nothing matches.
+     */
+    public T find(String input) {
+        Node<T> node = root;
+        for (int i = 0; i < input.length(); i++) {
+            node = node.children.get(input.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            if (node.prefixValue != null) {
+                return node.prefixValue;
+            }
+        }
+        return node.exactValue;
+    }
+
+    /**
+     * Walks (and creates where needed) the path for the given key, failing if the path
+     * crosses a registered prefix terminal.
+     *
+     * @param key The key to descend to.
+     * @return The node at the end of the path.
+     */
+    private Node<T> descend(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Callback key must not be empty");
+        }
+        Node<T> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node<>());
+            if (node.prefixValue != null) {
+                throw new IllegalStateException("Callback key '" + key + "' overlaps registered prefix '" + node.key + "'");
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Finds any registered key in the subtree of the given node, for error messages.
+     *
+     * @param node The subtree root.
+     * @return A registered key, or {@code null} if the subtree has none.
+     */
+    private String findAnyKey(Node<T> node) {
+        if (node.key != null) {
+            return node.key;
+        }
+        for (Node<T> child : node.children.values()) {
+            String key = findAnyKey(child);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+}
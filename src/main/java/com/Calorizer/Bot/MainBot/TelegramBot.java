@@ -3,17 +3,23 @@ package com.Calorizer.Bot.MainBot;
 import com.Calorizer.Bot.BotConfiguration.BotConfiguration;
 import com.Calorizer.Bot.MainBot.CallbackCallback.CallbackHandler;
 import com.Calorizer.Bot.MainBot.CommandHandler.CommandHandler;
+import com.Calorizer.Bot.MainBot.Processing.AiRequestTracker;
+import com.Calorizer.Bot.MainBot.Processing.CallbackAcknowledger;
+import com.Calorizer.Bot.MainBot.Processing.ChatUpdateExecutor;
+import com.Calorizer.Bot.MainBot.Processing.RateLimitGate;
+import com.Calorizer.Bot.MainBot.Processing.UpdateDeduplicator;
+import com.Calorizer.Bot.MainBot.Processing.UserRateLimiter;
+import com.Calorizer.Bot.MainBot.Routing.CallbackRouter;
+import com.Calorizer.Bot.MainBot.Routing.CommandRegistry;
 import com.Calorizer.Bot.Service.CalorieCalculationFlowService;
 import com.Calorizer.Bot.Service.ProfileUpdateDataService;
+import com.Calorizer.Bot.Service.UpdateUserContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
-import java.util.List;
-import java.util.Optional;
-
 /**
  * The main Telegram bot class, extending {@link TelegramLongPollingBot}.
  * This class is responsible for receiving updates from Telegram and delegating
@@ -26,34 +32,55 @@ public class TelegramBot extends TelegramLongPollingBot {
 
     private final BotConfiguration botConfiguration;
     private final CalorieCalculationFlowService calorieCalculationFlowService;
-    private final List<CommandHandler> commandHandlers;
-    private final List<CallbackHandler> callbackHandlers;
+    private final CommandRegistry commandRegistry;
+    private final CallbackRouter callbackRouter;
     private final ProfileUpdateDataService profileUpdateDataService;
+    private final ChatUpdateExecutor chatUpdateExecutor;
+    private final UpdateUserContext updateUserContext;
+    private final RateLimitGate rateLimitGate;
+    private final AiRequestTracker aiRequestTracker;
+    private final CallbackAcknowledger callbackAcknowledger;
+    private final UpdateDeduplicator updateDeduplicator;
 
     /**
      * Constructor for dependency injection.
-     * Spring automatically injects the {@link BotConfiguration} and instances of
-     * all discovered {@link CommandHandler} and {@link CallbackHandler} beans into their respective lists.
+     * Spring automatically injects the {@link BotConfiguration}, the {@link CommandRegistry} built from
+     * all discovered {@link CommandHandler} beans and the {@link CallbackRouter} compiled from all discovered
+     * {@link CallbackHandler} beans.
      * It also injects the specific flow services responsible for multi-step interactions.
      *
      * @param botConfiguration              Configuration properties for the bot (name, token).
      * @param calorieCalculationFlowService Service to manage multi-step user input for calorie calculation.
-     * @param commandHandlers               A list of all available {@link CommandHandler} implementations.
-     * @param callbackHandlers              A list of all available {@link CallbackHandler} implementations.
+     * @param commandRegistry               Precomputed dispatch index of commands and localized button labels.
+     * @param callbackRouter                Prefix trie router for callback query data.
      * @param profileUpdateDataService      Service to manage multi-step user input for profile data updates.
+     * @param chatUpdateExecutor            Executor processing updates per chat on virtual threads.
+     * @param updateUserContext             Per-update context sharing the loaded user between handlers and services.
+     * @param rateLimitGate                 Gate applying the per-user rate limits to incoming updates.
+     * @param aiRequestTracker              Tracker of in-flight AI requests, cancelled when a user leaves the chat.
+     * @param callbackAcknowledger          Answers callback queries as soon as they arrive.
+     * @param updateDeduplicator            Drops redelivered updates and repeated callback queries.
      */
     public TelegramBot(BotConfiguration botConfiguration,
                        CalorieCalculationFlowService calorieCalculationFlowService,
-                       List<CommandHandler> commandHandlers,
-                       List<CallbackHandler> callbackHandlers, ProfileUpdateDataService profileUpdateDataService) {
+                       CommandRegistry commandRegistry,
+                       CallbackRouter callbackRouter, ProfileUpdateDataService profileUpdateDataService,
+                       ChatUpdateExecutor chatUpdateExecutor, UpdateUserContext updateUserContext,
+                       RateLimitGate rateLimitGate, AiRequestTracker aiRequestTracker,
+                       CallbackAcknowledger callbackAcknowledger, UpdateDeduplicator updateDeduplicator) {
         super(botConfiguration.getBotToken());
         this.botConfiguration = botConfiguration;
         this.calorieCalculationFlowService = calorieCalculationFlowService;
-        this.commandHandlers = commandHandlers;
-        this.callbackHandlers = callbackHandlers;
+        this.commandRegistry = commandRegistry;
+        this.callbackRouter = callbackRouter;
         this.profileUpdateDataService = profileUpdateDataService;
-        logger.info("TelegramBot initialized with {} command handlers and {} callback handlers.",
-                commandHandlers.size(), callbackHandlers.size());
+        this.chatUpdateExecutor = chatUpdateExecutor;
+        this.updateUserContext = updateUserContext;
+        this.rateLimitGate = rateLimitGate;
+        this.aiRequestTracker = aiRequestTracker;
+        this.callbackAcknowledger = callbackAcknowledger;
+        this.updateDeduplicator = updateDeduplicator;
+        logger.info("TelegramBot initialized with {} command entries.", commandRegistry.size());
     }
 
     /**
@@ -79,75 +106,142 @@ public class TelegramBot extends TelegramLongPollingBot {
 
     /**
      * This is the primary entry point for all incoming updates from the Telegram Bot API.
+     * The update is not processed on the polling thread: it is handed to the {@link ChatUpdateExecutor},
+     * which processes updates of one chat in order and updates of different chats in parallel.
+     * Updates that do not belong to a chat (and are not handled by the bot) are ignored.
+     * Callback queries are answered here, before they are queued, with the toast of the {@link CallbackHandler}
+     * they route to (see {@link CallbackAcknowledger}), so the client's button spinner stops at once.
+     * Redelivered updates are dropped, and so are callback queries repeating one of the same chat within the
+     * debounce window (e.g. a double tap); the latter are still answered, so their spinner stops too
+     * (see {@link UpdateDeduplicator}).
+     *
+     * @param update The {@link Update} object received from Telegram, containing various types of data.
+     */
+    @Override
+    public void onUpdateReceived(Update update) {
+        long receivedAtNanos = System.nanoTime();
+        Long chatId = resolveChatId(update);
+        if (chatId == null) {
+            logger.debug("Ignoring update {} without a supported chat payload.", update.getUpdateId());
+            return;
+        }
+        if (update.getUpdateId() != null && !updateDeduplicator.markUpdate(update.getUpdateId())) {
+            return;
+        }
+        if (update.hasCallbackQuery()) {
+            String callbackData = update.getCallbackQuery().getData();
+            CallbackHandler handler = callbackData == null ? null : callbackRouter.route(callbackData);
+            callbackAcknowledger.acknowledge(this, update.getCallbackQuery(),
+                    handler == null ? null : handler.getAckToastKey(callbackData), receivedAtNanos);
+            if (!updateDeduplicator.markCallback(chatId, callbackData)) {
+                return;
+            }
+        }
+        chatUpdateExecutor.submit(chatId, () -> processUpdate(update));
+    }
+
+    /**
+     * Processes a single update synchronously on the calling thread.
      * It intelligently dispatches the {@link Update} to the appropriate processing logic:
      * <ol>
      * <li>If the update contains a text message:
      * <ul>
      * <li>Checks if the user is in an active calorie calculation input flow.</li>
      * <li>Checks if the user is in an active profile update input flow.</li>
-     * <li>If not in a flow, attempts to find a suitable {@link CommandHandler} for the message (if it starts with '/').</li>
-     * <li>If no specific command handler is found or the message is not a command, it's typically handled by a default/unknown command handler.</li>
+     * <li>If not in a flow, resolves the {@link CommandHandler} for the command or localized button label through the {@link CommandRegistry}.</li>
+     * <li>If no specific command handler is found, the registry's fallback (unknown command) handler is used.</li>
      * </ul>
      * </li>
      * <li>If the update contains a callback query (from an inline keyboard button):
      * <ul>
-     * <li>Checks if the callback is related to the profile update service (e.g., attribute selection).</li>
-     * <li>If not, attempts to find a suitable {@link CallbackHandler} for the callback data.</li>
+     * <li>Resolves the {@link CallbackHandler} for the callback data through the {@link CallbackRouter}.</li>
      * <li>Logs unhandled callback queries.</li>
      * </ul>
      * </li>
+     * <li>If the user blocked the bot or left the chat, their in-flight AI request is cancelled.</li>
      * </ol>
+     * Every update first takes a token of the user's {@link UserRateLimiter.Limit#MESSAGE} limit, and the steps of
+     * the calculation and profile update flows also take a token of their own limit; updates over a limit are
+     * dropped (see {@link RateLimitGate}).
+     * All of this runs inside an {@link UpdateUserContext} scope, so the user is loaded at most once
+     * per update, modified users are saved once after dispatch and the replies are sent only after that save.
      *
      * @param update The {@link Update} object received from Telegram, containing various types of data.
      */
-    @Override
-    public void onUpdateReceived(Update update) {
+    public void processUpdate(Update update) {
+        updateUserContext.runInScope(() -> dispatch(update));
+    }
+
+    /**
+     * Dispatches an update to the flow services, command handlers or callback handlers.
+     *
+     * @param update The {@link Update} to dispatch.
+     */
+    private void dispatch(Update update) {
         if (update.hasMessage() && update.getMessage().hasText()) {
             long chatId = update.getMessage().getChatId();
             String messageText = update.getMessage().getText();
 
+            if (!rateLimitGate.admit(this, UserRateLimiter.Limit.MESSAGE, chatId)) {
+                return;
+            }
             if (calorieCalculationFlowService.isInCalorieInputFlow(chatId)) {
-                calorieCalculationFlowService.handleCalorieInputStep(this, chatId, messageText);
+                if (rateLimitGate.admit(this, UserRateLimiter.Limit.CALCULATION, chatId)) {
+                    calorieCalculationFlowService.handleCalorieInputStep(this, chatId, messageText);
+                }
                 return;
             }
             if (profileUpdateDataService.isInProfileUpdateFlow(chatId)) {
-                profileUpdateDataService.handleProfileInputStep(this, chatId, messageText);
+                if (rateLimitGate.admit(this, UserRateLimiter.Limit.PROFILE_EDIT, chatId)) {
+                    profileUpdateDataService.handleProfileInputStep(this, chatId, messageText);
+                }
                 return;
             }
 
-                Optional<CommandHandler> suitableHandler = commandHandlers.stream()
-                        .filter(handler -> handler.supports(messageText))
-                        .findFirst();
-
-                if (suitableHandler.isPresent()) {
-                    suitableHandler.get().handle(this, update);
-                } else {
-                    commandHandlers.stream()
-                            .filter(handler -> handler.getClass().getSimpleName().equals("UnknownCommandHandler"))
-                            .findFirst()
-                            .ifPresent(handler -> handler.handle(this, update));
-                }
+            commandRegistry.resolve(messageText).handle(this, update);
         }
         else if (update.hasCallbackQuery()) {
             String callbackData = update.getCallbackQuery().getData();
             long chatId = update.getCallbackQuery().getMessage().getChatId();
 
-            if (profileUpdateDataService.isInProfileUpdateFlow(chatId) &&
-                    (callbackData.startsWith("UPDATE_") || "UPDATE_PROFILE_DONE".equals(callbackData))) {
-                profileUpdateDataService.handleAttributeSelectionCallback(this, chatId, callbackData);
+            if (!rateLimitGate.admit(this, UserRateLimiter.Limit.MESSAGE, chatId)) {
                 return;
             }
+            CallbackHandler handler = callbackRouter.route(callbackData);
 
-            Optional<CallbackHandler> suitableHandler = callbackHandlers.stream()
-                    .filter(handler -> handler.supports(callbackData))
-                    .findFirst();
-
-            if (suitableHandler.isPresent()) {
-                suitableHandler.get().handle(this, update);
-                 return;
+            if (handler != null) {
+                long startNanos = System.nanoTime();
+                handler.handle(this, update);
+                callbackAcknowledger.recordHandling(handler.getClass().getSimpleName(), System.nanoTime() - startNanos);
             } else {
                 logger.warn("Received unhandled callback query from user {}: {}", chatId, callbackData);
             }
         }
+        else if (update.hasMyChatMember()) {
+            String status = update.getMyChatMember().getNewChatMember().getStatus();
+            if ("kicked".equals(status) || "left".equals(status)) {
+                aiRequestTracker.cancel(update.getMyChatMember().getChat().getId(), AiRequestTracker.CancelReason.LEFT_CHAT);
+            }
+        }
+    }
+
+    /**
+     * Extracts the chat ID an update belongs to, used as the ordering key for processing.
+     *
+     * @param update The incoming {@link Update}.
+     * @return The chat ID of a text message, callback query or change of the bot's membership in a chat,
+     * or {@code null} for other update types.
+     */
+    private Long resolveChatId(Update update) {
+        if (update.hasMessage() && update.getMessage().hasText()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasCallbackQuery() && update.getCallbackQuery().getMessage() != null) {
+            return update.getCallbackQuery().getMessage().getChatId();
+        }
+        if (update.hasMyChatMember()) {
+            return update.getMyChatMember().getChat().getId();
+        }
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.Calorizer.Bot.Model;
+
+import java.util.List;
+
+/**
+ * A meal plan as returned by Gemini in structured-output mode: days, each with meals, each with food items
+ * carrying their calories and macronutrients. Totals are always computed from the items, never taken from
+ * the model, so they are consistent with what is shown.
+ *
+ * @param days The days of the plan, in order.
+ */
+public record MealPlan(List<Day> days) {
+
+    /**
+     * Calories and macronutrients of an item, meal, day or plan.
+     *
+     * @param kcal    Energy in kilocalories.
+     * @param protein Proteins in grams.
+     * @param fat     Fats in grams.
+     * @param carbs   Carbohydrates in grams.
+     */
+    public record Nutrients(double kcal, double protein, double fat, double carbs) {
+
+        /** Nutrients of nothing. */
+        public static final Nutrients ZERO = new Nutrients(0, 0, 0, 0);
+
+        /**
+         * Adds two nutrient amounts.
+         *
+         * @param other The amount to add.
+         * @return The sum.
+         */
+        public Nutrients plus(Nutrients other) {
+            return new Nutrients(kcal + other.kcal, protein + other.protein, fat + other.fat, carbs + other.carbs);
+        }
+    }
+
+    /**
+     * One food item of a meal.
+     *
+     * @param name    The food name, in the user's language.
+     * @param portion The portion size as free text (e.g. "150 g").
+     * @param kcal    Energy in kilocalories.
+     * @param protein Proteins in grams.
+     * @param fat     Fats in grams.
+     * @param carbs   Carbohydrates in grams.
+     */
+    public record Item(String name, String portion, double kcal, double protein, double fat, double carbs) {
+
+        /**
+         * Returns the nutrients of the item.
+         *
+         * @return The item's nutrients.
+         */
+        public Nutrients nutrients() {
+            return new Nutrients(kcal, protein, fat, carbs);
+        }
+    }
+
+    /**
+     * One meal of a day.
+     *
+     * @param name  The meal name (e.g. breakfast), in the user's language.
+     * @param items The food items of the meal.
+     */
+    public record Meal(String name, List<Item> items) {
+
+        /**
+         * Returns the summed nutrients of the meal's items.
+         *
+         * @return The meal totals.
+         */
+        public Nutrients totals() {
+            Nutrients total = Nutrients.ZERO;
+            for (Item item : items) {
+                total = total.plus(item.nutrients());
+            }
+            return total;
+        }
+    }
+
+    /**
+     * One day of the plan.
+     *
+     * @param title The day heading (e.g. "Monday"), in the user's language.
+     * @param meals The meals of the day.
+     */
+    public record Day(String title, List<Meal> meals) {
+
+        /**
+         * Returns the summed nutrients of the day's meals.
+         *
+         * @return The day totals.
+         */
+        public Nutrients totals() {
+            Nutrients total = Nutrients.ZERO;
+            for (Meal meal : meals) {
+                total = total.plus(meal.totals());
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Returns the summed nutrients of all days.
+     *
+     * @return The plan totals.
+     */
+    public Nutrients totals() {
+        Nutrients total = Nutrients.ZERO;
+        for (Day day : days) {
+            total = total.plus(day.totals());
+        }
+        return total;
+    }
+}
@@ -40,6 +40,15 @@ public class User {
     @Column(nullable = false)
     private Language language;
 
+    /**
+     * The language of the command list last pushed to this user's chat with {@code SetMyCommands},
+     * or {@code null} if none has been pushed yet.
+     * Lets {@link com.Calorizer.Bot.Service.TelegramBotCommandsUpdater} skip pushing an unchanged command list.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "commands_language")
+    private Language commandsLanguage;
+
     /**
      * One-to-one relationship with {@link UserPhysicalData}.
      * This field holds the physical data associated with this user.
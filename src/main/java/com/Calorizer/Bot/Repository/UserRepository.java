@@ -1,7 +1,12 @@
 package com.Calorizer.Bot.Repository;
 
 import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.Enum.Language;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -20,4 +25,17 @@ public interface UserRepository extends JpaRepository<User,Long> {
      * @return An {@link Optional} containing the User if found, or an empty Optional if no user exists with the given chat ID.
      */
     Optional<User> findByChatId(long chatId);
+
+    /**
+     * Forgets the command list language recorded for a user, but only if it is still the given one,
+     * so a newer push recorded in the meantime is kept. Writes the column directly, past any loaded entity.
+     *
+     * @param chatId   The unique Telegram chat ID of the user.
+     * @param language The language whose push failed.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.commandsLanguage = NULL WHERE u.chatId = :chatId AND u.commandsLanguage = :language")
+    int clearCommandsLanguage(@Param("chatId") long chatId, @Param("language") Language language);
 }
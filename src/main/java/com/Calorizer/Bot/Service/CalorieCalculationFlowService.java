@@ -6,13 +6,18 @@ import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
 import com.Calorizer.Bot.Model.Enum.Sex;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Model.UserPhysicalData;
+import com.Calorizer.Bot.Service.Flow.ProfileDraft;
+import com.Calorizer.Bot.Service.Flow.ProfileFlow;
+import com.Calorizer.Bot.Service.Flow.ProfileStep;
+import com.Calorizer.Bot.Service.Flow.StepFlow;
+import com.Calorizer.Bot.Service.Implementation.ConversationStateStoreFactory;
+import com.Calorizer.Bot.Service.Interface.ConversationStateStore;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -20,6 +25,7 @@ import java.util.Map;
  * It guides the user through a series of questions (sex, height, weight, etc.)
  * and stores their input state temporarily. Once all required data is collected,
  * it either saves it to the user's profile (if applicable) and/or triggers the calorie calculation report.
+ * The questions, their validation and their order are defined by {@link ProfileFlow#STEPS}.
  */
 @Service
 public class CalorieCalculationFlowService {
@@ -30,29 +36,15 @@ public class CalorieCalculationFlowService {
     private final LocalizationService localizationService;
     private final MessageSender messageSender;
 
-    private final Map<Long, CalorieInputState> userStates = new HashMap<>();
+    private final ConversationStateStore<CalorieInputState> userStates;
 
     /**
      * Inner class to hold the state of a user's calorie input flow.
      * It stores the collected physical data and the current step in the flow.
      */
     private static class CalorieInputState {
-        Sex sex;
-        double weight;
-        double height;
-        int age;
-        double bodyFatPercent;
-        PhysicalActivityLevel activityLevel;
-        MainGoal mainGoal;
-        String currentStep = "SEX";
-
-        public String getCurrentStep() {
-            return currentStep;
-        }
-
-        public void setCurrentStep(String currentStep) {
-            this.currentStep = currentStep;
-        }
+        final ProfileDraft draft = new ProfileDraft();
+        ProfileStep currentStep = ProfileFlow.STEPS.first();
     }
     /**
      * Constructor for dependency injection.
@@ -60,11 +52,14 @@ public class CalorieCalculationFlowService {
      * @param userServiceInt Service for user-related operations, primarily for getting user language.
      * @param localizationService Service for retrieving localized messages.
      * @param messageSender Service for sending messages back to the user.
+     * @param stateStoreFactory Factory for the expiring store holding the users' input states.
      */
-    public CalorieCalculationFlowService(UserServiceInt userServiceInt, LocalizationService localizationService, MessageSender messageSender) {
+    public CalorieCalculationFlowService(UserServiceInt userServiceInt, LocalizationService localizationService, MessageSender messageSender,
+                                         ConversationStateStoreFactory stateStoreFactory) {
         this.userServiceInt = userServiceInt;
         this.localizationService = localizationService;
         this.messageSender = messageSender;
+        this.userStates = stateStoreFactory.create("calorie_calculation");
     }
 
     /**
@@ -74,7 +69,7 @@ public class CalorieCalculationFlowService {
      * @return true if the user has an active calorie input state, false otherwise.
      */
     public boolean isInCalorieInputFlow(Long chatId) {
-        return userStates.containsKey(chatId);
+        return userStates.contains(chatId);
     }
 
     /**
@@ -85,8 +80,10 @@ public class CalorieCalculationFlowService {
      * @param chatId The Telegram chat ID of the user.
      */
     public void startCalorieInputFlow(AbsSender absSender, Long chatId) {
-        userStates.put(chatId, new CalorieInputState());
-        askSexStep(absSender, chatId);
+        CalorieInputState state = new CalorieInputState();
+        userStates.start(chatId, state);
+        User user = userServiceInt.getOrCreateUser(chatId);
+        askStep(absSender, chatId, state.currentStep, user.getLanguage());
         logger.info("Started calorie input flow for user {}.", chatId);
     }
 
@@ -111,83 +108,21 @@ public class CalorieCalculationFlowService {
         User user = userServiceInt.getOrCreateUser(chatId);
         Language lang = user.getLanguage();
 
-        switch (state.getCurrentStep()) {
-            case "SEX" -> {
-                if ("1".equals(text)) {
-                    state.sex = Sex.MALE;
-                } else if ("2".equals(text)) {
-                    state.sex = Sex.FEMALE;
-                } else {
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "error.sex.invalid"));
-                    return;
+        ProfileStep step = state.currentStep;
+        switch (ProfileFlow.STEPS.accept(step, text, state.draft)) {
+            case INVALID -> {
+                StepFlow.Step<ProfileDraft> definition = ProfileFlow.STEPS.step(step);
+                messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, definition.errorKey()));
+                if (definition.repeatQuestionOnError()) {
+                    askStep(absSender, chatId, step, lang);
                 }
-                state.setCurrentStep("HEIGHT");
-                messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "question.height"));
             }
-            case "HEIGHT" -> {
-                try {
-                    double height = Double.parseDouble(text);
-                    if (height < 50 || height > 300) throw new NumberFormatException();
-                    state.height = height;
-                    state.setCurrentStep("WEIGHT");
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "question.weight"));
-                } catch (NumberFormatException e) {
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "error.height.invalid"));
-                }
-            }
-            case "WEIGHT" -> {
-                try {
-                    double weight = Double.parseDouble(text);
-                    if (weight < 20 || weight > 500) throw new NumberFormatException();
-                    state.weight = weight;
-                    state.setCurrentStep("AGE");
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "question.age"));
-                } catch (NumberFormatException e) {
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "error.weight.invalid"));
-                }
+            case ADVANCED -> {
+                state.currentStep = ProfileFlow.STEPS.next(step);
+                askStep(absSender, chatId, state.currentStep, lang);
             }
-            case "AGE" -> {
-                try {
-                    int age = Integer.parseInt(text);
-                    if (age < 5 || age > 120) throw new NumberFormatException();
-                    state.age = age;
-                    state.setCurrentStep("BODY_FAT");
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "question.body_fat"));
-                } catch (NumberFormatException e) {
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "error.age.invalid"));
-                }
-            }
-            case "BODY_FAT" -> {
-                try {
-                    double bf = Double.parseDouble(text);
-                    if (bf < 0 || bf > 70) throw new NumberFormatException();
-                    state.bodyFatPercent = bf;
-                    state.setCurrentStep("ACTIVITY_LEVEL");
-                    sendPhysicalActivityLevelQuestion(absSender, chatId, lang);
-                } catch (NumberFormatException e) {
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "error.body_fat.invalid"));
-                }
-            }
-            case "ACTIVITY_LEVEL" -> {
-                PhysicalActivityLevel level = parsePhysicalActivityLevel(text);
-                if (level == null) {
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "error.activity_level.invalid"));
-                    sendPhysicalActivityLevelQuestion(absSender, chatId, lang);
-                    return;
-                }
-                state.activityLevel = level;
-                state.setCurrentStep("MAIN_GOAL");
-                sendMainGoalQuestion(absSender, chatId, lang);
-            }
-            case "MAIN_GOAL" -> {
-                MainGoal goal = parseMainGoal(text);
-                if (goal == null) {
-                    messageSender.sendMessage(absSender, chatId, localizationService.getTranslation(lang, "error.main_goal.invalid"));
-                    sendMainGoalQuestion(absSender, chatId, lang);
-                    return;
-                }
-                state.mainGoal = goal;
-
+            case FINISHED -> {
+                ProfileDraft draft = state.draft;
                 if(user.isPayedAcc()){
                     UserPhysicalData upd = user.getUPD();
 
@@ -199,13 +134,7 @@ public class CalorieCalculationFlowService {
                     } else {
                         logger.info("Updating existing UserPhysicalData for user {}.", chatId);
                     }
-                    upd.setMaingoal(state.mainGoal);
-                    upd.setPhysicalActivityLevel(state.activityLevel);
-                    upd.setSex(state.sex);
-                    upd.setWeight(state.weight);
-                    upd.setHeight(state.height);
-                    upd.setAge(state.age);
-                    upd.setBodyFatPercent(state.bodyFatPercent);
+                    draft.applyTo(upd);
 
                     userServiceInt.save(user);
                     logger.info("User {}'s physical profile data saved/updated successfully.", chatId);
@@ -213,9 +142,9 @@ public class CalorieCalculationFlowService {
                     logger.info("User {} is not a paid account, physical profile data will not be saved.", chatId);
                 }
 
-                sendCalorieReport(absSender, chatId, state.sex, state.weight, state.height, state.age,
-                        state.bodyFatPercent, state.activityLevel, state.mainGoal, lang);
-                userStates.remove(chatId);
+                sendCalorieReport(absSender, chatId, draft.getSex(), draft.getWeight(), draft.getHeight(), draft.getAge(),
+                        draft.getBodyFatPercent(), draft.getActivityLevel(), draft.getMainGoal(), lang);
+                userStates.complete(chatId);
                 logger.info("Calorie input flow completed for user {}.", chatId);
             }
         }
@@ -246,73 +175,18 @@ public class CalorieCalculationFlowService {
     }
 
     /**
-     * Sends the initial question about the user's sex to start the flow.
+     * Sends the question of a step, including the numbered options where the step has them.
      *
      * @param absSender The {@link AbsSender} instance for sending Telegram responses.
      * @param chatId The Telegram chat ID of the user.
-     */
-    private void askSexStep(AbsSender absSender, Long chatId) {
-        User user = userServiceInt.getOrCreateUser(chatId);
-        Language lang = user.getLanguage();
-        String question = localizationService.getTranslation(lang, "question.sex");
-        messageSender.sendMessage(absSender, chatId, question);
-    }
-
-    /**
-     * Sends the question about the user's physical activity level, including options.
-     *
-     * @param absSender The {@link AbsSender} instance.
-     * @param chatId The user's chat ID.
-     * @param lang The user's preferred language.
-     */
-    private void sendPhysicalActivityLevelQuestion(AbsSender absSender, Long chatId, Language lang) {
-        String question = localizationService.getTranslation(lang, "question.activity_level");
-        messageSender.sendMessage(absSender, chatId, question);
-    }
-
-    /**
-     * Sends the question about the user's main goal, including options.
-     *
-     * @param absSender The {@link AbsSender} instance.
-     * @param chatId The user's chat ID.
+     * @param step The step to ask for.
      * @param lang The user's preferred language.
      */
-    private void sendMainGoalQuestion(AbsSender absSender, Long chatId, Language lang) {
-        String question = localizationService.getTranslation(lang, "question.main_goal");
+    private void askStep(AbsSender absSender, Long chatId, ProfileStep step, Language lang) {
+        String question = localizationService.getTranslation(lang, ProfileFlow.STEPS.step(step).questionKey());
         messageSender.sendMessage(absSender, chatId, question);
     }
 
-    /**
-     * Parses the user's text input to a {@link PhysicalActivityLevel} enum.
-     *
-     * @param text The user's input string (e.g., "1", "2").
-     * @return The corresponding {@link PhysicalActivityLevel} enum, or null if input is invalid.
-     */
-    private PhysicalActivityLevel parsePhysicalActivityLevel(String text) {
-        return switch (text) {
-            case "1" -> PhysicalActivityLevel.SEDENTARY;
-            case "2" -> PhysicalActivityLevel.LIGHT;
-            case "3" -> PhysicalActivityLevel.MODERATE;
-            case "4" -> PhysicalActivityLevel.ACTIVE;
-            case "5" -> PhysicalActivityLevel.VERY_ACTIVE;
-            default -> null;
-        };
-    }
-
-    /**
-     * Parses the user's text input to a {@link MainGoal} enum.
-     *
-     * @param text The user's input string (e.g., "1", "2").
-     * @return The corresponding {@link MainGoal} enum, or null if input is invalid.
-     */
-    private MainGoal parseMainGoal(String text) {
-        return switch (text) {
-            case "1" -> MainGoal.WEIGHT_LOSS;
-            case "2" -> MainGoal.Maintenance;
-            case "3" -> MainGoal.WEIGHT_GAIN;
-            default -> null;
-        };
-    }
     /**
      * Calculates the calorie report using {@link FullReportByMethods} and sends it to the user.
      * This overloaded method accepts a {@link CalorieInputState} object.
@@ -326,9 +200,10 @@ public class CalorieCalculationFlowService {
     @Deprecated
     private void sendCalorieReport(AbsSender absSender, Long chatId, CalorieInputState state, Language lang) {
         logger.warn("Using deprecated sendCalorieReport method for user {}. Please update to the explicit parameter version.", chatId);
+        ProfileDraft draft = state.draft;
         sendCalorieReport(absSender, chatId,
-                state.sex, state.weight, state.height, state.age,
-                state.bodyFatPercent, state.activityLevel, state.mainGoal, lang);
+                draft.getSex(), draft.getWeight(), draft.getHeight(), draft.getAge(),
+                draft.getBodyFatPercent(), draft.getActivityLevel(), draft.getMainGoal(), lang);
     }
     /**
      * Overloaded method to calculate the calorie report using {@link FullReportByMethods} and send it to the user.
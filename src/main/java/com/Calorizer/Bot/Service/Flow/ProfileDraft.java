@@ -0,0 +1,72 @@
+package com.Calorizer.Bot.Service.Flow;
+
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Physical data collected step by step in a flow before it is used for a calculation or written to the profile.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProfileDraft {
+
+    private Sex sex;
+    private double weight;
+    private double height;
+    private int age;
+    private double bodyFatPercent;
+    private PhysicalActivityLevel activityLevel;
+    private MainGoal mainGoal;
+
+    /**
+     * Creates a draft pre-filled with the user's stored physical data.
+     *
+     * @param physicalData The stored data, or {@code null} for an empty draft.
+     */
+    public ProfileDraft(UserPhysicalData physicalData) {
+        if (physicalData != null) {
+            this.sex = physicalData.getSex();
+            this.weight = physicalData.getWeight();
+            this.height = physicalData.getHeight();
+            this.age = physicalData.getAge();
+            this.bodyFatPercent = physicalData.getBodyFatPercent();
+            this.activityLevel = physicalData.getPhysicalActivityLevel();
+            this.mainGoal = physicalData.getMaingoal();
+        }
+    }
+
+    /**
+     * Copies all attributes of the draft to the physical data.
+     *
+     * @param physicalData The physical data to update.
+     */
+    public void applyTo(UserPhysicalData physicalData) {
+        for (ProfileStep step : ProfileStep.values()) {
+            applyTo(physicalData, step);
+        }
+    }
+
+    /**
+     * Copies a single attribute of the draft to the physical data.
+     *
+     * @param physicalData The physical data to update.
+     * @param step         The attribute to copy.
+     */
+    public void applyTo(UserPhysicalData physicalData, ProfileStep step) {
+        switch (step) {
+            case SEX -> physicalData.setSex(sex);
+            case HEIGHT -> physicalData.setHeight(height);
+            case WEIGHT -> physicalData.setWeight(weight);
+            case AGE -> physicalData.setAge(age);
+            case BODY_FAT -> physicalData.setBodyFatPercent(bodyFatPercent);
+            case ACTIVITY_LEVEL -> physicalData.setPhysicalActivityLevel(activityLevel);
+            case MAIN_GOAL -> physicalData.setMaingoal(mainGoal);
+        }
+    }
+}
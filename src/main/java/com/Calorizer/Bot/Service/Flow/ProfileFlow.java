@@ -0,0 +1,62 @@
+package com.Calorizer.Bot.Service.Flow;
+
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+
+import static com.Calorizer.Bot.Service.Flow.StepFlow.choice;
+import static com.Calorizer.Bot.Service.Flow.StepFlow.decimalIn;
+import static com.Calorizer.Bot.Service.Flow.StepFlow.integerIn;
+
+/**
+ * The single definition of the physical data questions shared by
+ * {@link com.Calorizer.Bot.Service.CalorieCalculationFlowService} and
+ * {@link com.Calorizer.Bot.Service.ProfileUpdateDataService}: question and error keys, accepted ranges,
+ * the numbering of the options and the order in which the attributes are asked.
+ */
+public final class ProfileFlow {
+
+    /**
+     * Numbered options of the sex question ({@code question.sex}).
+     */
+    private static final Sex[] SEX_OPTIONS = {Sex.MALE, Sex.FEMALE};
+
+    /**
+     * Numbered options of the activity level question ({@code question.activity_level}).
+     */
+    private static final PhysicalActivityLevel[] ACTIVITY_LEVEL_OPTIONS = {
+            PhysicalActivityLevel.SEDENTARY,
+            PhysicalActivityLevel.LIGHT,
+            PhysicalActivityLevel.MODERATE,
+            PhysicalActivityLevel.ACTIVE,
+            PhysicalActivityLevel.VERY_ACTIVE
+    };
+
+    /**
+     * Numbered options of the main goal question ({@code question.main_goal}).
+     */
+    private static final MainGoal[] MAIN_GOAL_OPTIONS = {MainGoal.WEIGHT_LOSS, MainGoal.Maintenance, MainGoal.WEIGHT_GAIN};
+
+    /**
+     * All physical data steps, asked from sex to main goal.
+     */
+    public static final StepFlow<ProfileStep, ProfileDraft> STEPS = StepFlow.<ProfileStep, ProfileDraft>builder(ProfileStep.class)
+            .step(ProfileStep.SEX, "question.sex", "error.sex.invalid", false,
+                    choice(SEX_OPTIONS, ProfileDraft::setSex))
+            .step(ProfileStep.HEIGHT, "question.height", "error.height.invalid", false,
+                    decimalIn(50, 300, ProfileDraft::setHeight))
+            .step(ProfileStep.WEIGHT, "question.weight", "error.weight.invalid", false,
+                    decimalIn(20, 500, ProfileDraft::setWeight))
+            .step(ProfileStep.AGE, "question.age", "error.age.invalid", false,
+                    integerIn(5, 120, ProfileDraft::setAge))
+            .step(ProfileStep.BODY_FAT, "question.body_fat", "error.body_fat.invalid", false,
+                    decimalIn(0, 70, ProfileDraft::setBodyFatPercent))
+            .step(ProfileStep.ACTIVITY_LEVEL, "question.activity_level", "error.activity_level.invalid", true,
+                    choice(ACTIVITY_LEVEL_OPTIONS, ProfileDraft::setActivityLevel))
+            .step(ProfileStep.MAIN_GOAL, "question.main_goal", "error.main_goal.invalid", true,
+                    choice(MAIN_GOAL_OPTIONS, ProfileDraft::setMainGoal))
+            .build();
+
+    private ProfileFlow() {
+    }
+}
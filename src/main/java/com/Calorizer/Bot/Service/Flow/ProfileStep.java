@@ -0,0 +1,57 @@
+package com.Calorizer.Bot.Service.Flow;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The physical data attributes asked for by the calorie calculation and profile update flows,
+ * in the order the full flows ask them. Their questions and validation rules are defined in {@link ProfileFlow}.
+ */
+public enum ProfileStep {
+    SEX,
+    HEIGHT,
+    WEIGHT,
+    AGE,
+    BODY_FAT,
+    ACTIVITY_LEVEL,
+    MAIN_GOAL;
+
+    private static final Map<String, ProfileStep> BY_CALLBACK_DATA = new HashMap<>();
+
+    static {
+        for (ProfileStep step : values()) {
+            BY_CALLBACK_DATA.put(step.callbackData, step);
+        }
+    }
+
+    private final String callbackData = "UPDATE_" + name();
+    private final String labelKey = "profile.label." + name().toLowerCase();
+
+    /**
+     * Returns the callback data of the attribute's button in the profile attribute selection keyboard.
+     *
+     * @return {@code UPDATE_<STEP>}, e.g. {@code UPDATE_BODY_FAT}.
+     */
+    public String getCallbackData() {
+        return callbackData;
+    }
+
+    /**
+     * Returns the localization key of the attribute's label.
+     *
+     * @return {@code profile.label.<step>}, e.g. {@code profile.label.body_fat}.
+     */
+    public String getLabelKey() {
+        return labelKey;
+    }
+
+    /**
+     * Finds the attribute selected with a button of the profile attribute selection keyboard.
+     *
+     * @param callbackData The callback data of the pressed button.
+     * @return The attribute, or {@code null} if the data does not select one.
+     */
+    public static ProfileStep fromCallbackData(String callbackData) {
+        return BY_CALLBACK_DATA.get(callbackData);
+    }
+}
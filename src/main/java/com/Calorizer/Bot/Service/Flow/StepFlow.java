@@ -0,0 +1,273 @@
+package com.Calorizer.Bot.Service.Flow;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Declarative engine for multi-step input flows whose steps are the constants of an enum.
+ * Each step is defined once with its question, its error message and a validator that parses the user's text
+ * into a draft object; the order in which the steps are defined is the order in which the flow asks them.
+ * The definition is compiled into arrays indexed by the step's ordinal, so handling an input costs an array lookup
+ * and the validator itself, without comparing or hashing step names.
+ *
+ * <p>A {@code StepFlow} is immutable and holds no per-user state: the services keep the current step and the draft
+ * in their conversation state and pass them in.</p>
+ *
+ * @param <S> The enum of the flow's steps.
+ * @param <D> The draft that collects the parsed values.
+ */
+public final class StepFlow<S extends Enum<S>, D> {
+
+    /**
+     * Parses the user's text for one step and stores the value in the draft.
+     *
+     * @param <D> The draft type.
+     */
+    @FunctionalInterface
+    public interface Validator<D> {
+        /**
+         * @param text  The text message received from the user.
+         * @param draft The draft to store the parsed value in.
+         * @return {@code true} if the text was valid and stored, {@code false} if it was rejected.
+         */
+        boolean accept(String text, D draft);
+    }
+
+    /**
+     * Definition of a single step.
+     *
+     * @param questionKey           Localization key of the question asking for the value.
+     * @param errorKey              Localization key of the message sent for an invalid value.
+     * @param repeatQuestionOnError Whether the question is sent again after the error, e.g. to show the options again.
+     * @param validator             Parser and range rule of the step.
+     * @param <D>                   The draft type.
+     */
+    public record Step<D>(String questionKey, String errorKey, boolean repeatQuestionOnError, Validator<D> validator) {
+    }
+
+    /**
+     * Result of handling one input.
+     */
+    public enum Result {
+        /** The input was rejected; the flow stays at the same step. */
+        INVALID,
+        /** The input was stored; the flow continues with {@link #next(Enum)}. */
+        ADVANCED,
+        /** The input was stored and it was the last step. */
+        FINISHED
+    }
+
+    private final S first;
+    private final Step<D>[] steps;
+    private final S[] transitions;
+
+    private StepFlow(S first, Step<D>[] steps, S[] transitions) {
+        this.first = first;
+        this.steps = steps;
+        this.transitions = transitions;
+    }
+
+    /**
+     * Starts the definition of a flow over the given step enum.
+     *
+     * @param stepType The enum of the flow's steps.
+     * @param <S>      The step type.
+     * @param <D>      The draft type.
+     * @return A new builder.
+     */
+    public static <S extends Enum<S>, D> Builder<S, D> builder(Class<S> stepType) {
+        return new Builder<>(stepType);
+    }
+
+    /**
+     * Returns the step the flow starts with.
+     *
+     * @return The first defined step.
+     */
+    public S first() {
+        return first;
+    }
+
+    /**
+     * Returns the step following the given one.
+     *
+     * @param step The current step.
+     * @return The next step, or {@code null} if the given step is the last one.
+     */
+    public S next(S step) {
+        return transitions[step.ordinal()];
+    }
+
+    /**
+     * Returns the definition of a step.
+     *
+     * @param step The step.
+     * @return Its definition.
+     */
+    public Step<D> step(S step) {
+        return steps[step.ordinal()];
+    }
+
+    /**
+     * Validates the user's input for a step and stores it in the draft.
+     *
+     * @param step  The step the input answers.
+     * @param text  The text message received from the user.
+     * @param draft The draft to store the parsed value in.
+     * @return Whether the input was rejected, and otherwise whether the flow continues or is complete.
+     */
+    public Result accept(S step, String text, D draft) {
+        int index = step.ordinal();
+        if (text == null || !steps[index].validator().accept(text, draft)) {
+            return Result.INVALID;
+        }
+        return transitions[index] == null ? Result.FINISHED : Result.ADVANCED;
+    }
+
+    /**
+     * Validator for a decimal number within an inclusive range. Rejects text that is not a number and {@code NaN}.
+     *
+     * @param min    The smallest accepted value.
+     * @param max    The largest accepted value.
+     * @param setter Stores the value in the draft.
+     * @param <D>    The draft type.
+     * @return The validator.
+     */
+    public static <D> Validator<D> decimalIn(double min, double max, ObjDoubleConsumer<D> setter) {
+        return (text, draft) -> {
+            double value;
+            try {
+                value = Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (!(value >= min && value <= max)) {
+                return false;
+            }
+            setter.accept(draft, value);
+            return true;
+        };
+    }
+
+    /**
+     * Validator for a whole number within an inclusive range.
+     *
+     * @param min    The smallest accepted value.
+     * @param max    The largest accepted value.
+     * @param setter Stores the value in the draft.
+     * @param <D>    The draft type.
+     * @return The validator.
+     */
+    public static <D> Validator<D> integerIn(int min, int max, ObjIntConsumer<D> setter) {
+        return (text, draft) -> {
+            int value;
+            try {
+                value = Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (value < min || value > max) {
+                return false;
+            }
+            setter.accept(draft, value);
+            return true;
+        };
+    }
+
+    /**
+     * Validator for a numbered choice: "1" selects the first option, "2" the second, and so on (at most nine options).
+     *
+     * @param options The options in the order they are numbered in the question.
+     * @param setter  Stores the chosen option in the draft.
+     * @param <D>     The draft type.
+     * @param <T>     The option type.
+     * @return The validator.
+     */
+    public static <D, T> Validator<D> choice(T[] options, BiConsumer<D, T> setter) {
+        if (options.length == 0 || options.length > 9) {
+            throw new IllegalArgumentException("A numbered choice needs between 1 and 9 options, got " + options.length);
+        }
+        T[] table = options.clone();
+        return (text, draft) -> {
+            if (text.length() != 1) {
+                return false;
+            }
+            int index = text.charAt(0) - '1';
+            if (index < 0 || index >= table.length) {
+                return false;
+            }
+            setter.accept(draft, table[index]);
+            return true;
+        };
+    }
+
+    /**
+     * Builder defining the steps of a {@link StepFlow} in the order they are asked.
+     *
+     * @param <S> The step type.
+     * @param <D> The draft type.
+     */
+    public static final class Builder<S extends Enum<S>, D> {
+
+        private final Class<S> stepType;
+        private final Step<D>[] steps;
+        private final S[] transitions;
+        private S first;
+        private S last;
+
+        @SuppressWarnings("unchecked")
+        private Builder(Class<S> stepType) {
+            this.stepType = stepType;
+            S[] constants = stepType.getEnumConstants();
+            this.steps = (Step<D>[]) new Step[constants.length];
+            this.transitions = Arrays.copyOf(constants, constants.length);
+            Arrays.fill(transitions, null);
+        }
+
+        /**
+         * Defines the next step of the flow.
+         *
+         * @param step                  The step.
+         * @param questionKey           Localization key of the question.
+         * @param errorKey              Localization key of the error message for an invalid value.
+         * @param repeatQuestionOnError Whether the question is sent again after the error.
+         * @param validator             Parser and range rule of the step.
+         * @return This builder.
+         * @throws IllegalArgumentException if the step was already defined.
+         */
+        public Builder<S, D> step(S step, String questionKey, String errorKey, boolean repeatQuestionOnError,
+                                  Validator<D> validator) {
+            int index = step.ordinal();
+            if (steps[index] != null) {
+                throw new IllegalArgumentException("Step " + step + " is already defined");
+            }
+            steps[index] = new Step<>(Objects.requireNonNull(questionKey), Objects.requireNonNull(errorKey),
+                    repeatQuestionOnError, Objects.requireNonNull(validator));
+            if (last == null) {
+                first = step;
+            } else {
+                transitions[last.ordinal()] = step;
+            }
+            last = step;
+            return this;
+        }
+
+        /**
+         * Builds the flow.
+         *
+         * @return The immutable flow.
+         * @throws IllegalStateException if a constant of the step enum has no definition.
+         */
+        public StepFlow<S, D> build() {
+            for (S step : stepType.getEnumConstants()) {
+                if (steps[step.ordinal()] == null) {
+                    throw new IllegalStateException("Step " + step + " of " + stepType.getSimpleName() + " is not defined");
+                }
+            }
+            return new StepFlow<>(first, steps.clone(), transitions.clone());
+        }
+    }
+}
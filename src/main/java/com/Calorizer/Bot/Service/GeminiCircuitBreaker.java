@@ -0,0 +1,315 @@
+package com.Calorizer.Bot.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker guarding the Gemini API. The outcomes of the last {@code windowSize} calls are kept in a
+ * rolling window; once it holds at least {@code minimumCalls} outcomes and the share of failed calls or of
+ * slow calls (calls answering later than {@code slowCallDuration}) reaches its threshold, the breaker opens.
+ * While it is open no calls are permitted, so requests are answered with a fallback at once instead of waiting
+ * for the SDK to time out. After {@code openDuration} the breaker lets {@code halfOpenCalls} probe calls through;
+ * if their failure and slow-call rates stay below the thresholds it closes again, otherwise it reopens.
+ *
+ * <p>Each permitted call is represented by a {@link Permit}, which records exactly one outcome. The breaker also
+ * provides the per-call timeout Gemini calls are limited to.</p>
+ *
+ * <p>Metrics: gauge {@code bot.ai.breaker.state} (0 closed, 1 half-open, 2 open), counter
+ * {@code bot.ai.breaker.not_permitted} and counter {@code bot.ai.breaker.transitions} tagged with the new
+ * state {@code to}.</p>
+ */
+@Component
+public class GeminiCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiCircuitBreaker.class);
+
+    /**
+     * The state of the breaker.
+     */
+    public enum State {
+        /** Calls are permitted and their outcomes recorded. */
+        CLOSED,
+        /** A limited number of probe calls is permitted. */
+        HALF_OPEN,
+        /** No calls are permitted. */
+        OPEN
+    }
+
+    /**
+     * Point-in-time view of the breaker, e.g. for the status endpoint.
+     *
+     * @param state            The current state.
+     * @param failureRate      Share of failed calls in the rolling window in percent, {@code -1} if too few calls.
+     * @param slowCallRate     Share of slow calls in the rolling window in percent, {@code -1} if too few calls.
+     * @param bufferedCalls    Number of outcomes in the rolling window.
+     * @param notPermittedCalls Number of calls rejected because the breaker was open, since startup.
+     * @param openedAt         When the breaker last opened, {@code null} if it is closed.
+     */
+    public record Snapshot(State state, double failureRate, double slowCallRate, int bufferedCalls,
+                           long notPermittedCalls, Instant openedAt) {
+    }
+
+    /**
+     * Permission for one Gemini call. Exactly one of {@link #onSuccess()}, {@link #onFailure()} and
+     * {@link #release()} takes effect; later calls are ignored, so a call that already timed out cannot
+     * record a second outcome when it eventually returns.
+     */
+    public final class Permit {
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile long startNanos = System.nanoTime();
+        private volatile long respondedNanos;
+
+        private Permit() {
+        }
+
+        /**
+         * Marks the moment the call is actually sent, after waiting for a worker.
+         */
+        public void markStarted() {
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Marks the first response of a streamed call; its latency, not the length of the whole stream,
+         * decides whether the call was slow.
+         */
+        public void markResponded() {
+            if (respondedNanos == 0) {
+                respondedNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * Records a successful call.
+         */
+        public void onSuccess() {
+            if (finished.compareAndSet(false, true)) {
+                record(false, latencyNanos());
+            }
+        }
+
+        /**
+         * Records a failed or timed out call.
+         */
+        public void onFailure() {
+            if (finished.compareAndSet(false, true)) {
+                record(true, latencyNanos());
+            }
+        }
+
+        /**
+         * Returns the permit without recording an outcome, e.g. when the call was cancelled.
+         */
+        public void release() {
+            if (finished.compareAndSet(false, true)) {
+                releaseUnrecorded();
+            }
+        }
+
+        private long latencyNanos() {
+            long end = respondedNanos != 0 ? respondedNanos : System.nanoTime();
+            return end - startNanos;
+        }
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Duration callTimeout;
+
+    // Rolling window of outcomes, guarded by "this".
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int windowIndex;
+    private int bufferedCalls;
+    private int failureCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private Instant openedAt;
+    private int halfOpenIssued;
+
+    private final Counter notPermittedCalls;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs the breaker in the closed state and registers its metrics.
+     *
+     * @param meterRegistry             Registry for the breaker metrics.
+     * @param windowSize                Number of call outcomes kept in the rolling window.
+     * @param minimumCalls              Outcomes needed in the window before the rates are evaluated.
+     * @param failureRateThreshold      Failure rate in percent at which the breaker opens.
+     * @param slowCallRateThreshold     Slow-call rate in percent at which the breaker opens.
+     * @param slowCallDurationSeconds   Latency in seconds from which a call counts as slow.
+     * @param openDurationSeconds       Time in seconds the breaker stays open before probing.
+     * @param halfOpenCalls             Number of probe calls permitted in the half-open state.
+     * @param callTimeoutSeconds        Time in seconds after which a Gemini call is abandoned as failed.
+     */
+    public GeminiCircuitBreaker(MeterRegistry meterRegistry,
+                                @Value("${bot.ai.breaker.window-size:20}") int windowSize,
+                                @Value("${bot.ai.breaker.minimum-calls:10}") int minimumCalls,
+                                @Value("${bot.ai.breaker.failure-rate-threshold:50}") double failureRateThreshold,
+                                @Value("${bot.ai.breaker.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+                                @Value("${bot.ai.breaker.slow-call-duration-seconds:30}") long slowCallDurationSeconds,
+                                @Value("${bot.ai.breaker.open-duration-seconds:60}") long openDurationSeconds,
+                                @Value("${bot.ai.breaker.half-open-calls:2}") int halfOpenCalls,
+                                @Value("${bot.ai.call-timeout-seconds:90}") long callTimeoutSeconds) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.clamp(minimumCalls, 1, this.windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.SECONDS.toNanos(slowCallDurationSeconds);
+        this.openNanos = TimeUnit.SECONDS.toNanos(openDurationSeconds);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.callTimeout = Duration.ofSeconds(callTimeoutSeconds);
+        this.failedCalls = new boolean[this.windowSize];
+        this.slowCalls = new boolean[this.windowSize];
+        this.meterRegistry = meterRegistry;
+        this.notPermittedCalls = Counter.builder("bot.ai.breaker.not_permitted")
+                .description("Gemini calls not made because the circuit breaker was open")
+                .register(meterRegistry);
+        Gauge.builder("bot.ai.breaker.state", this, breaker -> breaker.getState().ordinal())
+                .description("Gemini circuit breaker state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks, without taking a permit, whether a call would currently be permitted.
+     * Used to answer with the fallback before a request is queued.
+     *
+     * @return {@code false} if the breaker is open, or half-open with all probes taken.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAtNanos >= openNanos;
+            case HALF_OPEN -> halfOpenIssued < halfOpenCalls;
+        };
+    }
+
+    /**
+     * Takes a permit for one Gemini call. An open breaker whose open duration has passed turns half-open.
+     *
+     * @return The {@link Permit}, or {@code null} if no call is permitted now.
+     */
+    public synchronized Permit tryAcquirePermit() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && halfOpenIssued >= halfOpenCalls)) {
+            notPermittedCalls.increment();
+            return null;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenIssued++;
+        }
+        return new Permit();
+    }
+
+    /**
+     * Returns the timeout every Gemini call is limited to.
+     *
+     * @return The per-call timeout.
+     */
+    public Duration getCallTimeout() {
+        return callTimeout;
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return The breaker state.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns a consistent view of the breaker.
+     *
+     * @return The current {@link Snapshot}.
+     */
+    public synchronized Snapshot snapshot() {
+        boolean evaluated = bufferedCalls >= minimumCalls;
+        return new Snapshot(state,
+                evaluated ? rate(failureCount) : -1,
+                evaluated ? rate(slowCount) : -1,
+                bufferedCalls,
+                (long) notPermittedCalls.count(),
+                state == State.CLOSED ? null : openedAt);
+    }
+
+    private synchronized void record(boolean failed, long latencyNanos) {
+        boolean slow = latencyNanos >= slowCallNanos;
+        if (state == State.OPEN) {
+            // A call permitted before the breaker opened; its outcome is already reflected.
+            return;
+        }
+        if (bufferedCalls == windowSize) {
+            failureCount -= failedCalls[windowIndex] ? 1 : 0;
+            slowCount -= slowCalls[windowIndex] ? 1 : 0;
+        } else {
+            bufferedCalls++;
+        }
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+        failureCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        windowIndex = (windowIndex + 1) % windowSize;
+
+        if (state == State.HALF_OPEN) {
+            // Only the probes are buffered in the half-open state, the window was reset on the transition.
+            if (bufferedCalls >= halfOpenCalls) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (bufferedCalls >= minimumCalls && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private synchronized void releaseUnrecorded() {
+        if (state == State.HALF_OPEN && halfOpenIssued > bufferedCalls) {
+            halfOpenIssued--;
+        }
+    }
+
+    private boolean exceedsThresholds() {
+        return rate(failureCount) >= failureRateThreshold || rate(slowCount) >= slowCallRateThreshold;
+    }
+
+    private double rate(int count) {
+        return bufferedCalls == 0 ? 0 : count * 100.0 / bufferedCalls;
+    }
+
+    private void transitionTo(State newState) {
+        logger.warn("Gemini circuit breaker: {} -> {} (failure rate {}%, slow-call rate {}%, {} calls).",
+                state, newState, rate(failureCount), rate(slowCount), bufferedCalls);
+        state = newState;
+        bufferedCalls = 0;
+        windowIndex = 0;
+        failureCount = 0;
+        slowCount = 0;
+        halfOpenIssued = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+            openedAt = Instant.now();
+        }
+        meterRegistry.counter("bot.ai.breaker.transitions", "to", newState.name().toLowerCase(Locale.ROOT)).increment();
+    }
+}
@@ -0,0 +1,79 @@
+package com.Calorizer.Bot.Service.Implementation;
+
+import com.Calorizer.Bot.Service.Interface.ConversationStateStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the {@link ConversationStateStore}s used by the multi-step flow services and runs a single
+ * background sweeper that periodically drops expired flows from all of them.
+ * TTL, size cap and sweep interval are shared by all flows and configured in application.properties.
+ */
+@Component
+public class ConversationStateStoreFactory {
+
+    private final MeterRegistry meterRegistry;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final List<ExpiringConversationStateStore<?>> stores = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Constructs the factory and starts the sweeper.
+     *
+     * @param meterRegistry        Registry for the flow metrics.
+     * @param ttlMinutes           Minutes of inactivity after which a flow expires.
+     * @param maxSize              Maximum number of concurrently stored flows per flow type.
+     * @param sweepIntervalSeconds Interval of the background sweep in seconds.
+     */
+    public ConversationStateStoreFactory(MeterRegistry meterRegistry,
+                                         @Value("${bot.flows.ttl-minutes:30}") long ttlMinutes,
+                                         @Value("${bot.flows.max-size:10000}") int maxSize,
+                                         @Value("${bot.flows.sweep-interval-seconds:60}") long sweepIntervalSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+        this.maxSize = maxSize;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("flow-state-sweeper").daemon(true).factory());
+        sweeper.scheduleWithFixedDelay(this::sweepAll, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a store for one flow type and registers it with the sweeper.
+     *
+     * @param flowName Name of the flow, used in logs and as the {@code flow} metric tag.
+     * @param <S>      The type of the per-user flow state.
+     * @return A new, empty store.
+     */
+    public <S> ConversationStateStore<S> create(String flowName) {
+        ExpiringConversationStateStore<S> store =
+                new ExpiringConversationStateStore<>(flowName, ttlNanos, maxSize, meterRegistry, System::nanoTime);
+        stores.add(store);
+        return store;
+    }
+
+    /**
+     * Sweeps expired flows from all created stores.
+     */
+    private void sweepAll() {
+        for (ExpiringConversationStateStore<?> store : stores) {
+            store.sweep();
+        }
+    }
+
+    /**
+     * Stops the background sweeper.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+}
@@ -0,0 +1,222 @@
+package com.Calorizer.Bot.Service.Implementation;
+
+import com.Calorizer.Bot.Service.Interface.ConversationStateStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ConversationStateStore} backed by a {@link ConcurrentHashMap} with a per-entry idle TTL and a size cap.
+ * Expired entries are dropped lazily on access and periodically by {@link #sweep()}, which is scheduled by
+ * {@link ConversationStateStoreFactory}. When the cap is reached, the least recently used flow is evicted.
+ *
+ * <p>Metrics (tagged with {@code flow}): gauge {@code bot.flows.active} and counters {@code bot.flows.started},
+ * {@code bot.flows.completed}, {@code bot.flows.expired} and {@code bot.flows.evicted}.</p>
+ *
+ * @param <S> The type of the per-user flow state.
+ */
+public class ExpiringConversationStateStore<S> implements ConversationStateStore<S> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiringConversationStateStore.class);
+
+    /**
+     * A stored state together with its last access time.
+     */
+    private static final class Entry<S> {
+        private final S state;
+        private volatile long lastAccessNanos;
+
+        private Entry(S state, long now) {
+            this.state = state;
+            this.lastAccessNanos = now;
+        }
+    }
+
+    private final Map<Long, Entry<S>> entries = new ConcurrentHashMap<>();
+    private final String flowName;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    private final Counter startedFlows;
+    private final Counter completedFlows;
+    private final Counter expiredFlows;
+    private final Counter evictedFlows;
+
+    /**
+     * Constructs a store and registers its metrics.
+     *
+     * @param flowName      Name of the flow, used in logs and as the {@code flow} metric tag.
+     * @param ttlNanos      Idle time after which a flow expires.
+     * @param maxSize       Maximum number of concurrently stored flows.
+     * @param meterRegistry Registry for the flow metrics.
+     * @param clock         Source of monotonic time in nanoseconds.
+     */
+    ExpiringConversationStateStore(String flowName, long ttlNanos, int maxSize, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.flowName = flowName;
+        this.ttlNanos = ttlNanos;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.startedFlows = Counter.builder("bot.flows.started").tag("flow", flowName)
+                .description("Conversation flows started").register(meterRegistry);
+        this.completedFlows = Counter.builder("bot.flows.completed").tag("flow", flowName)
+                .description("Conversation flows completed successfully").register(meterRegistry);
+        this.expiredFlows = Counter.builder("bot.flows.expired").tag("flow", flowName)
+                .description("Conversation flows dropped after the idle TTL").register(meterRegistry);
+        this.evictedFlows = Counter.builder("bot.flows.evicted").tag("flow", flowName)
+                .description("Conversation flows evicted because the store was full").register(meterRegistry);
+        Gauge.builder("bot.flows.active", entries, Map::size).tag("flow", flowName)
+                .description("Conversation flows currently stored").register(meterRegistry);
+    }
+
+    /**
+     * {@inheritDoc}
+     * If the store is full, expired flows are swept first and, if still full, the least recently used flow is evicted.
+     */
+    @Override
+    public void start(long chatId, S state) {
+        long now = clock.getAsLong();
+        if (entries.size() >= maxSize && !entries.containsKey(chatId)) {
+            sweep();
+            if (entries.size() >= maxSize) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        entries.put(chatId, new Entry<>(state, now));
+        startedFlows.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public S get(long chatId) {
+        Entry<S> entry = entries.get(chatId);
+        if (entry == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (isExpired(entry, now)) {
+            removeIfExpired(chatId, now);
+            return null;
+        }
+        entry.lastAccessNanos = now;
+        return entry.state;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Does not refresh the expiry.
+     */
+    @Override
+    public boolean contains(long chatId) {
+        Entry<S> entry = entries.get(chatId);
+        if (entry == null) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        if (isExpired(entry, now)) {
+            removeIfExpired(chatId, now);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void complete(long chatId) {
+        if (entries.remove(chatId) != null) {
+            completedFlows.increment();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void discard(long chatId) {
+        entries.remove(chatId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all expired flows.
+     *
+     * @return The number of removed flows.
+     */
+    public int sweep() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Long chatId : entries.keySet()) {
+            if (removeIfExpired(chatId, now)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.debug("Swept {} expired '{}' flows, {} active.", removed, flowName, entries.size());
+        }
+        return removed;
+    }
+
+    /**
+     * Atomically removes the flow of a chat if it is (still) expired, so a concurrent access that
+     * has just refreshed the entry is never lost.
+     *
+     * @param chatId The chat ID.
+     * @param now    The current time in nanoseconds.
+     * @return {@code true} if the flow was removed.
+     */
+    private boolean removeIfExpired(Long chatId, long now) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(chatId, (id, entry) -> {
+            if (isExpired(entry, now)) {
+                removed[0] = true;
+                return null;
+            }
+            return entry;
+        });
+        if (removed[0]) {
+            expiredFlows.increment();
+            logger.info("'{}' flow of user {} expired after inactivity.", flowName, chatId);
+        }
+        return removed[0];
+    }
+
+    /**
+     * Evicts the flow that was accessed least recently. Only called when the store is full.
+     */
+    private void evictLeastRecentlyUsed() {
+        Long oldestChatId = null;
+        long oldestAccess = 0;
+        for (Map.Entry<Long, Entry<S>> e : entries.entrySet()) {
+            long access = e.getValue().lastAccessNanos;
+            if (oldestChatId == null || access - oldestAccess < 0) {
+                oldestChatId = e.getKey();
+                oldestAccess = access;
+            }
+        }
+        if (oldestChatId != null && entries.remove(oldestChatId) != null) {
+            evictedFlows.increment();
+            logger.warn("'{}' flow store is full ({} entries), evicted flow of user {}.", flowName, maxSize, oldestChatId);
+        }
+    }
+
+    private boolean isExpired(Entry<S> entry, long now) {
+        return now - entry.lastAccessNanos >= ttlNanos;
+    }
+}
@@ -10,6 +10,8 @@ import com.Calorizer.Bot.Repository.UserPhysicalDataRepository;
 import com.Calorizer.Bot.Repository.UserRepository;
 import com.Calorizer.Bot.Service.Interface.UserServiceInt;
 import com.Calorizer.Bot.Service.LocalizationService;
+import com.Calorizer.Bot.Service.UpdateUserContext;
+import com.Calorizer.Bot.Service.UserCache;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
@@ -23,21 +25,26 @@ public class UserServiceImpl implements UserServiceInt {
 
     private final LocalizationService localizationService;
 
-    private final UserRepository userRepository;
-
     private final UserPhysicalDataRepository userPhysicalDataRepository;
 
+    private final UpdateUserContext updateUserContext;
+
+    private final UserCache userCache;
+
     /**
      * Constructor for dependency injection. Spring automatically provides instances of the required repositories and services.
      *
      * @param localizationService Service for retrieving localized strings.
-     * @param userRepository Repository for {@link User} entities.
      * @param userPhysicalDataRepository Repository for {@link UserPhysicalData} entities.
+     * @param updateUserContext Per-update context sharing loaded users and deferring their saves.
+     * @param userCache Write-through cache in front of {@link UserRepository}, used for all {@link User} reads and writes.
      */
-    UserServiceImpl(LocalizationService localizationService,UserRepository userRepository, UserPhysicalDataRepository userPhysicalDataRepository){
+    UserServiceImpl(LocalizationService localizationService, UserPhysicalDataRepository userPhysicalDataRepository,
+                    UpdateUserContext updateUserContext, UserCache userCache){
         this.localizationService=localizationService;
-        this.userRepository=userRepository;
         this.userPhysicalDataRepository=userPhysicalDataRepository;
+        this.updateUserContext=updateUserContext;
+        this.userCache=userCache;
     }
 
     /**
@@ -45,11 +52,17 @@ public class UserServiceImpl implements UserServiceInt {
      * Retrieves an existing user by chat ID or creates a new user if not found.
      * New users are initialized with a default language (English) and a test payment status.
      * This method is transactional, ensuring atomicity of the operation.
+     * Within an update scope the user is loaded once and the same instance is returned to every caller;
+     * across updates it is served from the {@link UserCache}.
      */
     @Override
     @Transactional
     public User getOrCreateUser(Long chatId) {
-        return userRepository.findByChatId(chatId).orElseGet(() -> {
+        User cached = updateUserContext.get(chatId);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userCache.findByChatId(chatId).orElseGet(() -> {
             User newUser = new User();
             newUser.setChatId(chatId);
             newUser.setLanguage(Language.English);
@@ -58,8 +71,10 @@ public class UserServiceImpl implements UserServiceInt {
             // if(chatId==642196846 || chatId==755032378){newUser.setPayedAcc(true);}
             // else {newUser.setPayedAcc(false);}
             newUser.setPayedAcc(true);
-            return userRepository.save(newUser);
+            return userCache.save(newUser);
         });
+        updateUserContext.put(user);
+        return user;
     }
 
     /**
@@ -68,11 +83,12 @@ public class UserServiceImpl implements UserServiceInt {
      * Handles cases for non-existent users, non-paid accounts, and empty physical data profiles.
      * This method is transactional only if called from a non-transactional context. If called
      * from an existing transaction, it will join that transaction.
+     * The physical data is taken from the user loaded for the current update instead of being queried again.
      */
     @Override
     @Transactional
     public String getProfileMessage(Long chatId) {
-        User user = userRepository.findByChatId(chatId).orElse(null);
+        User user = findUser(chatId);
         if (user == null) {
             return "User not found.";
         }
@@ -81,7 +97,8 @@ public class UserServiceImpl implements UserServiceInt {
             return localizationService.getTranslation(user.getLanguage(), "profile.access_paid_only");
         }
 
-        if (!userPhysicalDataRepository.existsById(user.getChatId())) {
+        UserPhysicalData profile = user.getUPD();
+        if (profile == null) {
             UserPhysicalData userPhysicalData = new UserPhysicalData();
             userPhysicalData.setUser(user);
             user.setUPD(userPhysicalData);
@@ -94,36 +111,49 @@ public class UserServiceImpl implements UserServiceInt {
             //userPhysicalData.setMaingoal(MainGoal.WEIGHT_LOSS);
             //userPhysicalData.setBodyFatPercent(15.3);
 
-            userPhysicalDataRepository.save(userPhysicalData);
+            save(userPhysicalData);
             String greeting = localizationService.getTranslation(user.getLanguage(), "profile.greeting_new");
             String fillProfileMsg = localizationService.getTranslation(user.getLanguage(), "profile.empty_message");
             return greeting + fillProfileMsg;
         }
 
-        UserPhysicalData profile = userPhysicalDataRepository.findById(chatId).orElse(null);
-        if (profile == null) {
-            return "Profile not found.";
-        }
-
         return buildProfileMessage(profile, user.getLanguage());
     }
 
     /**
      * {@inheritDoc}
      * Saves a {@link User} entity. This operation is managed by Spring Data JPA.
+     * Within an update scope the write is deferred and performed once when the update has been processed.
+     * The write goes through the {@link UserCache}, so the cached user always reflects the saved state.
      */
     @Override
     public User save(User  user) {
-        return userRepository.save(user);
+        if (updateUserContext.markDirty(user)) {
+            return user;
+        }
+        return userCache.save(user);
     }
 
     /**
      * {@inheritDoc}
      * Saves a {@link UserPhysicalData} entity. This operation is managed by Spring Data JPA.
+     * Data attached to its owning user is written together with that user (deferred within an update scope),
+     * keeping the {@link UserCache} up to date; detached data is written directly and invalidates the cached user.
      */
     @Override
     public UserPhysicalData save(UserPhysicalData  data) {
-        return userPhysicalDataRepository.save(data);
+        User owner = data.getUser();
+        if (owner != null && owner.getUPD() == data) {
+            if (updateUserContext.markDirty(owner)) {
+                return data;
+            }
+            return userCache.save(owner).getUPD();
+        }
+        UserPhysicalData saved = userPhysicalDataRepository.save(data);
+        if (owner != null) {
+            userCache.invalidate(owner.getChatId());
+        }
+        return saved;
     }
     /**
      * {@inheritDoc}
@@ -141,6 +171,24 @@ public class UserServiceImpl implements UserServiceInt {
 
     }
 
+    /**
+     * Returns the user loaded for the current update, or looks it up without creating it.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     * @return The {@link User}, or {@code null} if it does not exist.
+     */
+    private User findUser(Long chatId) {
+        User cached = updateUserContext.get(chatId);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userCache.findByChatId(chatId).orElse(null);
+        if (user != null) {
+            updateUserContext.put(user);
+        }
+        return user;
+    }
+
     /**
      * Builds a formatted string containing the user's physical profile details.
      * All labels and units are localized based on the provided language.
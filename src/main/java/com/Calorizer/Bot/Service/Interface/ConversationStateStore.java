@@ -0,0 +1,57 @@
+package com.Calorizer.Bot.Service.Interface;
+
+/**
+ * Store for the transient state of multi-step conversations (e.g. calorie calculation or profile update flows),
+ * keyed by chat ID.
+ * Implementations must be safe for concurrent use and keep memory bounded: entries of users who abandon
+ * a flow halfway expire after a period of inactivity, and the number of entries is capped.
+ *
+ * @param <S> The type of the per-user flow state.
+ */
+public interface ConversationStateStore<S> {
+
+    /**
+     * Starts (or restarts) a flow for the user, replacing any previous state.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     * @param state  The initial flow state.
+     */
+    void start(long chatId, S state);
+
+    /**
+     * Returns the active state of the user and refreshes its expiry.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     * @return The flow state, or {@code null} if the user has no active (non-expired) flow.
+     */
+    S get(long chatId);
+
+    /**
+     * Checks whether the user has an active (non-expired) flow.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     * @return {@code true} if a flow is active, {@code false} otherwise.
+     */
+    boolean contains(long chatId);
+
+    /**
+     * Ends the flow of the user after it finished successfully.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     */
+    void complete(long chatId);
+
+    /**
+     * Ends the flow of the user without completing it (e.g. access denied or an unexpected state).
+     *
+     * @param chatId The Telegram chat ID of the user.
+     */
+    void discard(long chatId);
+
+    /**
+     * Returns the number of stored flows, including expired ones not yet swept.
+     *
+     * @return The number of entries in the store.
+     */
+    int size();
+}
@@ -5,36 +5,58 @@ import com.Calorizer.Bot.Model.Enum.MainGoal;
 import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
 import com.Calorizer.Bot.Model.Enum.Sex;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.objects.commands.BotCommand;
 
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service responsible for managing all localized strings and bot commands for different languages.
  * It loads messages from resource bundles and provides methods to retrieve translations
  * for various types of content (general messages, enum values, calculation methods).
+ *
+ * <p>All messages are compiled once at startup into a template table per {@link Language}:
+ * messages are pre-rendered to constant strings, and messages with format elements additionally keep
+ * a pre-parsed {@link MessageFormat}, so no pattern is parsed on the request path.</p>
  */
 @Service
 public class LocalizationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LocalizationService.class);
+
+    /**
+     * A compiled message.
+     *
+     * @param constant  The message rendered without arguments, exactly as {@code MessageFormat.format(pattern)} would.
+     * @param formatter The pre-parsed format, or {@code null} if the message has no format elements.
+     *                  {@link MessageFormat} is not thread-safe, so it is only used while holding its monitor.
+     */
+    private record Template(String constant, MessageFormat formatter) {
+    }
+
     private final Map<Language, List<BotCommand>> localizedCommands = new HashMap<>();
-    private final Map<Language, ResourceBundle> messagesBundles = new HashMap<>();
+    private final Map<Language, Map<String, Template>> templates = new HashMap<>();
+    private final Set<String> reportedMissingKeys = ConcurrentHashMap.newKeySet();
+
     /**
      * Initializes the localization service after the bean has been constructed.
-     * This method loads all {@link ResourceBundle}s for each supported {@link Language}
-     * and populates the map of localized bot commands.
-     * This improved version iterates through languages, reducing code duplication.
+     * This method loads all {@link ResourceBundle}s for each supported {@link Language},
+     * compiles their messages into template tables and populates the map of localized bot commands.
      */
     @PostConstruct
     public void init() {
         for (Language lang : Language.values()) {
             ResourceBundle bundle = ResourceBundle.getBundle("messages/messages", lang.getLocale());
-            messagesBundles.put(lang, bundle);
+            templates.put(lang, compile(bundle));
 
             List<BotCommand> commands = List.of(
                     new BotCommand("/start", getTranslation(lang, "command.start.description")),
@@ -50,11 +72,30 @@ public class LocalizationService {
         }
     }
 
+    /**
+     * Compiles all messages of a bundle into templates.
+     *
+     * @param bundle The resource bundle of one language.
+     * @return An immutable map from message key to compiled template.
+     */
+    private Map<String, Template> compile(ResourceBundle bundle) {
+        Map<String, Template> compiled = new HashMap<>();
+        Enumeration<String> keys = bundle.getKeys();
+        while (keys.hasMoreElements()) {
+            String key = keys.nextElement();
+            MessageFormat format = new MessageFormat(bundle.getString(key));
+            String constant = format.format(new Object[0]);
+            boolean hasArguments = format.getFormatsByArgumentIndex().length > 0;
+            compiled.put(key, new Template(constant, hasArguments ? format : null));
+        }
+        return Map.copyOf(compiled);
+    }
+
     /**
      * Retrieves a localized string for a given key and language.
      * Supports message formatting with arguments (e.g., "Hello, {0}!").
      * Falls back to English if the requested language bundle is not found.
-     * Logs an error if a key is missing in the bundle, and returns the key itself as fallback.
+     * Logs a warning the first time a key is found missing for a language, and returns the key itself as fallback.
      *
      * @param language The target {@link Language}.
      * @param key The key of the message in the resource bundle.
@@ -62,14 +103,20 @@ public class LocalizationService {
      * @return The translated string, or the key if translation is missing.
      */
     public String getTranslation(Language language, String key, Object... args) {
-        ResourceBundle bundle = messagesBundles.getOrDefault(language, messagesBundles.get(Language.English));
-        try {
-            String pattern = bundle.getString(key);
-            return MessageFormat.format(pattern, args);
-        } catch (java.util.MissingResourceException e) {
-            System.err.println("Missing translation for key: " + key + " in language: " + language.name());
+        Map<String, Template> table = templates.getOrDefault(language, templates.get(Language.English));
+        Template template = table.get(key);
+        if (template == null) {
+            if (reportedMissingKeys.add(language + ":" + key)) {
+                logger.warn("Missing translation for key: {} in language: {}", key, language);
+            }
             return key;
         }
+        if (template.formatter() == null || args == null || args.length == 0) {
+            return template.constant();
+        }
+        synchronized (template.formatter()) {
+            return template.formatter().format(args);
+        }
     }
 
     /**
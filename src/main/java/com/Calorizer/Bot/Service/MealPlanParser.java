@@ -0,0 +1,163 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.MealPlan;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.Schema;
+import com.google.genai.types.Type;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Defines the JSON schema Gemini answers with in structured-output mode and parses such answers into
+ * {@link MealPlan} records. Parsed plans are validated: every day needs at least one meal, every meal at least
+ * one item, and all calorie and macronutrient values must be finite and not negative.
+ */
+@Component
+public class MealPlanParser {
+
+    /**
+     * Thrown when a structured answer is not valid JSON or does not describe a valid {@link MealPlan}.
+     */
+    public static class MealPlanParseException extends RuntimeException {
+        public MealPlanParseException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static final Schema RESPONSE_SCHEMA = buildResponseSchema();
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Returns the generation config requesting a JSON answer that matches the meal plan schema.
+     *
+     * @return The config for {@code generateContent}.
+     */
+    public GenerateContentConfig generationConfig() {
+        return GenerateContentConfig.builder()
+                .responseMimeType("application/json")
+                .responseSchema(RESPONSE_SCHEMA)
+                .build();
+    }
+
+    /**
+     * Parses and validates a structured answer.
+     *
+     * @param json The JSON text returned by Gemini.
+     * @return The parsed plan.
+     * @throws MealPlanParseException if the text is not a valid plan.
+     */
+    public MealPlan parse(String json) {
+        MealPlan plan;
+        try {
+            plan = objectMapper.readValue(json, MealPlan.class);
+        } catch (JsonProcessingException e) {
+            throw new MealPlanParseException("Meal plan is not valid JSON: " + e.getOriginalMessage(), e);
+        }
+        validate(plan);
+        return plan;
+    }
+
+    /**
+     * Serializes a plan in the format accepted by {@link #parse}, e.g. to cache a plan assembled from several answers.
+     *
+     * @param plan The plan to serialize.
+     * @return The JSON text.
+     */
+    public String toJson(MealPlan plan) {
+        try {
+            return objectMapper.writeValueAsString(plan);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize meal plan", e);
+        }
+    }
+
+    private static void validate(MealPlan plan) {
+        if (plan == null || isEmpty(plan.days())) {
+            throw invalid("plan has no days");
+        }
+        for (MealPlan.Day day : plan.days()) {
+            if (day == null || isEmpty(day.meals())) {
+                throw invalid("a day has no meals");
+            }
+            for (MealPlan.Meal meal : day.meals()) {
+                if (meal == null || isBlank(meal.name()) || isEmpty(meal.items())) {
+                    throw invalid("a meal has no name or no items");
+                }
+                for (MealPlan.Item item : meal.items()) {
+                    if (item == null || isBlank(item.name())
+                            || !isAmount(item.kcal()) || !isAmount(item.protein())
+                            || !isAmount(item.fat()) || !isAmount(item.carbs())) {
+                        throw invalid("an item has no name or an invalid amount");
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
+    private static boolean isAmount(double value) {
+        return Double.isFinite(value) && value >= 0;
+    }
+
+    private static MealPlanParseException invalid(String reason) {
+        return new MealPlanParseException("Invalid meal plan: " + reason, null);
+    }
+
+    private static Schema buildResponseSchema() {
+        Schema item = Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of(
+                        "name", string("Food name"),
+                        "portion", string("Portion size, e.g. 150 g"),
+                        "kcal", number("Energy in kcal"),
+                        "protein", number("Proteins in g"),
+                        "fat", number("Fats in g"),
+                        "carbs", number("Carbohydrates in g")))
+                .propertyOrdering("name", "portion", "kcal", "protein", "fat", "carbs")
+                .required("name", "portion", "kcal", "protein", "fat", "carbs")
+                .build();
+        Schema meal = Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of(
+                        "name", string("Meal name, e.g. breakfast"),
+                        "items", Schema.builder().type(Type.Known.ARRAY).items(item).build()))
+                .propertyOrdering("name", "items")
+                .required("name", "items")
+                .build();
+        Schema day = Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of(
+                        "title", string("Day heading, e.g. Monday"),
+                        "meals", Schema.builder().type(Type.Known.ARRAY).items(meal).build()))
+                .propertyOrdering("title", "meals")
+                .required("title", "meals")
+                .build();
+        return Schema.builder()
+                .type(Type.Known.OBJECT)
+                .properties(Map.of("days", Schema.builder().type(Type.Known.ARRAY).items(day).build()))
+                .required("days")
+                .build();
+    }
+
+    private static Schema string(String description) {
+        return Schema.builder().type(Type.Known.STRING).description(description).build();
+    }
+
+    private static Schema number(String description) {
+        return Schema.builder().type(Type.Known.NUMBER).description(description).minimum(0d).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.MealPlan;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders a {@link MealPlan} as localized Telegram text. All labels and units come from the message bundles,
+ * only food, meal and day names are taken from the plan. Day, meal and plan totals are summed from the items.
+ * Numbers are rounded to whole kcal and grams.
+ */
+@Component
+public class MealPlanRenderer {
+
+    private final LocalizationService localizationService;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param localizationService Service for fetching localized messages based on the user's language.
+     */
+    public MealPlanRenderer(LocalizationService localizationService) {
+        this.localizationService = localizationService;
+    }
+
+    /**
+     * Renders a whole plan: every day, followed by the plan totals if it has more than one day.
+     *
+     * @param plan     The plan to render.
+     * @param language The user's language.
+     * @return The localized text.
+     */
+    public String render(MealPlan plan, Language language) {
+        StringBuilder text = new StringBuilder();
+        for (MealPlan.Day day : plan.days()) {
+            text.append(renderDay(day, language)).append("\n\n");
+        }
+        return text.append(renderSummary(plan, language)).toString();
+    }
+
+    /**
+     * Renders the closing part of a plan: the plan totals if it has more than one day, and the disclaimer.
+     * Used on its own when the days were already sent one by one.
+     *
+     * @param plan     The plan to summarize.
+     * @param language The user's language.
+     * @return The localized summary.
+     */
+    public String renderSummary(MealPlan plan, Language language) {
+        StringBuilder text = new StringBuilder();
+        if (plan.days().size() > 1) {
+            MealPlan.Nutrients total = plan.totals();
+            text.append(localizationService.getTranslation(language, "mealplan.plan_total",
+                    String.valueOf(plan.days().size()), round(total.kcal()),
+                    round(total.protein()), round(total.fat()), round(total.carbs())))
+                    .append("\n\n");
+        }
+        text.append(localizationService.getTranslation(language, "mealplan.disclaimer"));
+        return text.toString();
+    }
+
+    /**
+     * Renders a single day with its meals, items and totals.
+     *
+     * @param day      The day to render.
+     * @param language The user's language.
+     * @return The localized text of the day.
+     */
+    public String renderDay(MealPlan.Day day, Language language) {
+        StringBuilder text = new StringBuilder();
+        if (day.title() != null && !day.title().isBlank()) {
+            text.append(day.title().strip()).append("\n");
+        }
+        for (MealPlan.Meal meal : day.meals()) {
+            text.append("\n").append(localizationService.getTranslation(language, "mealplan.meal",
+                    meal.name().strip(), round(meal.totals().kcal()))).append("\n");
+            for (MealPlan.Item item : meal.items()) {
+                String name = item.portion() == null || item.portion().isBlank()
+                        ? item.name().strip()
+                        : item.name().strip() + ", " + item.portion().strip();
+                text.append(localizationService.getTranslation(language, "mealplan.item",
+                        name, round(item.kcal()), round(item.protein()), round(item.fat()), round(item.carbs())))
+                        .append("\n");
+            }
+        }
+        MealPlan.Nutrients total = day.totals();
+        text.append("\n").append(localizationService.getTranslation(language, "mealplan.day_total",
+                round(total.kcal()), round(total.protein()), round(total.fat()), round(total.carbs())));
+        return text.toString();
+    }
+
+    /**
+     * Rounds a value for display. Passed as a string so MessageFormat does not apply locale grouping.
+     *
+     * @param value The value to round.
+     * @return The rounded value.
+     */
+    private static String round(double value) {
+        return String.valueOf(Math.round(value));
+    }
+}
@@ -1,84 +1,94 @@
 package com.Calorizer.Bot.Service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.Calorizer.Bot.MainBot.Processing.OutboundMessageDispatcher;
 import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service responsible for sending messages to Telegram users.
  * It encapsulates the logic for interacting with the Telegram Bot API's message sending mechanism,
  * providing overloaded methods for convenience and robust error handling.
  * This service also handles splitting long messages into multiple parts to conform to Telegram's limits.
+ *
+ * <p>Messages are not sent on the caller's thread: they are handed to the {@link OutboundMessageDispatcher},
+ * which paces them according to Telegram's flood limits and retries rate-limited calls. All methods return
+ * immediately with a {@link CompletableFuture}; callers that do not need the result can ignore it.
+ * While an update is processed, calls are held by the {@link UpdateUserContext} until the user's changes
+ * were saved.</p>
  */
 @Service
 public class MessageSender {
 
-    private static final Logger logger = LoggerFactory.getLogger(MessageSender.class);
     // Maximum allowed length for a single Telegram message (4096 characters).
     private static final int MAX_MESSAGE_LENGTH = 4096;
-    // Delay between sending consecutive parts of a long message to avoid hitting Telegram's flood limits.
-    private static final long MESSAGE_SEND_DELAY_MS = 50;
+
+    private final OutboundMessageDispatcher outboundDispatcher;
+    private final UpdateUserContext updateUserContext;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param outboundDispatcher Per-chat outbound queue executing the API calls.
+     * @param updateUserContext  Per-update context holding replies until the user's changes were saved.
+     */
+    public MessageSender(OutboundMessageDispatcher outboundDispatcher, UpdateUserContext updateUserContext) {
+        this.outboundDispatcher = outboundDispatcher;
+        this.updateUserContext = updateUserContext;
+    }
 
     /**
      * Sends a simple text message to a specified chat ID.
      * This method automatically handles texts longer than {@link #MAX_MESSAGE_LENGTH}
-     * by splitting them into multiple messages and sending them sequentially with a small delay.
+     * by splitting them into multiple messages. The parts are queued for the same chat,
+     * so they are delivered in order without blocking the caller.
      *
      * @param absSender The {@link AbsSender} instance, which is the bot itself, used to execute API methods.
      * @param chatId    The Telegram chat ID to send the message to.
      * @param text      The text content of the message.
+     * @return A future completed with the last sent {@link Message} once all parts were delivered,
+     *         or exceptionally if any part failed; completed with {@code null} for empty texts.
      */
-    public void sendMessage(AbsSender absSender, Long chatId, String text) {
+    public CompletableFuture<Message> sendMessage(AbsSender absSender, Long chatId, String text) {
         if (text == null || text.isEmpty()) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         if (text.length() <= MAX_MESSAGE_LENGTH) {
             SendMessage message = new SendMessage(String.valueOf(chatId), text);
-            sendMessage(absSender, message);
-        } else {
-
-            List<String> parts = splitMessage(text, MAX_MESSAGE_LENGTH);
-            for (int i = 0; i < parts.size(); i++) {
-                String part = parts.get(i);
-                SendMessage message = new SendMessage(String.valueOf(chatId), part);
-                sendMessage(absSender, message);
+            return sendMessage(absSender, message);
+        }
 
-                if (i < parts.size() - 1) {
-                    try {
-                        Thread.sleep(MESSAGE_SEND_DELAY_MS);
-                    } catch (InterruptedException e) {
-                        logger.warn("Thread interrupted while sending message parts for chat {}: {}", chatId, e.getMessage());
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
+        List<String> parts = splitMessage(text, MAX_MESSAGE_LENGTH);
+        List<CompletableFuture<Message>> sent = new ArrayList<>(parts.size());
+        for (String part : parts) {
+            sent.add(submit(absSender, chatId, new SendMessage(String.valueOf(chatId), part)));
         }
+        CompletableFuture<Message> last = sent.get(sent.size() - 1);
+        return CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0])).thenApply(v -> last.join());
     }
 
     /**
      * Sends a pre-configured {@link SendMessage} object to a user.
      * This overload is useful when the message object contains additional configurations
      * like reply markups, inline keyboards, parse modes, or disables web page preview.
-     * It handles {@link TelegramApiException} internally, logging the error.
+     * Failures are logged by the {@link OutboundMessageDispatcher}.
      *
      * @param absSender The {@link AbsSender} instance, which is the bot itself.
      * @param message   The {@link SendMessage} object fully configured for sending.
+     * @return A future completed with the sent {@link Message}, or exceptionally if sending failed.
      */
-    public void sendMessage(AbsSender absSender, SendMessage message) {
-        try {
-            absSender.execute(message);
-        } catch (TelegramApiException e) {
-            String chatId = message.getChatId() != null ? message.getChatId() : "N/A";
-            logger.error("Error sending configured message to chat {}: {}", chatId, e.getMessage());
-        }
+    public CompletableFuture<Message> sendMessage(AbsSender absSender, SendMessage message) {
+        return submit(absSender, chatKey(message.getChatId()), message);
     }
     /**
      * Helper method to split a long string into smaller parts, trying to break at natural points
@@ -89,7 +99,7 @@ public class MessageSender {
      * @param maxLength The maximum length for each part (excluding any added characters for splitting logic).
      * @return A list of strings, each not exceeding maxLength, representing the split parts of the original text.
      */
-    private List<String> splitMessage(String text, int maxLength) {
+    public static List<String> splitMessage(String text, int maxLength) {
         List<String> parts = new ArrayList<>();
         int currentPos = 0;
         while (currentPos < text.length()) {
@@ -116,17 +126,60 @@ public class MessageSender {
     /**
      * Edits a text message in Telegram.
      * This method is used to update the content or keyboard of an already sent message.
-     * It handles TelegramApiException internally.
+     * The edit is queued behind earlier messages of the same chat. Failures are logged by the
+     * {@link OutboundMessageDispatcher}.
      *
      * @param absSender The AbsSender instance, which is the bot itself.
      * @param editMessage The EditMessageText object configured with the new message state.
+     * @return A future completed with the API result (the edited {@link Message} or {@code true}),
+     *         or exceptionally if editing failed.
+     */
+    public CompletableFuture<Serializable> editMessage(AbsSender absSender, EditMessageText editMessage) {
+        return submit(absSender, chatKey(editMessage.getChatId()), editMessage);
+    }
+
+    /**
+     * Deletes a message the bot sent, e.g. a status message that is no longer needed.
+     * The deletion is queued behind earlier messages of the same chat. Failures are logged by the
+     * {@link OutboundMessageDispatcher}.
+     *
+     * @param absSender The AbsSender instance, which is the bot itself.
+     * @param chatId    The Telegram chat ID of the message.
+     * @param messageId The ID of the message to delete.
+     * @return A future completed with {@code true} once the message was deleted, or exceptionally if deleting failed.
      */
-    public void editMessage(AbsSender absSender, EditMessageText editMessage) {
+    public CompletableFuture<Boolean> deleteMessage(AbsSender absSender, long chatId, int messageId) {
+        return submit(absSender, chatId, new DeleteMessage(String.valueOf(chatId), messageId));
+    }
+
+    /**
+     * Hands an API call to the outbound queue, after the current update's saves if one is being processed.
+     *
+     * @param absSender The AbsSender instance, which is the bot itself.
+     * @param chatId    The outbound queue key of the chat.
+     * @param method    The API method to execute.
+     * @param <T>       The result type of the method.
+     * @return A future completed with the API result.
+     */
+    private <T extends Serializable> CompletableFuture<T> submit(AbsSender absSender, long chatId, BotApiMethod<T> method) {
+        return updateUserContext.sendAfterSave(absSender, () -> outboundDispatcher.submit(absSender, chatId, method));
+    }
+
+    /**
+     * Converts a chat ID string to the key of its outbound queue.
+     * Numeric IDs are used as is; channel usernames (e.g. "@channel") fall back to their hash.
+     *
+     * @param chatId The chat ID as stored in the API method.
+     * @return The outbound queue key.
+     */
+    private long chatKey(String chatId) {
+        if (chatId == null) {
+            return 0L;
+        }
         try {
-            absSender.execute(editMessage);
-        } catch (TelegramApiException e) {
-            String chatId = editMessage.getChatId() != null ? editMessage.getChatId() : "N/A";
-            logger.error("Error editing message to chat {}: {}", chatId, e.getMessage());
+            return Long.parseLong(chatId);
+        } catch (NumberFormatException e) {
+            return chatId.hashCode();
         }
     }
-}
\ No newline at end of file
+}
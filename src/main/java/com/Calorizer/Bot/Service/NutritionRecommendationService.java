@@ -1,26 +1,68 @@
 package com.Calorizer.Bot.Service;
 
+import com.Calorizer.Bot.MainBot.Processing.AiWorkerPool;
+import com.Calorizer.Bot.MainBot.Processing.UserRateLimiter;
 import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.MealPlan;
 import com.Calorizer.Bot.Model.User;
 import com.Calorizer.Bot.Model.UserPhysicalData;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import com.google.genai.Client;
+import com.google.genai.ResponseStream;
 import com.google.genai.errors.ApiException;
+import com.google.genai.types.GenerateContentConfig;
 import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.HttpOptions;
 
 /**
  * Service responsible for generating nutrition recommendations using the Gemini AI API.
  * It constructs a detailed prompt based on user's physical data and goals,
- * handles API communication, response parsing, and implements a cooldown mechanism
- * to prevent excessive API calls.
+ * handles API communication, response parsing, and limits how often each user may call the API
+ * through the {@link UserRateLimiter.Limit#AI} rate limit.
+ * Generated plans are kept in the {@link RecommendationCache}, so requests with the same normalized
+ * inputs are answered from memory without calling the API, and identical requests that arrive while
+ * a call is still running join that call instead of sending another one.
+ * All Gemini calls run through the {@link AiWorkerPool}, which limits how many run at the same time
+ * and starts paid users' calls ahead of free users' calls; when its queue is full, the user gets
+ * a localized "busy" reply instead.
+ * Gemini calls are guarded by the {@link GeminiCircuitBreaker} and limited to its per-call timeout. While the
+ * breaker is open, requests are answered at once with the static recommendation for the user's goal
+ * (see {@link StaticRecommendationService}) instead of waiting for a failing API.
+ *
+ * <p>With {@code ai.streaming.enabled=true} the handlers use {@link #streamNutritionRecommendation},
+ * which returns the text as it is generated, so the first part of a plan reaches the user after
+ * about a second instead of after the whole response.</p>
+ *
+ * <p>With {@code ai.structured-output.enabled=true} Gemini is asked for JSON matching the schema of
+ * {@link MealPlanParser} instead of free text. The answer is parsed into a {@link MealPlan}, checked against the
+ * calculated calorie needs and rendered by the {@link MealPlanRenderer}, so all labels come from the message
+ * bundles and the totals always add up. The cache keeps the JSON. Structured answers are not streamed.</p>
+ *
+ * <p>With {@code ai.week-fan-out.enabled=true} week plans are generated by {@link #streamWeeklyRecommendation}
+ * as one call per day; a few of them run at the same time and they are emitted in day order as they finish.</p>
  */
 @Service
 @PropertySource("application.properties")
@@ -28,30 +70,117 @@ public class NutritionRecommendationService {
 
     private static final Logger log = LoggerFactory.getLogger(NutritionRecommendationService.class);
 
+    /** Relative deviation from the calculated calorie needs above which a structured plan day is logged. */
+    private static final double CALORIE_DEVIATION_TOLERANCE = 0.2;
+
+    /** Duration values sent by the duration selection buttons. */
+    private static final String DAY = "day";
+    private static final String WEEK = "week";
+
+    /** Number of per-day generations a week plan is split into. */
+    private static final int WEEK_DAYS = 7;
+
     private final Client genAiClient;
     private final LocalizationService localizationService;
+    private final RecommendationCache recommendationCache;
+    private final SingleFlight<GenerationKey, String> generationCalls;
+    private final Map<GenerationKey, Set<IntConsumer>> queueListeners = new ConcurrentHashMap<>();
+    private final AiWorkerPool aiWorkerPool;
+    private final GeminiCircuitBreaker circuitBreaker;
+    private final StaticRecommendationService staticRecommendationService;
+    private final UserRateLimiter rateLimiter;
+    private final MealPlanParser mealPlanParser;
+    private final MealPlanRenderer mealPlanRenderer;
+    private final boolean streamingEnabled;
+    private final boolean structuredOutputEnabled;
+    private final boolean weekFanOutEnabled;
+    private final int weekDayRetries;
+    private final Duration weekRetryBackoff;
+    private final int weekParallelDays;
 
     @Value("${ai.model_id}")
     private String MODEL_ID;
 
-    // Map to store the last request time for each user to implement a cooldown.
-    // ConcurrentHashMap is used for thread safety in a multi-user environment.
-    // Cooldown period in milliseconds for AI recommendations (30 seconds).
-    private final Map<Long, Long> lastRequestTime = new ConcurrentHashMap<>();
-    private static final long REQUEST_COOLDOWN_MS = 30 * 1000;
-
     /**
      * Constructs a new NutritionRecommendationService.
      *
      * @param localizationService Service for retrieving localized messages.
+     * @param recommendationCache Cache of generated plans keyed by the normalized prompt inputs.
+     * @param meterRegistry Registry for the request coalescing metrics.
+     * @param aiWorkerPool Pool limiting the number of concurrent Gemini calls.
+     * @param circuitBreaker Circuit breaker guarding the Gemini API.
+     * @param staticRecommendationService Service building the fallback answer while the breaker is open.
+     * @param rateLimiter Per-user rate limiter enforcing the AI request limit.
+     * @param mealPlanParser Parser of structured meal plan answers.
+     * @param mealPlanRenderer Renderer of parsed meal plans.
      * @param apiKey The API key for Google Gemini, injected from application properties.
+     * @param baseUrl Alternative base URL of the Gemini API (e.g. a local stub), empty for the default endpoint.
+     * @param streamingEnabled Whether recommendations are streamed to the user while they are generated.
+     * @param structuredOutputEnabled Whether plans are requested as JSON and rendered from the parsed {@link MealPlan}.
+     * @param weekFanOutEnabled Whether week plans are generated as concurrent per-day calls.
+     * @param weekDayRetries How often a failed day of a week plan is requested again.
+     * @param weekRetryBackoffMs Delay before the first retry of a failed day in milliseconds; doubles with every retry.
+     * @param weekParallelDays How many days of a week plan are generated at the same time, i.e. how many AI workers
+     *                         a week holds; limited to {@link AiWorkerPool#maxWorkersPerCall()}.
      */
     public NutritionRecommendationService(LocalizationService localizationService,
-                                          @Value("${gemini.api.key}") String apiKey) {
+                                          RecommendationCache recommendationCache,
+                                          MeterRegistry meterRegistry,
+                                          AiWorkerPool aiWorkerPool,
+                                          GeminiCircuitBreaker circuitBreaker,
+                                          StaticRecommendationService staticRecommendationService,
+                                          UserRateLimiter rateLimiter,
+                                          MealPlanParser mealPlanParser,
+                                          MealPlanRenderer mealPlanRenderer,
+                                          @Value("${gemini.api.key}") String apiKey,
+                                          @Value("${gemini.base-url:}") String baseUrl,
+                                          @Value("${ai.streaming.enabled:true}") boolean streamingEnabled,
+                                          @Value("${ai.structured-output.enabled:false}") boolean structuredOutputEnabled,
+                                          @Value("${ai.week-fan-out.enabled:true}") boolean weekFanOutEnabled,
+                                          @Value("${bot.ai.week.day-retries:2}") int weekDayRetries,
+                                          @Value("${bot.ai.week.retry-backoff-ms:1000}") long weekRetryBackoffMs,
+                                          @Value("${bot.ai.week.parallel-days:2}") int weekParallelDays) {
         this.localizationService = localizationService;
-        this.genAiClient = Client.builder()
-                .apiKey(apiKey)
-                .build();
+        this.recommendationCache = recommendationCache;
+        this.generationCalls = new SingleFlight<>("gemini_generate", meterRegistry);
+        this.aiWorkerPool = aiWorkerPool;
+        this.circuitBreaker = circuitBreaker;
+        this.staticRecommendationService = staticRecommendationService;
+        this.rateLimiter = rateLimiter;
+        this.mealPlanParser = mealPlanParser;
+        this.mealPlanRenderer = mealPlanRenderer;
+        this.streamingEnabled = streamingEnabled;
+        this.structuredOutputEnabled = structuredOutputEnabled;
+        this.weekFanOutEnabled = weekFanOutEnabled;
+        this.weekDayRetries = weekDayRetries;
+        this.weekRetryBackoff = Duration.ofMillis(weekRetryBackoffMs);
+        this.weekParallelDays = Math.clamp(weekParallelDays, 1, Math.min(WEEK_DAYS, aiWorkerPool.maxWorkersPerCall()));
+        Client.Builder clientBuilder = Client.builder().apiKey(apiKey);
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            clientBuilder.httpOptions(HttpOptions.builder().baseUrl(baseUrl).build());
+        }
+        this.genAiClient = clientBuilder.build();
+    }
+
+    /**
+     * Checks whether recommendations should be requested with {@link #streamNutritionRecommendation}.
+     *
+     * @return {@code true} if streaming is enabled in application.properties and structured output is not,
+     * since a JSON answer can only be rendered once it is complete.
+     */
+    public boolean isStreamingEnabled() {
+        return streamingEnabled && !structuredOutputEnabled;
+    }
+
+    /**
+     * Checks whether recommendations for the given duration should be requested with
+     * {@link #streamWeeklyRecommendation}.
+     *
+     * @param duration The selected duration (e.g. "day", "week").
+     * @return {@code true} for week plans if the fan-out is enabled in application.properties.
+     */
+    public boolean isWeekFanOut(String duration) {
+        return weekFanOutEnabled && WEEK.equals(duration);
     }
 
     /**
@@ -66,7 +195,7 @@ public class NutritionRecommendationService {
      * @param additionalRequirements Any specific additional requirements provided by the user (e.g., dietary preferences not covered by allergens).
      * @return A formatted string representing the prompt for the Gemini AI.
      */
-    private String buildPrompt(User user, String duration, String additionalRequirements) {
+    public String buildPrompt(User user, String duration, String additionalRequirements) {
         StringBuilder prompt = new StringBuilder();
         Language userLanguage = user.getLanguage();
         UserPhysicalData upd = user.getUPD();
@@ -166,90 +295,579 @@ public class NutritionRecommendationService {
         prompt.append(finalGeminiInstruction);
         prompt.append("\n\n");
 
-        prompt.append(localizationService.getTranslation(userLanguage, "recommendation.prompt.output_format_instructions_specific"));
+        prompt.append(localizationService.getTranslation(userLanguage, structuredOutputEnabled
+                ? "recommendation.prompt.output_format_instructions_structured"
+                : "recommendation.prompt.output_format_instructions_specific"));
 
-        log.info("Sending prompt to Gemini for user {}: \n{}", user.getChatId(), prompt);
         return prompt.toString();
     }
 
     /**
      * Requests a nutrition recommendation from the Gemini AI.
-     * This method first checks for a cooldown period to prevent abuse.
-     * It then validates the user's profile completeness before building the prompt
-     * and making the API call. It handles successful responses by parsing the AI's text output,
+     * This method first validates the user's profile completeness and answers from the
+     * {@link RecommendationCache} if a plan for the same normalized inputs was generated before;
+     * cache hits cost no API quota and are therefore not subject to the cooldown.
+     * Otherwise it checks for a cooldown period to prevent abuse before building the prompt
+     * and making the API call. Only successfully generated plans are cached.
+     * Concurrent requests with an identical prompt and the same {@link AiWorkerPool.Priority} share one API call
+     * through {@link SingleFlight}, so a paid request never waits in the free lane behind a free one. Every request
+     * that joined the shared call receives its queue position notices, and each gets its own "busy" or fallback
+     * reply (and refund) if the call is rejected.
+     * It handles successful responses by parsing the AI's text output,
      * and manages various error scenarios (cooldown, incomplete profile, API communication issues, parsing errors).
      *
      * @param user The {@link User} for whom the recommendation is requested.
      * @param duration A string indicating the desired duration of the recommendation (e.g., "for a week").
      * @param additionalRequirements Any extra details or constraints for the recommendation.
+     * @param queuePositionListener Receives the user's position while the request waits for a free AI worker; may be {@code null}.
      * @return A {@link Mono<String>} emitting the AI-generated recommendation text,
-     * or an error message if the request fails or is on cooldown.
+     * or an error message if the request fails, is on cooldown or the AI workers are busy.
      */
-    public Mono<String> getNutritionRecommendation(User user, String duration, String additionalRequirements) {
-        long currentTime = System.currentTimeMillis();
-        Long lastTime = lastRequestTime.get(user.getChatId());
+    public Mono<String> getNutritionRecommendation(User user, String duration, String additionalRequirements,
+                                                   IntConsumer queuePositionListener) {
         Language userLanguage = user.getLanguage();
 
-         if (lastTime != null && (currentTime - lastTime) < REQUEST_COOLDOWN_MS) {
-            long remainingSeconds = (REQUEST_COOLDOWN_MS - (currentTime - lastTime)) / 1000;
-            String cooldownMessage = localizationService.getTranslation(userLanguage, "error.recommendation_cooldown");
-            return Mono.just(cooldownMessage.replace("{0}", String.valueOf(remainingSeconds)));
+        RecommendationCache.Fingerprint fingerprint = fingerprintOf(user, duration, additionalRequirements);
+        Optional<String> immediateReply = precheck(user, fingerprint);
+        if (immediateReply.isPresent()) {
+            return Mono.just(immediateReply.get());
         }
 
-        UserPhysicalData upd = user.getUPD();
-        if (isProfileIncomplete(upd)) {
-            return Mono.just(localizationService.getTranslation(userLanguage, "error.profile_not_complete_for_ai_recommendations"));
+        String prompt = buildPrompt(user, duration, additionalRequirements);
+
+        log.info("Sending prompt to Gemini for user {}: {}", user.getChatId(), prompt);
+        GenerateContentConfig config = structuredOutputEnabled ? mealPlanParser.generationConfig() : null;
+
+        GenerationKey key = new GenerationKey(priorityOf(user), prompt);
+        Mono<String> sharedCall = generationCalls.execute(key, () -> {
+            GeminiCircuitBreaker.Permit permit = circuitBreaker.tryAcquirePermit();
+            if (permit == null) {
+                return Mono.error(new CallNotPermittedException());
+            }
+            return aiWorkerPool.submit(user.getChatId(), key.priority(), () -> Mono.fromCallable(() -> {
+                permit.markStarted();
+                try {
+                    log.info("Requesting Gemini (SDK) for user {}", user.getChatId());
+                    GenerateContentResponse response = genAiClient.models.generateContent(MODEL_ID, prompt, config);
+
+                    var candidates = response.candidates().get();
+
+                    if (candidates == null || candidates.isEmpty()) {
+                        permit.onSuccess();
+                        log.warn("Gemini blocked the request or returned no candidates for user {}. Check safety settings.",
+                                user.getChatId());
+                        return localizationService.getTranslation(userLanguage, "error.ai_generation_failed");
+                    }
+
+                    var firstCandidate = candidates.getFirst();
+
+                    if (firstCandidate.finishReason().isPresent()) {
+                        String reason = firstCandidate.finishReason().get().toString();
+
+                        if (!reason.equalsIgnoreCase("STOP")) {
+                            permit.onSuccess();
+                            log.error("Generation stopped prematurely. Reason: {}", reason);
+                            return localizationService.getTranslation(userLanguage, "error.ai_generation_failed");
+                        }
+                    }
+
+                    String resultText = response.text();
+                    if (resultText == null || resultText.isBlank()) {
+                        throw new RuntimeException("Gemini returned empty text");
+                    }
+
+                    permit.onSuccess();
+                    if (structuredOutputEnabled) {
+                        MealPlan plan;
+                        try {
+                            plan = mealPlanParser.parse(resultText);
+                        } catch (MealPlanParser.MealPlanParseException e) {
+                            log.error("Could not parse structured meal plan for user {}: {}", user.getChatId(), e.getMessage());
+                            return localizationService.getTranslation(userLanguage, "error.ai_generation_failed");
+                        }
+                        logCalorieDeviation(user, plan);
+                        recommendationCache.put(fingerprint, resultText);
+                        return mealPlanRenderer.render(plan, userLanguage);
+                    }
+                    recommendationCache.put(fingerprint, resultText);
+                    return resultText;
+
+                } catch (ApiException e) {
+                    permit.onFailure();
+                    log.error("Gemini API Exception for user {}: {}", user.getChatId(), e.getMessage());
+                    return localizationService.getTranslation(userLanguage, "error.ai_communication_error");
+                } catch (Exception e) {
+                    permit.onFailure();
+                    log.error("Unexpected error during Gemini call for user {}: ", user.getChatId(), e);
+                    return localizationService.getTranslation(userLanguage, "error.generic");
+                }
+            }).subscribeOn(Schedulers.boundedElastic()).timeout(circuitBreaker.getCallTimeout()), position -> notifyWaiting(key, position))
+                    .next()
+                    .onErrorResume(TimeoutException.class, e -> {
+                        permit.onFailure();
+                        log.error("Gemini call for user {} timed out after {}.", user.getChatId(), circuitBreaker.getCallTimeout());
+                        return Mono.just(localizationService.getTranslation(userLanguage, "error.ai_communication_error"));
+                    })
+                    .doFinally(signal -> permit.release());
+        });
+        return withQueueListener(key, queuePositionListener, sharedCall)
+                .onErrorResume(CallNotPermittedException.class, e -> {
+                    rateLimiter.refund(UserRateLimiter.Limit.AI, user.getChatId());
+                    return Mono.just(unavailableReply(user));
+                })
+                .onErrorResume(AiWorkerPool.QueueFullException.class, e -> Mono.just(busyReply(user)));
+    }
+
+    /**
+     * Registers a caller's queue position listener for as long as it waits for a shared generation.
+     *
+     * @param key The key of the shared generation.
+     * @param listener The caller's listener; may be {@code null}.
+     * @param sharedCall The shared generation.
+     * @return The shared generation, with the listener registered while it is subscribed.
+     */
+    private Mono<String> withQueueListener(GenerationKey key, IntConsumer listener, Mono<String> sharedCall) {
+        if (listener == null) {
+            return sharedCall;
+        }
+        return Mono.defer(() -> {
+            queueListeners.compute(key, (k, listeners) -> {
+                Set<IntConsumer> registered = listeners == null ? new CopyOnWriteArraySet<>() : listeners;
+                registered.add(listener);
+                return registered;
+            });
+            return sharedCall.doFinally(signal -> queueListeners.computeIfPresent(key, (k, listeners) -> {
+                listeners.remove(listener);
+                return listeners.isEmpty() ? null : listeners;
+            }));
+        });
+    }
+
+    /**
+     * Forwards the queue position of a shared generation to every caller waiting for it.
+     *
+     * @param key The key of the shared generation.
+     * @param position The 1-based queue position.
+     */
+    private void notifyWaiting(GenerationKey key, int position) {
+        Set<IntConsumer> listeners = queueListeners.get(key);
+        if (listeners == null) {
+            return;
+        }
+        for (IntConsumer listener : listeners) {
+            try {
+                listener.accept(position);
+            } catch (RuntimeException e) {
+                log.warn("Failed to notify a caller about queue position {}: {}", position, e.getMessage());
+            }
         }
+    }
+
+    /**
+     * Requests a nutrition recommendation from the Gemini AI through the streaming API.
+     * Performs the same profile, cache and cooldown checks as {@link #getNutritionRecommendation}; their answers
+     * are emitted as a single element. Otherwise every non-empty text delta of the response is emitted as soon as
+     * it arrives. If generation fails, the localized error message is emitted as the last element instead of an
+     * error signal. The complete text is cached only if generation finished normally.
+     * Streamed requests are not coalesced with concurrent identical requests.
+     *
+     * @param user The {@link User} for whom the recommendation is requested.
+     * @param duration A string indicating the desired duration of the recommendation (e.g., "for a week").
+     * @param additionalRequirements Any extra details or constraints for the recommendation.
+     * @param queuePositionListener Receives the user's position while the request waits for a free AI worker; may be {@code null}.
+     * @return A {@link Flux} of text parts which, concatenated, form the recommendation or the error message.
+     */
+    public Flux<String> streamNutritionRecommendation(User user, String duration, String additionalRequirements,
+                                                      IntConsumer queuePositionListener) {
+        Language userLanguage = user.getLanguage();
 
-        lastRequestTime.put(user.getChatId(), currentTime);
+        RecommendationCache.Fingerprint fingerprint = fingerprintOf(user, duration, additionalRequirements);
+        Optional<String> immediateReply = precheck(user, fingerprint);
+        if (immediateReply.isPresent()) {
+            return Flux.just(immediateReply.get());
+        }
 
         String prompt = buildPrompt(user, duration, additionalRequirements);
+        log.info("Streaming prompt to Gemini for user {}: {}", user.getChatId(), prompt);
 
-        log.info("Sending prompt to Gemini for user {}: {}", user.getChatId(), prompt);
+        return Flux.defer(() -> {
+            GeminiCircuitBreaker.Permit permit = circuitBreaker.tryAcquirePermit();
+            if (permit == null) {
+                rateLimiter.refund(UserRateLimiter.Limit.AI, user.getChatId());
+                return Flux.just(unavailableReply(user));
+            }
+            StringBuilder fullText = new StringBuilder();
+            return aiWorkerPool.submit(user.getChatId(), priorityOf(user), () -> Flux.using(
+                            () -> {
+                                permit.markStarted();
+                                return genAiClient.models.generateContentStream(MODEL_ID, prompt, null);
+                            },
+                            Flux::fromIterable,
+                            ResponseStream::close)
+                            .timeout(circuitBreaker.getCallTimeout()), queuePositionListener)
+                    .<String>handle((response, sink) -> {
+                        String text = response.text();
+                        if (text != null && !text.isEmpty()) {
+                            sink.next(text);
+                        }
+                        String reason = finishReason(response);
+                        if (reason != null && !reason.equalsIgnoreCase("STOP")) {
+                            sink.error(new GenerationStoppedException(reason));
+                        }
+                    })
+                    .doOnNext(part -> {
+                        permit.markResponded();
+                        fullText.append(part);
+                    })
+                    .doOnComplete(() -> {
+                        if (fullText.isEmpty()) {
+                            throw new GenerationStoppedException("empty response");
+                        }
+                        permit.onSuccess();
+                        recommendationCache.put(fingerprint, fullText.toString());
+                    })
+                    .onErrorResume(e -> {
+                        if (e instanceof AiWorkerPool.QueueFullException) {
+                            return Flux.just(busyReply(user));
+                        }
+                        String errorKey;
+                        if (e instanceof GenerationStoppedException) {
+                            permit.onSuccess();
+                            log.error("Streamed generation for user {} stopped prematurely. Reason: {}", user.getChatId(), e.getMessage());
+                            errorKey = "error.ai_generation_failed";
+                        } else if (e instanceof ApiException || e instanceof TimeoutException) {
+                            permit.onFailure();
+                            log.error("Gemini API Exception while streaming for user {}: {}", user.getChatId(), e.getMessage());
+                            errorKey = "error.ai_communication_error";
+                        } else {
+                            permit.onFailure();
+                            log.error("Unexpected error while streaming Gemini response for user {}: ", user.getChatId(), e);
+                            errorKey = "error.generic";
+                        }
+                        String errorText = localizationService.getTranslation(userLanguage, errorKey);
+                        return Flux.just(fullText.isEmpty() ? errorText : "\n\n" + errorText);
+                    })
+                    .doFinally(signal -> permit.release());
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
 
-        return Mono.fromCallable(() -> {
-            try {
-                log.info("Requesting Gemini (SDK) for user {}", user.getChatId());
-                GenerateContentResponse response = genAiClient.models.generateContent(
-                        MODEL_ID,
-                        prompt
-                        , null
-                );
-
-                var candidates = response.candidates().get();
-
-                if (candidates == null || candidates.isEmpty()) {
-                    log.warn("Gemini blocked the request or returned no candidates for user {}. Check safety settings.",
-                            user.getChatId());
-                    return localizationService.getTranslation(userLanguage, "error.ai_generation_failed");
-                }
+    /**
+     * Generates a week plan as {@value #WEEK_DAYS} per-day generations instead of one long call, so a week takes
+     * about as long as a single day. Every day shares the prompt built for a one-day plan and only adds which day
+     * of the week it is, so all days are based on the same profile and calorie needs.
+     * The week is admitted by the {@link AiWorkerPool} once, as a single call holding {@code bot.ai.week.parallel-days}
+     * workers, so one week cannot occupy the whole pool or take several queue slots. Inside it, that many days run
+     * at the same time, each with its own circuit breaker permit, and are emitted in day order as soon as they and
+     * all earlier days are done. If the pool rejects the week, the user gets the "busy" reply and the request is
+     * refunded. A failed day is requested again up to
+     * {@code bot.ai.week.day-retries} times with exponential backoff; if it still fails, a localized notice is
+     * emitted in its place and the other days are kept.
+     * Profile, cache, circuit breaker and cooldown checks are the same as in {@link #getNutritionRecommendation},
+     * and a week costs one AI request of the user's rate limit. The week is cached only if every day succeeded;
+     * if none did, the request is refunded.
+     *
+     * @param user The {@link User} for whom the recommendation is requested.
+     * @param additionalRequirements Any extra details or constraints for the recommendation.
+     * @param queuePositionListener Receives the user's position while the week waits for free AI workers; may be {@code null}.
+     * @return A {@link Flux} of text parts which, concatenated, form the week plan or the error message.
+     */
+    public Flux<String> streamWeeklyRecommendation(User user, String additionalRequirements,
+                                                   IntConsumer queuePositionListener) {
+        Language userLanguage = user.getLanguage();
 
-                var firstCandidate = candidates.getFirst();
+        RecommendationCache.Fingerprint fingerprint = fingerprintOf(user, WEEK, additionalRequirements);
+        Optional<String> immediateReply = precheck(user, fingerprint);
+        if (immediateReply.isPresent()) {
+            return Flux.just(immediateReply.get());
+        }
 
-                if (firstCandidate.finishReason().isPresent()) {
-                    String reason = firstCandidate.finishReason().get().toString();
+        String sharedPrompt = buildPrompt(user, DAY, additionalRequirements);
+        log.info("Generating week plan for user {} as {} day calls: {}", user.getChatId(), WEEK_DAYS, sharedPrompt);
+
+        String[] dayTexts = new String[WEEK_DAYS];
+        MealPlan.Day[] planDays = new MealPlan.Day[WEEK_DAYS];
+        AtomicInteger failedDays = new AtomicInteger();
+        List<Mono<String>> days = new ArrayList<>(WEEK_DAYS);
+        for (int day = 1; day <= WEEK_DAYS; day++) {
+            int index = day - 1;
+            String dayNumber = String.valueOf(day);
+            String prompt = sharedPrompt + "\n\n" + localizationService.getTranslation(userLanguage,
+                    "recommendation.prompt.week_day_part", dayNumber, String.valueOf(WEEK_DAYS));
+            days.add(generateWeekDay(user, prompt)
+                    .map(text -> {
+                        if (!structuredOutputEnabled) {
+                            return text.strip();
+                        }
+                        planDays[index] = mealPlanParser.parse(text).days().getFirst();
+                        return mealPlanRenderer.renderDay(planDays[index], userLanguage);
+                    })
+                    .retryWhen(Retry.backoff(weekDayRetries, weekRetryBackoff)
+                            .filter(NutritionRecommendationService::isRetryable)
+                            .doBeforeRetry(signal -> log.warn("Retrying day {} of week plan for user {} after: {}",
+                                    dayNumber, user.getChatId(), signal.failure().toString())))
+                    .doOnNext(text -> dayTexts[index] = text)
+                    .onErrorResume(e -> {
+                        failedDays.incrementAndGet();
+                        log.error("Day {} of week plan for user {} failed: {}", dayNumber, user.getChatId(), e.toString());
+                        return Mono.just(localizationService.getTranslation(userLanguage, "recommendation.week.day_failed", dayNumber));
+                    }));
+        }
 
-                    if (!reason.equalsIgnoreCase("STOP")) {
-                        log.error("Generation stopped prematurely. Reason: {}", reason);
-                        return localizationService.getTranslation(userLanguage, "error.ai_generation_failed");
+        return aiWorkerPool.submit(user.getChatId(), priorityOf(user), weekParallelDays,
+                        () -> Flux.mergeSequential(days, weekParallelDays, 1), queuePositionListener)
+                .index((position, text) -> position == 0 ? text : "\n\n" + text)
+                .concatWith(Flux.defer(() -> {
+                    if (failedDays.get() == WEEK_DAYS) {
+                        rateLimiter.refund(UserRateLimiter.Limit.AI, user.getChatId());
+                        return Flux.empty();
                     }
-                }
+                    if (failedDays.get() > 0) {
+                        return Flux.empty();
+                    }
+                    if (!structuredOutputEnabled) {
+                        recommendationCache.put(fingerprint, String.join("\n\n", dayTexts));
+                        return Flux.empty();
+                    }
+                    MealPlan plan = new MealPlan(Arrays.asList(planDays));
+                    logCalorieDeviation(user, plan);
+                    recommendationCache.put(fingerprint, mealPlanParser.toJson(plan));
+                    return Flux.just("\n\n" + mealPlanRenderer.renderSummary(plan, userLanguage));
+                }))
+                .onErrorResume(AiWorkerPool.QueueFullException.class, e -> Flux.just(busyReply(user)));
+    }
 
-                String resultText = response.text();
-                if (resultText == null || resultText.isBlank()) {
-                    throw new RuntimeException("Gemini returned empty text");
-                }
+    /**
+     * Runs one day of a week plan under its own circuit breaker permit, on one of the workers the week holds.
+     * Unlike the single-plan paths, every failure is signalled as an error so the day can be retried on its own.
+     *
+     * @param user The requesting {@link User}.
+     * @param prompt The prompt for this day.
+     * @return A {@link Mono} emitting the generated text of the day.
+     */
+    private Mono<String> generateWeekDay(User user, String prompt) {
+        GenerateContentConfig config = structuredOutputEnabled ? mealPlanParser.generationConfig() : null;
+        return Mono.defer(() -> {
+            GeminiCircuitBreaker.Permit permit = circuitBreaker.tryAcquirePermit();
+            if (permit == null) {
+                return Mono.error(new CallNotPermittedException());
+            }
+            return Mono.fromCallable(() -> {
+                        permit.markStarted();
+                        GenerateContentResponse response = genAiClient.models.generateContent(MODEL_ID, prompt, config);
+                        String reason = finishReason(response);
+                        if (reason != null && !reason.equalsIgnoreCase("STOP")) {
+                            throw new GenerationStoppedException(reason);
+                        }
+                        String text = response.text();
+                        if (text == null || text.isBlank()) {
+                            throw new GenerationStoppedException("empty response");
+                        }
+                        return text;
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .timeout(circuitBreaker.getCallTimeout())
+                    .doOnNext(text -> permit.onSuccess())
+                    .doOnError(e -> {
+                        if (e instanceof GenerationStoppedException) {
+                            permit.onSuccess();
+                        } else {
+                            permit.onFailure();
+                        }
+                    })
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    /**
+     * Checks whether a failed day of a week plan should be requested again. Requests rejected by an open circuit
+     * breaker are not retried, since retrying would only add load.
+     *
+     * @param error The failure of the day.
+     * @return {@code true} if the day should be retried.
+     */
+    private static boolean isRetryable(Throwable error) {
+        return !(error instanceof CallNotPermittedException);
+    }
+
+    /**
+     * Returns the finish reason of the first candidate of a (partial) response.
+     *
+     * @param response A response or response chunk from Gemini.
+     * @return The finish reason, or {@code null} if the generation is not finished yet.
+     */
+    private String finishReason(GenerateContentResponse response) {
+        return response.candidates()
+                .filter(candidates -> !candidates.isEmpty())
+                .flatMap(candidates -> candidates.getFirst().finishReason())
+                .map(Object::toString)
+                .orElse(null);
+    }
 
-                return resultText;
+    /**
+     * Computes the cache fingerprint of a request.
+     *
+     * @param user The requesting {@link User}.
+     * @param duration The requested duration.
+     * @param additionalRequirements The user's additional requirements.
+     * @return The fingerprint, or {@code null} if the user's profile is incomplete and no plan can be requested.
+     */
+    private RecommendationCache.Fingerprint fingerprintOf(User user, String duration, String additionalRequirements) {
+        if (isProfileIncomplete(user.getUPD())) {
+            return null;
+        }
+        return recommendationCache.fingerprint(user, duration, additionalRequirements);
+    }
 
-            } catch (ApiException e) {
-                log.error("Gemini API Exception for user {}: {}", user.getChatId(), e.getMessage());
-                return localizationService.getTranslation(userLanguage, "error.ai_communication_error");
-            } catch (Exception e) {
-                log.error("Unexpected error during Gemini call for user {}: ", user.getChatId(), e);
-                return localizationService.getTranslation(userLanguage, "error.generic");
+    /**
+     * Runs the checks every entry point makes before a new generation, in this order: profile completeness,
+     * {@link RecommendationCache} lookup, {@link GeminiCircuitBreaker} state and the user's AI cooldown.
+     * Cache hits are answered before the cooldown is checked, since they cost no API quota.
+     *
+     * @param user The requesting {@link User}.
+     * @param fingerprint The request's fingerprint from {@link #fingerprintOf}; {@code null} for an incomplete profile.
+     * @return The reply to send instead of generating, or empty if a new generation may start.
+     */
+    private Optional<String> precheck(User user, RecommendationCache.Fingerprint fingerprint) {
+        Language userLanguage = user.getLanguage();
+        if (fingerprint == null) {
+            return Optional.of(localizationService.getTranslation(userLanguage, "error.profile_not_complete_for_ai_recommendations"));
+        }
+
+        Optional<String> cached = recommendationCache.get(fingerprint);
+        if (cached.isPresent()) {
+            log.info("Answering recommendation request of user {} from cache.", user.getChatId());
+            return Optional.of(renderCached(cached.get(), userLanguage));
+        }
+
+        if (!circuitBreaker.isCallPermitted()) {
+            return Optional.of(unavailableReply(user));
+        }
+
+        return Optional.ofNullable(checkCooldown(user));
+    }
+
+    /**
+     * Turns a cached answer into the text shown to the user. In structured-output mode the cache holds the JSON
+     * of the plan, which is rendered again in the requested language; free-text answers are returned as they are.
+     *
+     * @param cachedText The cached answer.
+     * @param language   The user's language.
+     * @return The text to send.
+     */
+    private String renderCached(String cachedText, Language language) {
+        if (!structuredOutputEnabled) {
+            return cachedText;
+        }
+        try {
+            return mealPlanRenderer.render(mealPlanParser.parse(cachedText), language);
+        } catch (MealPlanParser.MealPlanParseException e) {
+            return cachedText;
+        }
+    }
+
+    /**
+     * Logs a warning for every day of a structured plan whose calories are more than
+     * {@value #CALORIE_DEVIATION_TOLERANCE} outside the range of the user's calculated daily needs.
+     *
+     * @param user The requesting {@link User}.
+     * @param plan The parsed plan.
+     */
+    private void logCalorieDeviation(User user, MealPlan plan) {
+        UserPhysicalData upd = user.getUPD();
+        Map<String, Double> needs = new FullReportByMethods(upd.getSex(), upd.getWeight(), upd.getHeight(), upd.getAge(),
+                upd.getBodyFatPercent(), upd.getPhysicalActivityLevel(), upd.getMaingoal()).getResults();
+        double min = needs.values().stream().mapToDouble(Double::doubleValue).min().orElse(0);
+        double max = needs.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        if (max <= 0) {
+            return;
+        }
+        for (MealPlan.Day day : plan.days()) {
+            double kcal = day.totals().kcal();
+            if (kcal < min * (1 - CALORIE_DEVIATION_TOLERANCE) || kcal > max * (1 + CALORIE_DEVIATION_TOLERANCE)) {
+                log.warn("Structured plan day '{}' for user {} has {} kcal, calculated needs are {}-{} kcal.",
+                        day.title(), user.getChatId(), Math.round(kcal), Math.round(min), Math.round(max));
             }
-        }).subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic());
+        }
+    }
+
+    /**
+     * Returns the {@link AiWorkerPool} priority of the user's requests.
+     *
+     * @param user The requesting {@link User}.
+     * @return {@link AiWorkerPool.Priority#PAID} for paid accounts, otherwise {@link AiWorkerPool.Priority#FREE}.
+     */
+    private static AiWorkerPool.Priority priorityOf(User user) {
+        return user.isPayedAcc() ? AiWorkerPool.Priority.PAID : AiWorkerPool.Priority.FREE;
+    }
+
+    /**
+     * Builds the reply for a request rejected by the {@link AiWorkerPool}. The rejected request does not count
+     * towards the user's cooldown, so the user may retry as soon as the bot is less busy.
+     *
+     * @param user The requesting {@link User}.
+     * @return The localized "busy" message.
+     */
+    private String busyReply(User user) {
+        rateLimiter.refund(UserRateLimiter.Limit.AI, user.getChatId());
+        return localizationService.getTranslation(user.getLanguage(), "error.ai_busy");
+    }
+
+    /**
+     * Builds the reply for a request made while the {@link GeminiCircuitBreaker} is open: a short notice followed
+     * by the static recommendation for the user's goal. It does not refund the user's AI token: callers that took
+     * one before the breaker rejected the call refund it themselves, while {@link #precheck} answers before any
+     * token is taken.
+     *
+     * @param user The requesting {@link User}.
+     * @return The localized fallback answer.
+     */
+    private String unavailableReply(User user) {
+        return localizationService.getTranslation(user.getLanguage(), "error.ai_unavailable_fallback")
+                + "\n\n" + staticRecommendationService.getRecommendation(user);
+    }
+
+    /**
+     * Takes a token from the user's {@link UserRateLimiter.Limit#AI} bucket.
+     *
+     * @param user The requesting {@link User}.
+     * @return The localized cooldown message, or {@code null} if the request may proceed.
+     */
+    private String checkCooldown(User user) {
+        long waitNanos = rateLimiter.tryAcquire(UserRateLimiter.Limit.AI, user.getChatId());
+        if (waitNanos == 0) {
+            return null;
+        }
+        long remainingSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        String cooldownMessage = localizationService.getTranslation(user.getLanguage(), "error.recommendation_cooldown");
+        return cooldownMessage.replace("{0}", String.valueOf(remainingSeconds));
+    }
+
+    /**
+     * Signals that Gemini ended a streamed generation without finishing the text.
+     */
+    private static final class GenerationStoppedException extends RuntimeException {
+        private GenerationStoppedException(String reason) {
+            super(reason);
+        }
+    }
+
+    /**
+     * Key of coalesced generations: identical prompts are only shared within the same priority class, so every
+     * caller waits in its own lane of the {@link AiWorkerPool}.
+     *
+     * @param priority The priority class of the callers.
+     * @param prompt The prompt sent to Gemini.
+     */
+    private record GenerationKey(AiWorkerPool.Priority priority, String prompt) {
+    }
+
+    /**
+     * Signals that the circuit breaker did not permit a Gemini call.
+     */
+    private static final class CallNotPermittedException extends RuntimeException {
+        private CallNotPermittedException() {
+            super("circuit breaker open");
+        }
     }
 
     /**
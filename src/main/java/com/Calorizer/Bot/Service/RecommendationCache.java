@@ -0,0 +1,199 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.Allergen;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process cache of Gemini nutrition plans, keyed by a normalized {@link Fingerprint} of the prompt inputs.
+ * Many users share language, sex, goal and activity level and have similar calorie targets, so a plan generated
+ * for one of them is served to the others without another API call.
+ *
+ * <p>The fingerprint contains the {@link FullReportByMethods} results rounded to a configurable step instead of
+ * the raw body measurements, so profiles that differ by a few kilograms or centimeters share an entry.
+ * Cached texts are stored GZIP-compressed; the cache is bounded by the total compressed size and entries expire
+ * a fixed time after they were written. Hit, miss and eviction counters are published as {@code cache.*} metrics
+ * with the tag {@code cache=recommendations}, together with the gauges {@code bot.recommendations.cache.hit.ratio}
+ * and {@code bot.recommendations.cache.bytes}.</p>
+ *
+ * <p>The cache can be switched off with {@code bot.recommendation-cache.enabled=false}.</p>
+ */
+@Component
+public class RecommendationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationCache.class);
+
+    /**
+     * Normalized inputs of a nutrition plan prompt. Two requests with equal fingerprints get the same plan.
+     *
+     * @param language               The language of the plan.
+     * @param sex                    The user's sex.
+     * @param goal                   The user's main goal.
+     * @param activityLevel          The user's physical activity level.
+     * @param quantizedCalories      The calorie results of all methods, ordered by method name and rounded to the step.
+     * @param allergens              The user's allergens, independent of their order.
+     * @param duration               The normalized plan duration.
+     * @param additionalRequirements The normalized additional requirements, empty if none.
+     */
+    public record Fingerprint(Language language, Sex sex, MainGoal goal, PhysicalActivityLevel activityLevel,
+                              List<Long> quantizedCalories, Set<Allergen> allergens,
+                              String duration, String additionalRequirements) {
+    }
+
+    private final Cache<Fingerprint, byte[]> cache;
+    private final double calorieStep;
+
+    /**
+     * Constructs the cache and registers its metrics.
+     *
+     * @param meterRegistry Registry for hit, miss, eviction and size metrics.
+     * @param enabled       Whether caching is enabled, configured in application.properties.
+     * @param maxBytes      Maximum total size of the compressed cached texts in bytes.
+     * @param ttlMinutes    Minutes after which a cached plan expires.
+     * @param calorieStep   Step in kcal to which calorie results are rounded for the fingerprint.
+     */
+    public RecommendationCache(MeterRegistry meterRegistry,
+                               @Value("${bot.recommendation-cache.enabled:true}") boolean enabled,
+                               @Value("${bot.recommendation-cache.max-bytes:33554432}") long maxBytes,
+                               @Value("${bot.recommendation-cache.ttl-minutes:1440}") long ttlMinutes,
+                               @Value("${bot.recommendation-cache.calorie-step:50}") double calorieStep) {
+        this.calorieStep = calorieStep;
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(maxBytes)
+                    .weigher((Fingerprint key, byte[] value) -> value.length)
+                    .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "recommendations");
+            Gauge.builder("bot.recommendations.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .description("Share of recommendation requests answered from the cache").register(meterRegistry);
+            Gauge.builder("bot.recommendations.cache.bytes", cache,
+                            c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                    .description("Compressed size of the cached recommendations in bytes").register(meterRegistry);
+            logger.info("Recommendation cache enabled (max {} bytes, TTL {} min, calorie step {} kcal).",
+                    maxBytes, ttlMinutes, calorieStep);
+        } else {
+            this.cache = null;
+            logger.info("Recommendation cache disabled, every request is sent to Gemini.");
+        }
+    }
+
+    /**
+     * Builds the fingerprint of a recommendation request.
+     *
+     * @param user                   The user with a complete {@link UserPhysicalData} profile.
+     * @param duration               The requested plan duration.
+     * @param additionalRequirements The user's additional requirements, may be {@code null}.
+     * @return The normalized fingerprint.
+     */
+    public Fingerprint fingerprint(User user, String duration, String additionalRequirements) {
+        UserPhysicalData upd = user.getUPD();
+        Map<String, Double> results = new FullReportByMethods(
+                upd.getSex(),
+                upd.getWeight(),
+                upd.getHeight(),
+                upd.getAge(),
+                upd.getBodyFatPercent(),
+                upd.getPhysicalActivityLevel(),
+                upd.getMaingoal()
+        ).getResults();
+
+        List<Long> quantizedCalories = new ArrayList<>(results.size());
+        for (Double calories : new TreeMap<>(results).values()) {
+            quantizedCalories.add(Math.round(calories / calorieStep));
+        }
+        Set<Allergen> allergens = upd.getAllergens() == null ? Set.of() : Set.copyOf(upd.getAllergens());
+
+        return new Fingerprint(user.getLanguage(), upd.getSex(), upd.getMaingoal(), upd.getPhysicalActivityLevel(),
+                List.copyOf(quantizedCalories), allergens,
+                normalize(duration), normalize(additionalRequirements));
+    }
+
+    /**
+     * Returns the cached plan for a fingerprint.
+     *
+     * @param fingerprint The fingerprint of the request.
+     * @return An {@link Optional} with the plan text, or empty on a miss or if the cache is disabled.
+     */
+    public Optional<String> get(Fingerprint fingerprint) {
+        if (cache == null) {
+            return Optional.empty();
+        }
+        byte[] compressed = cache.getIfPresent(fingerprint);
+        return compressed == null ? Optional.empty() : Optional.of(decompress(compressed));
+    }
+
+    /**
+     * Caches a successfully generated plan. Error messages must not be cached.
+     *
+     * @param fingerprint The fingerprint of the request.
+     * @param text        The generated plan text.
+     */
+    public void put(Fingerprint fingerprint, String text) {
+        if (cache != null) {
+            cache.put(fingerprint, compress(text));
+        }
+    }
+
+    /**
+     * Normalizes free text for the fingerprint: trimmed, lower case, single spaces, without trailing punctuation.
+     *
+     * @param text The text, may be {@code null}.
+     * @return The normalized text, empty for {@code null}.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.replaceAll("[\\p{Punct}\\s]+$", "");
+    }
+
+    private static byte[] compress(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length() / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.Calorizer.Bot.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical asynchronous calls: while a call for a key is in flight, further requests
+ * for the same key subscribe to the same shared {@link Mono} instead of starting another call.
+ * The key is removed as soon as the call terminates, so later requests start a fresh call.
+ * The shared call is cancelled once every request that joined it has cancelled, so a call nobody waits for
+ * any more does not keep running.
+ *
+ * <p>Metrics (tagged with {@code call}): counters {@code bot.singleflight.calls} (upstream calls started)
+ * and {@code bot.singleflight.coalesced} (requests that joined an in-flight call, i.e. upstream calls saved),
+ * and gauge {@code bot.singleflight.inflight}.</p>
+ *
+ * @param <K> The type of the call key.
+ * @param <V> The type of the call result.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstreamCalls;
+    private final Counter coalescedCalls;
+
+    /**
+     * Constructs a single-flight group and registers its metrics.
+     *
+     * @param callName      Name of the coalesced call, used as the {@code call} metric tag.
+     * @param meterRegistry Registry for the metrics.
+     */
+    public SingleFlight(String callName, MeterRegistry meterRegistry) {
+        this.upstreamCalls = Counter.builder("bot.singleflight.calls").tag("call", callName)
+                .description("Upstream calls started").register(meterRegistry);
+        this.coalescedCalls = Counter.builder("bot.singleflight.coalesced").tag("call", callName)
+                .description("Requests served by an already running identical call").register(meterRegistry);
+        Gauge.builder("bot.singleflight.inflight", inFlight, Map::size).tag("call", callName)
+                .description("Distinct calls currently in flight").register(meterRegistry);
+    }
+
+    /**
+     * Returns the in-flight call for the key, or starts one with the given supplier.
+     * The upstream call is subscribed once, on the first subscription to the returned {@link Mono};
+     * its result (or error) is replayed to every subscriber of the shared call. If all subscribers cancel before
+     * the call terminates, the upstream call is cancelled too.
+     *
+     * @param key  The key identifying identical calls.
+     * @param call Supplier of the upstream call, invoked only if no call for the key is in flight.
+     * @return The shared call.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        boolean[] started = new boolean[1];
+        Mono<V> shared = inFlight.computeIfAbsent(key, k -> {
+            started[0] = true;
+            return Mono.defer(call)
+                    .doFinally(signal -> inFlight.remove(k))
+                    .flux()
+                    .replay(1)
+                    .refCount()
+                    .singleOrEmpty();
+        });
+        if (started[0]) {
+            upstreamCalls.increment();
+        } else {
+            coalescedCalls.increment();
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the number of distinct calls currently in flight.
+     *
+     * @return The number of in-flight keys.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,68 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the static recommendation for a user's main goal from the localized
+ * {@code enum.goal.*.recommendation_static} texts. It is sent for "/recommendation_static"
+ * and used as the fallback answer while the AI recommendation service is unavailable.
+ */
+@Service
+public class StaticRecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticRecommendationService.class);
+
+    private final LocalizationService localizationService;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param localizationService Service for fetching localized messages based on the user's language.
+     */
+    public StaticRecommendationService(LocalizationService localizationService) {
+        this.localizationService = localizationService;
+    }
+
+    /**
+     * Checks whether the user's profile has the main goal the static recommendation is based on.
+     *
+     * @param user The {@link User} to check.
+     * @return {@code true} if a main goal is set.
+     */
+    public boolean hasRecommendation(User user) {
+        UserPhysicalData upd = user.getUPD();
+        return upd != null && upd.getMaingoal() != null;
+    }
+
+    /**
+     * Builds the static recommendation for the user's main goal: the translated goal name followed by
+     * the goal's recommendation text, or the generic fallback text if the translation is missing.
+     * If the main goal is not set, the "profile not complete" message is returned instead.
+     *
+     * @param user The {@link User} to build the recommendation for.
+     * @return The localized recommendation text.
+     */
+    public String getRecommendation(User user) {
+        if (!hasRecommendation(user)) {
+            return localizationService.getTranslation(user.getLanguage(), "error.profile_not_complete_for_recommendations");
+        }
+        MainGoal userGoal = user.getUPD().getMaingoal();
+
+        String goalNameKey = "enum.goal." + userGoal.name().toLowerCase();
+        String translatedGoalName = localizationService.getTranslation(user.getLanguage(), goalNameKey);
+
+        String recommendationKey = "enum.goal." + userGoal.name().toLowerCase() + ".recommendation_static";
+        String recommendationText = localizationService.getTranslation(user.getLanguage(), recommendationKey);
+
+        if (!recommendationText.isEmpty() && !recommendationText.equals(recommendationKey)) {
+            return translatedGoalName + "\n\n" + recommendationText;
+        }
+        logger.warn("Missing static recommendation translation for goal '{}' and language '{}'. Using fallback.", userGoal.name(), user.getLanguage());
+        return localizationService.getTranslation(user.getLanguage(), "recommendation.static.fallback");
+    }
+}
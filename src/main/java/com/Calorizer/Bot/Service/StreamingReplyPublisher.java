@@ -0,0 +1,203 @@
+package com.Calorizer.Bot.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a text that is still being generated (e.g. a streamed Gemini response) to a chat.
+ * A placeholder message is sent right away and then edited through {@link MessageSender#editMessage}
+ * as new text arrives. Edits of one message are sent one after another and at most once per configured
+ * interval, which keeps the bot within Telegram's edit limits. When the text of a message would exceed
+ * Telegram's 4096 character limit, the message is finished at a natural break
+ * (see {@link MessageSender#splitMessage}) and the rest continues in a new message.
+ */
+@Service
+public class StreamingReplyPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingReplyPublisher.class);
+
+    // Maximum allowed length for a single Telegram message (4096 characters).
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+
+    private final MessageSender messageSender;
+    private final long editIntervalNanos;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs the publisher and its edit scheduler.
+     *
+     * @param messageSender  Service sending and editing the messages.
+     * @param editIntervalMs Minimum time between two edits of the same message in milliseconds.
+     */
+    public StreamingReplyPublisher(MessageSender messageSender,
+                                   @Value("${bot.streaming.edit-interval-ms:1000}") long editIntervalMs) {
+        this.messageSender = messageSender;
+        this.editIntervalNanos = TimeUnit.MILLISECONDS.toNanos(editIntervalMs);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("streaming-edit-scheduler").daemon(true).factory());
+    }
+
+    /**
+     * Sends the placeholder and starts publishing the text parts into it.
+     *
+     * @param absSender   The {@link AbsSender} instance, which is the bot itself.
+     * @param chatId      The Telegram chat ID to publish to.
+     * @param placeholder The text shown until the first part arrives.
+     * @param parts       The text parts; their concatenation is the final text.
+     * @return The subscription to {@code parts}; disposing it stops publishing, leaving the text published so far.
+     */
+    public Disposable publish(AbsSender absSender, long chatId, String placeholder, Flux<String> parts) {
+        StreamingReply reply = new StreamingReply(absSender, chatId, placeholder);
+        return parts.subscribe(reply::append, reply::fail, reply::complete);
+    }
+
+    /**
+     * Stops the edit scheduler.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * One Telegram message of a streamed reply.
+     */
+    private static final class Segment {
+        private final StringBuilder text;
+        private String renderedText;
+        // Completes with the message ID after the message was sent and all edits issued so far were delivered.
+        private CompletableFuture<Integer> tail;
+
+        private Segment(String text) {
+            this.text = new StringBuilder(text);
+        }
+    }
+
+    /**
+     * State of one streamed reply. All methods are called from the subscriber or the edit scheduler
+     * and are synchronized on the reply.
+     */
+    private final class StreamingReply {
+        private final AbsSender absSender;
+        private final long chatId;
+        private Segment current;
+        private long lastRenderNanos;
+        private ScheduledFuture<?> pendingFlush;
+
+        private StreamingReply(AbsSender absSender, long chatId, String placeholder) {
+            this.absSender = absSender;
+            this.chatId = chatId;
+            this.current = new Segment(placeholder);
+            render(current);
+            current.text.setLength(0);
+        }
+
+        private synchronized void append(String part) {
+            current.text.append(part);
+            while (current.text.length() > MAX_MESSAGE_LENGTH) {
+                List<String> pieces = MessageSender.splitMessage(current.text.toString(), MAX_MESSAGE_LENGTH);
+                String head = pieces.getFirst();
+                String rest = current.text.substring(head.length());
+                current.text.setLength(head.length());
+                render(current);
+                current = new Segment(rest);
+            }
+            scheduleFlush();
+        }
+
+        private synchronized void complete() {
+            cancelPendingFlush();
+            render(current);
+        }
+
+        private synchronized void fail(Throwable error) {
+            logger.error("Streamed reply to chat {} failed: {}", chatId, error.getMessage());
+            complete();
+        }
+
+        private synchronized void flush() {
+            pendingFlush = null;
+            render(current);
+        }
+
+        private void scheduleFlush() {
+            if (pendingFlush != null) {
+                return;
+            }
+            long delay = Math.max(0, lastRenderNanos + editIntervalNanos - System.nanoTime());
+            pendingFlush = scheduler.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+        }
+
+        private void cancelPendingFlush() {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+        }
+
+        /**
+         * Brings the segment's message up to date: sends it if it was not sent yet, otherwise edits it.
+         * If sending the message failed, the next update sends its text as a new message instead of editing.
+         * Blank texts and texts equal to the last rendered one are skipped.
+         */
+        private void render(Segment segment) {
+            String target = segment.text.toString();
+            if (target.isBlank() || target.equals(segment.renderedText)) {
+                return;
+            }
+            segment.renderedText = target;
+            lastRenderNanos = System.nanoTime();
+            if (segment.tail == null) {
+                segment.tail = send(target);
+                return;
+            }
+            segment.tail = segment.tail.thenCompose(messageId -> {
+                if (messageId == null) {
+                    return send(target);
+                }
+                EditMessageText edit = new EditMessageText();
+                edit.setChatId(String.valueOf(chatId));
+                edit.setMessageId(messageId);
+                edit.setText(target);
+                return messageSender.editMessage(absSender, edit)
+                        .handle((result, error) -> {
+                            if (error != null) {
+                                logger.warn("Failed to update streamed message {} in chat {}: {}", messageId, chatId, error.getMessage());
+                            }
+                            return messageId;
+                        });
+            });
+        }
+
+        /**
+         * Sends the text as a new message.
+         *
+         * @return A future completing with the message ID, or with {@code null} if the message could not be sent.
+         */
+        private CompletableFuture<Integer> send(String text) {
+            return messageSender.sendMessage(absSender, new SendMessage(String.valueOf(chatId), text))
+                    .handle((message, error) -> {
+                        if (error != null) {
+                            logger.warn("Failed to send streamed message to chat {}: {}", chatId, error.getMessage());
+                            return null;
+                        }
+                        return message.getMessageId();
+                    });
+        }
+    }
+}
@@ -1,51 +1,177 @@
 package com.Calorizer.Bot.Service;
 
 import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Repository.UserRepository;
+import com.Calorizer.Bot.Service.Interface.UserServiceInt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.bots.AbsSender;
 import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
 import org.telegram.telegrambots.meta.api.objects.commands.BotCommand;
 import org.telegram.telegrambots.meta.api.objects.commands.scope.BotCommandScopeChat;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service responsible for updating the list of Telegram bot commands
  * displayed to the user in their client application.
  * It uses {@link LocalizationService} to get language-specific commands.
+ *
+ * <p>The language of the command list last pushed to a chat is stored with the user
+ * ({@link User#getCommandsLanguage()}), so {@code SetMyCommands} is only called when it changes, not on every
+ * {@code /start}. The call is sent asynchronously and does not block the handler; a failed call is retried in the
+ * background with exponential backoff. If all attempts fail, the stored language is cleared, so the next
+ * interaction of the user tries again.</p>
+ *
+ * <p>Metrics: counter {@code bot.commands.updates} tagged with {@code outcome}
+ * ({@code skipped}, {@code sent}, {@code retried} or {@code failed}).</p>
  */
 @Service
 public class TelegramBotCommandsUpdater {
 
     private static final Logger logger = LoggerFactory.getLogger(TelegramBotCommandsUpdater.class);
     private final LocalizationService localizationService;
+    private final UserServiceInt userServiceInt;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final ScheduledExecutorService retryScheduler;
+
+    /**
+     * Language of the push currently in progress per chat; a retry is dropped once a newer push replaced it.
+     */
+    private final Map<Long, Language> pending = new ConcurrentHashMap<>();
+
+    private final Counter skipped;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
 
     /**
      * Constructor for dependency injection.
      *
      * @param localizationService Service to retrieve localized bot commands.
+     * @param userServiceInt      Service used to save the pushed language with the user.
+     * @param userRepository      Repository used to clear the pushed language after a push finally failed.
+     * @param userCache           User cache invalidated after the pushed language was cleared.
+     * @param meterRegistry       Registry for the update counters.
+     * @param maxAttempts         Maximum number of {@code SetMyCommands} attempts per push.
+     * @param retryBackoffMs      Delay before the first retry in milliseconds, doubled for every further retry.
      */
-    public TelegramBotCommandsUpdater(LocalizationService localizationService) {
+    public TelegramBotCommandsUpdater(LocalizationService localizationService,
+                                      UserServiceInt userServiceInt,
+                                      UserRepository userRepository,
+                                      UserCache userCache,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${bot.commands.max-attempts:5}") int maxAttempts,
+                                      @Value("${bot.commands.retry-backoff-ms:2000}") long retryBackoffMs) {
         this.localizationService = localizationService;
+        this.userServiceInt = userServiceInt;
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("commands-retry").daemon(true).factory());
+        this.skipped = updateCounter(meterRegistry, "skipped");
+        this.sent = updateCounter(meterRegistry, "sent");
+        this.retried = updateCounter(meterRegistry, "retried");
+        this.failed = updateCounter(meterRegistry, "failed");
+    }
+
+    private static Counter updateCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("bot.commands.updates").tag("outcome", outcome)
+                .description("Requested command list updates by outcome")
+                .register(meterRegistry);
     }
 
     /**
-     * Updates the custom commands menu for a specific chat/user in the Telegram client.
-     * The commands are localized based on the provided language.
+     * Updates the custom commands menu for the user's chat in the Telegram client, unless the chat already shows
+     * the command list of the given language. The commands are localized based on the provided language.
+     * Records the language with the user and returns without waiting for Telegram.
      *
      * @param absSender The {@link AbsSender} instance (the bot itself) used to execute API methods.
-     * @param chatId The Telegram chat ID for which to update the commands.
+     * @param user The user whose chat's commands should be updated.
      * @param language The {@link Language} to retrieve the localized commands for.
      */
-    public void updateCommands(AbsSender absSender, long chatId, Language language) {
+    public void updateCommands(AbsSender absSender, User user, Language language) {
+        if (language == user.getCommandsLanguage()) {
+            skipped.increment();
+            return;
+        }
+        long chatId = user.getChatId();
+        user.setCommandsLanguage(language);
+        userServiceInt.save(user);
+        pending.put(chatId, language);
+        push(absSender, chatId, language, 1);
+    }
+
+    /**
+     * Sends one {@code SetMyCommands} attempt and schedules the next one if it fails.
+     *
+     * @param absSender The {@link AbsSender} instance used to execute API methods.
+     * @param chatId    The Telegram chat ID for which to update the commands.
+     * @param language  The language of the command list.
+     * @param attempt   The number of this attempt, starting at 1.
+     */
+    private void push(AbsSender absSender, long chatId, Language language, int attempt) {
+        if (pending.get(chatId) != language) {
+            return;
+        }
         List<BotCommand> commands = localizationService.getLocalizedCommands(language);
         try {
-            absSender.execute(new SetMyCommands(commands, new BotCommandScopeChat(String.valueOf(chatId)), null));
-        } catch (TelegramApiException e) {
-            logger.error("Failed to update commands for chat {}: {}", chatId, e.getMessage());
+            absSender.executeAsync(new SetMyCommands(commands, new BotCommandScopeChat(String.valueOf(chatId)), null))
+                    .whenComplete((result, error) -> {
+                        if (error == null) {
+                            pending.remove(chatId, language);
+                            sent.increment();
+                        } else {
+                            onFailure(absSender, chatId, language, attempt, error);
+                        }
+                    });
+        } catch (Exception e) {
+            onFailure(absSender, chatId, language, attempt, e);
+        }
+    }
+
+    private void onFailure(AbsSender absSender, long chatId, Language language, int attempt, Throwable error) {
+        if (attempt < maxAttempts && !retryScheduler.isShutdown()) {
+            long delay = retryBackoffMs << (attempt - 1);
+            retried.increment();
+            logger.warn("Failed to update commands for chat {} (attempt {}/{}), retrying in {} ms: {}",
+                    chatId, attempt, maxAttempts, delay, error.getMessage());
+            retryScheduler.schedule(() -> push(absSender, chatId, language, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            return;
         }
+        failed.increment();
+        logger.error("Failed to update commands for chat {} after {} attempts: {}", chatId, attempt, error.getMessage());
+        if (pending.remove(chatId, language)) {
+            try {
+                userRepository.clearCommandsLanguage(chatId, language);
+                userCache.invalidate(chatId);
+            } catch (Exception e) {
+                logger.error("Failed to clear the commands language of chat {}: {}", chatId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops pending retries.
+     */
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
     }
-}
\ No newline at end of file
+}
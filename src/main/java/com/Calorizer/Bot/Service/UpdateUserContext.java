@@ -0,0 +1,224 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.MainBot.Processing.OutboundMessageDispatcher;
+import com.Calorizer.Bot.Model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-update unit of work for {@link User} entities.
+ * While an update is processed inside {@link #runInScope(Runnable)}, every handler and service touched
+ * by that update shares the same {@link User} instance (together with its {@link com.Calorizer.Bot.Model.UserPhysicalData}),
+ * so the user is loaded from the database at most once. Saves are deferred and written once
+ * when the scope ends.
+ *
+ * <p>Because handlers queue their confirmations before anything is written, replies sent during the scope are
+ * held as well ({@link #sendAfterSave}) and released only after the modified users were saved. If saving fails,
+ * the held replies are discarded and the chat receives {@code error.generic} instead, so the user is never told
+ * that a change was saved when it was not.</p>
+ *
+ * <p>The scope is bound to the current thread. Updates of one chat are processed sequentially on a
+ * single thread by {@link com.Calorizer.Bot.MainBot.Processing.ChatUpdateExecutor}, which makes the
+ * thread a natural boundary for one update. Outside a scope (e.g. in asynchronous AI callbacks)
+ * the context is inactive and callers fall back to immediate repository access.</p>
+ */
+@Component
+public class UpdateUserContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdateUserContext.class);
+
+    /**
+     * Users loaded and modified during the current update.
+     */
+    private static final class Scope {
+        private final Map<Long, User> users = new HashMap<>();
+        private final Set<Long> dirty = new LinkedHashSet<>();
+        private final List<HeldReply> replies = new ArrayList<>();
+        private AbsSender absSender;
+    }
+
+    /**
+     * An outbound call held until the scope's users were saved.
+     *
+     * @param release Submits the call and completes the caller's future with its result.
+     * @param discard Completes the caller's future exceptionally without sending.
+     */
+    private record HeldReply(Runnable release, Consumer<Throwable> discard) {
+    }
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final UserCache userCache;
+    private final LocalizationService localizationService;
+    private final OutboundMessageDispatcher outboundDispatcher;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param userCache           Write-through user cache used to write modified users when the scope ends.
+     * @param localizationService Service providing the error message sent when saving failed.
+     * @param outboundDispatcher  Outbound queue used to send that error message.
+     */
+    public UpdateUserContext(UserCache userCache, LocalizationService localizationService,
+                             OutboundMessageDispatcher outboundDispatcher) {
+        this.userCache = userCache;
+        this.localizationService = localizationService;
+        this.outboundDispatcher = outboundDispatcher;
+    }
+
+    /**
+     * Runs the given work inside a user scope and flushes all modified users once it completes.
+     * Changes are flushed even if the work fails, matching the previous behaviour of saving immediately.
+     * Replies held during the scope are sent after a successful flush; if the flush fails they are discarded
+     * and the affected chats receive {@code error.generic}.
+     * If a scope is already active on this thread, the work joins it.
+     *
+     * @param work The processing of a single update.
+     */
+    public void runInScope(Runnable work) {
+        if (currentScope.get() != null) {
+            work.run();
+            return;
+        }
+        Scope scope = new Scope();
+        currentScope.set(scope);
+        try {
+            work.run();
+        } finally {
+            currentScope.remove();
+            List<User> failed = flush(scope);
+            releaseReplies(scope, failed);
+        }
+    }
+
+    /**
+     * Sends an outbound call, or holds it until the users of the current scope were saved.
+     * Outside a scope the call is sent immediately.
+     *
+     * @param absSender The {@link AbsSender} executing the call, also used for the error message if saving fails.
+     * @param send      Submits the call to the outbound queue.
+     * @param <T>       The result type of the call.
+     * @return A future completed with the result of the call, or exceptionally if it failed or was discarded
+     *         because saving failed.
+     */
+    public <T> CompletableFuture<T> sendAfterSave(AbsSender absSender, Supplier<CompletableFuture<T>> send) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return send.get();
+        }
+        CompletableFuture<T> reply = new CompletableFuture<>();
+        scope.absSender = absSender;
+        scope.replies.add(new HeldReply(() -> send.get().whenComplete((result, error) -> {
+            if (error == null) {
+                reply.complete(result);
+            } else {
+                reply.completeExceptionally(error);
+            }
+        }), reply::completeExceptionally));
+        return reply;
+    }
+
+    /**
+     * Checks whether a scope is active on the current thread.
+     *
+     * @return {@code true} if called while an update is processed inside {@link #runInScope(Runnable)}.
+     */
+    public boolean isActive() {
+        return currentScope.get() != null;
+    }
+
+    /**
+     * Returns the user already loaded in the current scope.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     * @return The shared {@link User} instance, or {@code null} if there is no scope or the user has not been loaded yet.
+     */
+    public User get(Long chatId) {
+        Scope scope = currentScope.get();
+        return scope == null ? null : scope.users.get(chatId);
+    }
+
+    /**
+     * Registers a freshly loaded or created user in the current scope. Does nothing outside a scope.
+     *
+     * @param user The user to share for the rest of the update.
+     */
+    public void put(User user) {
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            scope.users.put(user.getChatId(), user);
+        }
+    }
+
+    /**
+     * Marks a user as modified so it is written when the scope ends.
+     *
+     * @param user The modified user; its physical data is written with it through the cascade.
+     * @return {@code true} if the write was deferred, {@code false} if there is no active scope
+     *         and the caller must save immediately.
+     */
+    public boolean markDirty(User user) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return false;
+        }
+        scope.users.putIfAbsent(user.getChatId(), user);
+        scope.dirty.add(user.getChatId());
+        return true;
+    }
+
+    /**
+     * Writes every modified user of the finished scope.
+     *
+     * @param scope The scope that has just ended.
+     * @return The users that could not be saved; empty if every write succeeded.
+     */
+    private List<User> flush(Scope scope) {
+        List<User> failed = new ArrayList<>(0);
+        for (Long chatId : scope.dirty) {
+            User user = scope.users.get(chatId);
+            try {
+                userCache.save(user);
+            } catch (Exception e) {
+                logger.error("Failed to save user {} at the end of the update: ", chatId, e);
+                failed.add(user);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Sends the replies held during the finished scope, or discards them and reports the error if saving failed.
+     *
+     * @param scope  The scope that has just ended.
+     * @param failed The users that could not be saved.
+     */
+    private void releaseReplies(Scope scope, List<User> failed) {
+        if (failed.isEmpty()) {
+            scope.replies.forEach(reply -> reply.release().run());
+            return;
+        }
+        IllegalStateException discarded = new IllegalStateException("Reply discarded because saving the user failed");
+        scope.replies.forEach(reply -> reply.discard().accept(discarded));
+        if (scope.absSender == null) {
+            return;
+        }
+        for (User user : failed) {
+            String chatId = String.valueOf(user.getChatId());
+            String text = localizationService.getTranslation(user.getLanguage(), "error.generic");
+            outboundDispatcher.submit(scope.absSender, user.getChatId(), new SendMessage(chatId, text));
+        }
+    }
+}
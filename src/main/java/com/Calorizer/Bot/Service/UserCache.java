@@ -0,0 +1,126 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-process, write-through cache of {@link User} entities (including their physical data) keyed by chat ID.
+ * Language and payment status rarely change, so steady-state traffic is served from memory instead of
+ * issuing a {@code findByChatId} round trip for every update.
+ *
+ * <p>The cache is bounded in size and evicts entries that have not been accessed for the configured idle time.
+ * Every write goes through {@link #save(User)}, which stores the saved entity in the cache; a failed write
+ * invalidates the entry so the next read reloads the persisted state. Hit, miss and eviction counters are
+ * published as {@code cache.*} metrics with the tag {@code cache=users}.</p>
+ *
+ * <p>The cache can be switched off with {@code bot.user-cache.enabled=false}; all reads then go to the database.</p>
+ */
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> cache;
+
+    /**
+     * Constructs the cache and registers its metrics.
+     *
+     * @param userRepository   Repository for {@link User} entities.
+     * @param meterRegistry    Registry for hit, miss and eviction metrics.
+     * @param enabled          Whether caching is enabled, configured in application.properties.
+     * @param maxSize          Maximum number of cached users.
+     * @param idleTtlMinutes   Minutes after the last access before an entry expires.
+     */
+    public UserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                     @Value("${bot.user-cache.enabled:true}") boolean enabled,
+                     @Value("${bot.user-cache.max-size:10000}") long maxSize,
+                     @Value("${bot.user-cache.idle-ttl-minutes:30}") long idleTtlMinutes) {
+        this.userRepository = userRepository;
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterAccess(Duration.ofMinutes(idleTtlMinutes))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+            logger.info("User cache enabled (max size {}, idle TTL {} min).", maxSize, idleTtlMinutes);
+        } else {
+            this.cache = null;
+            logger.info("User cache disabled, users are always read from the database.");
+        }
+    }
+
+    /**
+     * Returns the user from the cache, loading it from the database on a miss.
+     * Users that do not exist are not cached.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     * @return An {@link Optional} with the user, or empty if no user exists with the given chat ID.
+     */
+    public Optional<User> findByChatId(long chatId) {
+        if (cache == null) {
+            return userRepository.findByChatId(chatId);
+        }
+        User cached = cache.getIfPresent(chatId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> loaded = userRepository.findByChatId(chatId);
+        loaded.ifPresent(user -> cache.put(chatId, user));
+        return loaded;
+    }
+
+    /**
+     * Returns the user only if it is cached, without reading the database. Meant for callers that must not block,
+     * such as the update intake thread.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     * @return An {@link Optional} with the cached user, or empty on a miss or if caching is disabled.
+     */
+    public Optional<User> peek(long chatId) {
+        return cache == null ? Optional.empty() : Optional.ofNullable(cache.getIfPresent(chatId));
+    }
+
+    /**
+     * Saves the user (and, through the cascade, its physical data) and caches the saved state.
+     *
+     * @param user The user to save.
+     * @return The saved {@link User}.
+     * @throws RuntimeException if the database write fails; the cache entry is invalidated in that case.
+     */
+    public User save(User user) {
+        try {
+            User saved = userRepository.save(user);
+            if (cache != null) {
+                cache.put(saved.getChatId(), saved);
+            }
+            return saved;
+        } catch (RuntimeException e) {
+            invalidate(user.getChatId());
+            throw e;
+        }
+    }
+
+    /**
+     * Removes a user from the cache, e.g. after its data was written past the cache.
+     *
+     * @param chatId The Telegram chat ID of the user.
+     */
+    public void invalidate(long chatId) {
+        if (cache != null) {
+            cache.invalidate(chatId);
+        }
+    }
+}
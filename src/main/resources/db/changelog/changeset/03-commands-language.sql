@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset DaniilYehorov:20261018-01
+ALTER TABLE `user` ADD COLUMN `commands_language` ENUM('English', 'Ukrainian', 'Russian', 'German') NULL;
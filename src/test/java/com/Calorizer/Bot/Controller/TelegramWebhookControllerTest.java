@@ -0,0 +1,92 @@
+package com.Calorizer.Bot.Controller;
+
+import com.Calorizer.Bot.BotConfiguration.BotConfiguration;
+import com.Calorizer.Bot.MainBot.TelegramBot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TelegramWebhookControllerTest {
+
+	private TelegramBot telegramBot;
+	private BotConfiguration botConfiguration;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		telegramBot = mock(TelegramBot.class);
+		botConfiguration = new BotConfiguration();
+		botConfiguration.setWebhookSecret("");
+		mockMvc = MockMvcBuilders.standaloneSetup(new TelegramWebhookController(telegramBot, botConfiguration))
+				.addPlaceholderValue("bot.webhook.path", "/telegram/webhook")
+				.build();
+	}
+
+	@Test
+	void recordedTextMessageIsDispatched() throws Exception {
+		mockMvc.perform(post("/telegram/webhook")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(recorded("webhook/text-message-update.json")))
+				.andExpect(status().isOk());
+
+		ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+		verify(telegramBot).onUpdateReceived(captor.capture());
+		assertEquals(815240117, captor.getValue().getUpdateId());
+		assertEquals(123456789L, captor.getValue().getMessage().getChatId());
+		assertEquals("/profile", captor.getValue().getMessage().getText());
+	}
+
+	@Test
+	void recordedCallbackQueryIsDispatched() throws Exception {
+		mockMvc.perform(post("/telegram/webhook")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(recorded("webhook/callback-query-update.json")))
+				.andExpect(status().isOk());
+
+		ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+		verify(telegramBot).onUpdateReceived(captor.capture());
+		assertEquals("SET_LANGUAGE_EN", captor.getValue().getCallbackQuery().getData());
+		assertEquals(123456789L, captor.getValue().getCallbackQuery().getMessage().getChatId());
+	}
+
+	@Test
+	void requestWithWrongSecretIsRejected() throws Exception {
+		botConfiguration.setWebhookSecret("expected-secret");
+
+		mockMvc.perform(post("/telegram/webhook")
+						.header("X-Telegram-Bot-Api-Secret-Token", "wrong-secret")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(recorded("webhook/text-message-update.json")))
+				.andExpect(status().isUnauthorized());
+		verify(telegramBot, never()).onUpdateReceived(any());
+
+		mockMvc.perform(post("/telegram/webhook")
+						.header("X-Telegram-Bot-Api-Secret-Token", "expected-secret")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(recorded("webhook/text-message-update.json")))
+				.andExpect(status().isOk());
+		verify(telegramBot).onUpdateReceived(any());
+	}
+
+	private String recorded(String resource) throws IOException {
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.Calorizer.Bot.MainBot;
+
+import com.Calorizer.Bot.Model.Enum.Allergen;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Service.Flow.ProfileStep;
+import com.Calorizer.Bot.Service.LocalizationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyboardFactoryTest {
+
+	private KeyboardFactory keyboardFactory;
+
+	@BeforeEach
+	void setUp() {
+		LocalizationService localizationService = new LocalizationService();
+		localizationService.init();
+		keyboardFactory = new KeyboardFactory(localizationService);
+	}
+
+	@Test
+	void staticKeyboardsAreSharedPerLanguage() {
+		assertSame(keyboardFactory.getMainMenuKeyboard(Language.German).getKeyboard().get(0).get(0),
+				keyboardFactory.getMainMenuKeyboard(Language.German).getKeyboard().get(0).get(0));
+		assertSame(keyboardFactory.getAiCancelKeyboard(Language.English).getKeyboard(),
+				keyboardFactory.getAiCancelKeyboard(Language.English).getKeyboard());
+		assertNotEquals(keyboardFactory.getMainMenuKeyboard(Language.German).getKeyboard().get(0).get(0).getText(),
+				keyboardFactory.getMainMenuKeyboard(Language.English).getKeyboard().get(0).get(0).getText());
+	}
+
+	@Test
+	void sharedKeyboardsCannotBeModified() {
+		InlineKeyboardMarkup keyboard = keyboardFactory.getProfileAttributeKeyboard(Language.English);
+
+		assertThrows(UnsupportedOperationException.class, () -> keyboard.getKeyboard().add(List.of()));
+		assertThrows(UnsupportedOperationException.class, () -> keyboard.getKeyboard().get(0).clear());
+
+		keyboard.setKeyboard(List.of());
+		assertEquals(ProfileStep.values().length + 1,
+				keyboardFactory.getProfileAttributeKeyboard(Language.English).getKeyboard().size());
+	}
+
+	@Test
+	void mainMenuKeyboardCannotBeModifiedThroughAnEarlierCall() {
+		ReplyKeyboardMarkup keyboard = keyboardFactory.getMainMenuKeyboard(Language.English);
+
+		assertThrows(UnsupportedOperationException.class, () -> keyboard.getKeyboard().add(new KeyboardRow()));
+		keyboard.getKeyboard().get(0).clear();
+		keyboard.setOneTimeKeyboard(true);
+
+		ReplyKeyboardMarkup next = keyboardFactory.getMainMenuKeyboard(Language.English);
+		assertEquals(2, next.getKeyboard().get(0).size());
+		assertFalse(next.getOneTimeKeyboard());
+		assertTrue(next.getResizeKeyboard());
+	}
+
+	@Test
+	void allergiesKeyboardReusesCachedButtonsAndMarksSelection() {
+		InlineKeyboardMarkup first = keyboardFactory.getAllergiesKeyboard(Language.English, List.of(Allergen.EGGS));
+		InlineKeyboardMarkup second = keyboardFactory.getAllergiesKeyboard(Language.English, null);
+
+		assertEquals(Allergen.values().length, first.getKeyboard().size());
+		assertTrue(first.getKeyboard().get(Allergen.EGGS.ordinal()).get(0).getText().startsWith("✅ "));
+		assertEquals("ALLERGY_TOGGLE:EGGS", second.getKeyboard().get(Allergen.EGGS.ordinal()).get(0).getCallbackData());
+		assertSame(first.getKeyboard().get(Allergen.MILK.ordinal()), second.getKeyboard().get(Allergen.MILK.ordinal()));
+	}
+}
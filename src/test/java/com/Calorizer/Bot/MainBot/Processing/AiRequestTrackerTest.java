@@ -0,0 +1,71 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AiRequestTrackerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AiRequestTracker tracker = new AiRequestTracker(meterRegistry);
+
+	@Test
+	void newerRequestCancelsTheOlderOneAndFreesItsWorker() {
+		AiWorkerPool pool = new AiWorkerPool(meterRegistry, 1, 10, 0, 3, 60, 3600);
+		Sinks.One<String> never = Sinks.one();
+		AtomicInteger started = new AtomicInteger();
+
+		Disposable first = pool.submit(1, AiWorkerPool.Priority.FREE, () -> {
+			started.incrementAndGet();
+			return never.asMono();
+		}, null).subscribe();
+		tracker.track(1, first);
+		assertEquals(1, pool.runningCount());
+
+		Disposable second = pool.submit(1, AiWorkerPool.Priority.FREE, () -> {
+			started.incrementAndGet();
+			return Mono.<String>never();
+		}, null).subscribe();
+		tracker.track(1, second);
+
+		assertTrue(first.isDisposed());
+		assertEquals(2, started.get());
+		assertEquals(1, pool.runningCount());
+		assertEquals(1.0, meterRegistry.get("bot.ai.cancelled").tag("reason", "superseded").counter().count());
+		pool.shutdown();
+	}
+
+	@Test
+	void cancelDisposesTheRequestInFlightOnlyOnce() {
+		Disposable request = Mono.never().subscribe();
+		tracker.track(7, request);
+
+		assertTrue(tracker.isInFlight(7));
+		assertTrue(tracker.cancel(7, AiRequestTracker.CancelReason.USER));
+		assertTrue(request.isDisposed());
+		assertFalse(tracker.cancel(7, AiRequestTracker.CancelReason.USER));
+		assertEquals(1.0, meterRegistry.get("bot.ai.cancelled").tag("reason", "user").counter().count());
+	}
+
+	@Test
+	void finishedOlderRequestDoesNotForgetTheNewerOne() {
+		Disposable older = Mono.never().subscribe();
+		Disposable newer = Mono.never().subscribe();
+		tracker.track(3, older);
+		tracker.track(3, newer);
+
+		tracker.finished(3, older);
+
+		assertTrue(tracker.isInFlight(3));
+		tracker.finished(3, newer);
+		assertFalse(tracker.isInFlight(3));
+	}
+}
@@ -0,0 +1,186 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.Calorizer.Bot.MainBot.Processing.AiWorkerPool.Priority.FREE;
+import static com.Calorizer.Bot.MainBot.Processing.AiWorkerPool.Priority.PAID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AiWorkerPoolTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AiWorkerPool pool = new AiWorkerPool(meterRegistry, 2, 1, 0, 3, 3600, 3600);
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void callsBeyondTheLimitWaitAndStartWhenAWorkerIsFree() {
+		List<Sinks.One<String>> calls = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			calls.add(Sinks.one());
+		}
+		List<String> received = new CopyOnWriteArrayList<>();
+		List<Integer> positions = new CopyOnWriteArrayList<>();
+
+		for (int i = 0; i < 3; i++) {
+			Sinks.One<String> call = calls.get(i);
+			pool.submit(i, FREE, call::asMono, positions::add).subscribe(received::add);
+		}
+
+		assertEquals(2, pool.runningCount());
+		assertEquals(1, pool.queueDepth());
+		assertEquals(List.of(1), positions);
+
+		calls.get(0).tryEmitValue("first");
+		assertEquals(2, pool.runningCount());
+		assertEquals(0, pool.queueDepth());
+
+		calls.get(2).tryEmitValue("third");
+		calls.get(1).tryEmitValue("second");
+		assertEquals(List.of("first", "third", "second"), received);
+		assertEquals(0, pool.runningCount());
+	}
+
+	@Test
+	void callsAreRejectedWhenTheQueueIsFull() {
+		Sinks.One<String> blocked = Sinks.one();
+		for (int i = 0; i < 3; i++) {
+			pool.submit(i, FREE, blocked::asMono, null).subscribe();
+		}
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		pool.submit(3, FREE, blocked::asMono, null).subscribe(value -> { }, error::set);
+
+		assertInstanceOf(AiWorkerPool.QueueFullException.class, error.get());
+		assertEquals(1.0, meterRegistry.get("bot.ai.rejected").tag("priority", "free").counter().count());
+		assertEquals(1, pool.queueDepth());
+	}
+
+	@Test
+	void cancelledCallsFreeTheirWorkerAndQueueSlot() {
+		Sinks.One<String> blocked = Sinks.one();
+		Disposable running = pool.submit(1, FREE, blocked::asMono, null).subscribe();
+		pool.submit(2, FREE, blocked::asMono, null).subscribe();
+		Disposable waiting = pool.submit(3, FREE, blocked::asMono, null).subscribe();
+
+		waiting.dispose();
+		assertEquals(0, pool.queueDepth());
+
+		running.dispose();
+		assertEquals(1, pool.runningCount());
+	}
+
+	@Test
+	void paidCallsUseTheReservedWorkerAndStartAheadOfFreeCalls() {
+		AiWorkerPool lanes = new AiWorkerPool(meterRegistry, 2, 10, 1, 3, 3600, 3600);
+		List<String> started = new CopyOnWriteArrayList<>();
+		Sinks.One<String> freeRunning = Sinks.one();
+		Sinks.One<String> paidRunning = Sinks.one();
+
+		lanes.submit(1, FREE, () -> { started.add("free-1"); return freeRunning.asMono(); }, null).subscribe();
+		lanes.submit(2, FREE, () -> { started.add("free-2"); return Sinks.one().asMono(); }, null).subscribe();
+		lanes.submit(3, PAID, () -> { started.add("paid-3"); return paidRunning.asMono(); }, null).subscribe();
+		lanes.submit(4, PAID, () -> { started.add("paid-4"); return Sinks.one().asMono(); }, null).subscribe();
+
+		assertEquals(List.of("free-1", "paid-3"), started);
+		assertEquals(1, lanes.queueDepth(FREE));
+		assertEquals(1, lanes.queueDepth(PAID));
+
+		freeRunning.tryEmitValue("done");
+		assertEquals(List.of("free-1", "paid-3", "paid-4"), started);
+
+		paidRunning.tryEmitValue("done");
+		assertEquals(List.of("free-1", "paid-3", "paid-4", "free-2"), started);
+		lanes.shutdown();
+	}
+
+	@Test
+	void multiWorkerCallIsAdmittedOnceAndStartsWhenAllItsWorkersAreFree() {
+		Sinks.One<String> single = Sinks.one();
+		List<String> started = new CopyOnWriteArrayList<>();
+
+		pool.submit(1, FREE, single::asMono, null).subscribe();
+		pool.submit(2, FREE, 2, () -> { started.add("week"); return Sinks.one().asMono(); }, null).subscribe();
+
+		assertEquals(List.of(), started);
+		assertEquals(1, pool.queueDepth());
+
+		single.tryEmitValue("done");
+		assertEquals(List.of("week"), started);
+		assertEquals(2, pool.runningCount());
+		assertThrows(IllegalArgumentException.class, () -> pool.submit(3, FREE, 3, Sinks.one()::asMono, null));
+	}
+
+	@Test
+	void paidMultiWorkerCallStartsBeforeLaterFreeCalls() {
+		AiWorkerPool lanes = new AiWorkerPool(meterRegistry, 3, 10, 0, 3, 3600, 3600);
+		List<String> started = new CopyOnWriteArrayList<>();
+		List<Sinks.One<String>> freeRunning = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Sinks.One<String> call = Sinks.one();
+			freeRunning.add(call);
+			lanes.submit(i, FREE, call::asMono, null).subscribe();
+		}
+		lanes.submit(10, PAID, 2, () -> { started.add("week"); return Sinks.one().asMono(); }, null).subscribe();
+		lanes.submit(11, FREE, () -> { started.add("free-11"); return Sinks.one().asMono(); }, null).subscribe();
+
+		// One worker is free, but it is held for the week instead of going to the queued free call.
+		freeRunning.get(0).tryEmitValue("done");
+		assertEquals(List.of(), started);
+		assertEquals(2, lanes.runningCount());
+
+		freeRunning.get(1).tryEmitValue("done");
+		assertEquals(List.of("week"), started);
+
+		freeRunning.get(2).tryEmitValue("done");
+		assertEquals(List.of("week", "free-11"), started);
+		lanes.shutdown();
+	}
+
+	@Test
+	void newCallsDoNotTakeWorkersHeldForAWaitingMultiWorkerCall() {
+		AiWorkerPool lanes = new AiWorkerPool(meterRegistry, 3, 10, 0, 3, 3600, 3600);
+		List<String> started = new CopyOnWriteArrayList<>();
+		Sinks.One<String> freeRunning = Sinks.one();
+		lanes.submit(1, FREE, freeRunning::asMono, null).subscribe();
+		lanes.submit(2, FREE, Sinks.one()::asMono, null).subscribe();
+		lanes.submit(10, PAID, 2, () -> { started.add("week"); return Sinks.one().asMono(); }, null).subscribe();
+
+		lanes.submit(11, FREE, () -> { started.add("free-11"); return Sinks.one().asMono(); }, null).subscribe();
+		assertEquals(List.of(), started);
+		assertEquals(1, lanes.queueDepth(FREE));
+
+		freeRunning.tryEmitValue("done");
+		assertEquals(List.of("week"), started);
+		lanes.shutdown();
+	}
+
+	@Test
+	void agedFreeCallsStartAheadOfPaidCalls() {
+		AiWorkerPool lanes = new AiWorkerPool(meterRegistry, 1, 10, 0, 3, 0, 3600);
+		List<String> started = new CopyOnWriteArrayList<>();
+		Sinks.One<String> running = Sinks.one();
+
+		lanes.submit(1, PAID, running::asMono, null).subscribe();
+		lanes.submit(2, FREE, () -> { started.add("free-2"); return Sinks.one().asMono(); }, null).subscribe();
+		lanes.submit(3, PAID, () -> { started.add("paid-3"); return Sinks.one().asMono(); }, null).subscribe();
+
+		running.tryEmitValue("done");
+		assertEquals(List.of("free-2"), started);
+		lanes.shutdown();
+	}
+}
@@ -0,0 +1,68 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import com.Calorizer.Bot.Service.LocalizationService;
+import com.Calorizer.Bot.Service.UserCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CallbackAcknowledgerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AbsSender absSender = mock(AbsSender.class);
+	private final CallbackAcknowledger acknowledger;
+
+	CallbackAcknowledgerTest() {
+		LocalizationService localizationService = new LocalizationService();
+		localizationService.init();
+		acknowledger = new CallbackAcknowledger(meterRegistry, new UserCache(null, meterRegistry, false, 0, 0), localizationService);
+	}
+
+	@Test
+	void answersWithLocalizedToastAndRecordsLatency() throws Exception {
+		when(absSender.executeAsync(any(AnswerCallbackQuery.class))).thenReturn(CompletableFuture.completedFuture(true));
+		CallbackQuery query = query("q-1", "de");
+
+		acknowledger.acknowledge(absSender, query, "toast.ai.request_accepted", System.nanoTime());
+
+		ArgumentCaptor<AnswerCallbackQuery> answer = ArgumentCaptor.forClass(AnswerCallbackQuery.class);
+		verify(absSender).executeAsync(answer.capture());
+		assertEquals("q-1", answer.getValue().getCallbackQueryId());
+		assertEquals("Anfrage angenommen", answer.getValue().getText());
+		assertEquals(1, meterRegistry.get("bot.callback.ack.latency").tag("outcome", "success").timer().count());
+	}
+
+	@Test
+	void failedAnswerIsRecordedWithoutToast() throws Exception {
+		when(absSender.executeAsync(any(AnswerCallbackQuery.class)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("query is too old")));
+
+		acknowledger.acknowledge(absSender, query("q-2", null), null, System.nanoTime());
+
+		ArgumentCaptor<AnswerCallbackQuery> answer = ArgumentCaptor.forClass(AnswerCallbackQuery.class);
+		verify(absSender).executeAsync(answer.capture());
+		assertNull(answer.getValue().getText());
+		assertEquals(1, meterRegistry.get("bot.callback.ack.latency").tag("outcome", "failure").timer().count());
+	}
+
+	private static CallbackQuery query(String id, String languageCode) {
+		org.telegram.telegrambots.meta.api.objects.User from = new org.telegram.telegrambots.meta.api.objects.User();
+		from.setLanguageCode(languageCode);
+		CallbackQuery query = new CallbackQuery();
+		query.setId(id);
+		query.setFrom(from);
+		return query;
+	}
+}
@@ -0,0 +1,100 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatUpdateExecutorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ChatUpdateExecutor executor = new ChatUpdateExecutor(meterRegistry, 1000);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void keepsOrderWithinChat() throws InterruptedException {
+		List<Integer> processed = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(500);
+
+		for (int i = 0; i < 500; i++) {
+			int n = i;
+			executor.submit(42L, () -> {
+				processed.add(n);
+				done.countDown();
+			});
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(IntStream.range(0, 500).boxed().toList(), processed);
+	}
+
+	@Test
+	void slowChatDoesNotBlockOtherChats() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch otherChatDone = new CountDownLatch(1);
+
+		executor.submit(1L, () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		executor.submit(2L, otherChatDone::countDown);
+
+		assertTrue(otherChatDone.await(5, TimeUnit.SECONDS));
+		release.countDown();
+	}
+
+	@Test
+	void errorInTaskDoesNotStallChat() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+
+		executor.submit(3L, () -> {
+			throw new AssertionError("handler bug");
+		});
+		executor.submit(3L, done::countDown);
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void rejectsUpdatesBeyondChatQueueBound() throws InterruptedException {
+		SimpleMeterRegistry boundedRegistry = new SimpleMeterRegistry();
+		ChatUpdateExecutor bounded = new ChatUpdateExecutor(boundedRegistry, 2);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Runnable blocking = () -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		assertTrue(bounded.submit(7L, blocking));
+		// Wait until the worker has taken the first task, so the queue holds only the following ones.
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertTrue(bounded.submit(7L, () -> { }));
+		assertTrue(bounded.submit(7L, () -> { }));
+		assertFalse(bounded.submit(7L, () -> { }));
+		assertEquals(1.0, boundedRegistry.get("bot.updates.rejected").counter().count());
+
+		release.countDown();
+		bounded.shutdown();
+	}
+}
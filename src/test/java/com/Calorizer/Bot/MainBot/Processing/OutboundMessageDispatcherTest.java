@@ -0,0 +1,107 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboundMessageDispatcherTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AbsSender absSender = mock(AbsSender.class);
+	private final List<String> delivered = new CopyOnWriteArrayList<>();
+	private OutboundMessageDispatcher dispatcher;
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.shutdown();
+	}
+
+	@Test
+	void messagesOfOneChatAreDeliveredInOrder() throws Exception {
+		dispatcher = new OutboundMessageDispatcher(meterRegistry, 1_000, 1_000, 1_000, 5);
+		recordDeliveries();
+
+		List<CompletableFuture<Message>> futures = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			futures.add(dispatcher.submit(absSender, 1L, new SendMessage("1", "part-" + i)));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			expected.add("part-" + i);
+		}
+		assertEquals(expected, delivered);
+	}
+
+	@Test
+	void perChatPacingSpacesMessagesWithoutBlockingTheCaller() throws Exception {
+		dispatcher = new OutboundMessageDispatcher(meterRegistry, 1_000, 10, 1, 5);
+		recordDeliveries();
+
+		long start = System.nanoTime();
+		CompletableFuture<Message> last = null;
+		for (int i = 0; i < 3; i++) {
+			last = dispatcher.submit(absSender, 1L, new SendMessage("1", "m" + i));
+		}
+		long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		last.get(5, TimeUnit.SECONDS);
+		long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertTrue(submitMillis < 100, "submit must not block, took " + submitMillis + " ms");
+		assertTrue(totalMillis >= 180, "3 messages at 10/s with burst 1 need about 200 ms, took " + totalMillis + " ms");
+	}
+
+	@Test
+	void rateLimitedMessageIsRetriedBeforeLaterMessages() throws Exception {
+		dispatcher = new OutboundMessageDispatcher(meterRegistry, 1_000, 1_000, 1_000, 5);
+		TelegramApiRequestException tooManyRequests = mock(TelegramApiRequestException.class);
+		when(tooManyRequests.getErrorCode()).thenReturn(429);
+		when(tooManyRequests.getParameters()).thenReturn(new ResponseParameters(null, 1));
+		AtomicBoolean rejectedOnce = new AtomicBoolean();
+		when(absSender.execute(any(SendMessage.class))).thenAnswer(invocation -> {
+			SendMessage message = invocation.getArgument(0);
+			if (message.getText().equals("first") && rejectedOnce.compareAndSet(false, true)) {
+				throw tooManyRequests;
+			}
+			delivered.add(message.getText());
+			return new Message();
+		});
+
+		long start = System.nanoTime();
+		CompletableFuture<Message> first = dispatcher.submit(absSender, 1L, new SendMessage("1", "first"));
+		CompletableFuture<Message> second = dispatcher.submit(absSender, 1L, new SendMessage("1", "second"));
+		second.get(5, TimeUnit.SECONDS);
+
+		assertTrue(first.isDone() && !first.isCompletedExceptionally());
+		assertEquals(List.of("first", "second"), delivered);
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+		assertEquals(1.0, meterRegistry.get("bot.outbound.retried").counter().count());
+	}
+
+	private void recordDeliveries() throws Exception {
+		when(absSender.execute(any(SendMessage.class))).thenAnswer(invocation -> {
+			SendMessage message = invocation.getArgument(0);
+			delivered.add(message.getText());
+			return new Message();
+		});
+	}
+}
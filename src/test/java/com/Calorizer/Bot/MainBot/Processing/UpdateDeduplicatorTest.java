@@ -0,0 +1,50 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpdateDeduplicatorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final UpdateDeduplicator deduplicator = new UpdateDeduplicator(meterRegistry, 128, 60_000, 1_000);
+
+	@Test
+	void redeliveredUpdatesWithinTheWindowAreDropped() {
+		assertTrue(deduplicator.markUpdate(1000));
+		assertTrue(deduplicator.markUpdate(1002));
+		assertTrue(deduplicator.markUpdate(1001));
+		assertFalse(deduplicator.markUpdate(1002));
+		assertFalse(deduplicator.markUpdate(1000));
+
+		assertTrue(deduplicator.markUpdate(1100));
+		assertFalse(deduplicator.markUpdate(1001));
+		assertEquals(3.0, meterRegistry.get("bot.ingress.suppressed").tag("reason", "duplicate_update").counter().count());
+	}
+
+	@Test
+	void slotsReusedByNewerIdsAreNotMistakenForDuplicates() {
+		assertTrue(deduplicator.markUpdate(5));
+		assertTrue(deduplicator.markUpdate(5 + 128));
+		assertTrue(deduplicator.markUpdate(6 + 128));
+		assertTrue(deduplicator.markUpdate(1_000_000));
+		assertTrue(deduplicator.markUpdate(7), "a restarted ID sequence is accepted");
+		assertFalse(deduplicator.markUpdate(7));
+	}
+
+	@Test
+	void identicalCallbacksAreDebouncedPerChat() {
+		assertTrue(deduplicator.markCallback(1, "AI_REC_week"));
+		assertFalse(deduplicator.markCallback(1, "AI_REC_week"));
+		assertTrue(deduplicator.markCallback(1, "AI_REC_day"));
+		assertTrue(deduplicator.markCallback(2, "AI_REC_week"));
+		assertEquals(1.0, meterRegistry.get("bot.ingress.suppressed").tag("reason", "debounced_callback").counter().count());
+
+		UpdateDeduplicator disabled = new UpdateDeduplicator(meterRegistry, 128, 0, 1_000);
+		assertTrue(disabled.markCallback(1, "PROFILE_UPDATE_ALL"));
+		assertTrue(disabled.markCallback(1, "PROFILE_UPDATE_ALL"));
+	}
+}
@@ -0,0 +1,74 @@
+package com.Calorizer.Bot.MainBot.Processing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static com.Calorizer.Bot.MainBot.Processing.UserRateLimiter.Limit.AI;
+import static com.Calorizer.Bot.MainBot.Processing.UserRateLimiter.Limit.MESSAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserRateLimiterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final UserRateLimiter limiter = new UserRateLimiter(meterRegistry, 1, 30, 10, 3, 10, 3, 2, 3600, 1_000, 3600);
+
+	@AfterEach
+	void tearDown() {
+		limiter.shutdown();
+	}
+
+	@Test
+	void limitsAreTrackedPerUserAndKind() {
+		assertEquals(0, limiter.tryAcquire(MESSAGE, 1));
+		assertEquals(0, limiter.tryAcquire(MESSAGE, 1));
+		assertTrue(limiter.tryAcquire(MESSAGE, 1) > 0);
+
+		assertEquals(0, limiter.tryAcquire(MESSAGE, 2));
+		assertEquals(0, limiter.tryAcquire(AI, 1));
+		assertEquals(1.0, meterRegistry.get("bot.ratelimit.limited").tag("limit", "message").counter().count());
+	}
+
+	@Test
+	void limitedUsersAreNotifiedOnceAndRefundsRestoreTokens() {
+		limiter.tryAcquire(AI, 7);
+		long waitNanos = limiter.tryAcquire(AI, 7);
+
+		assertTrue(waitNanos > 0 && waitNanos <= 30_000_000_000L);
+		assertTrue(limiter.shouldNotify(AI, 7));
+		assertFalse(limiter.shouldNotify(AI, 7));
+
+		limiter.refund(AI, 7);
+		assertEquals(0, limiter.tryAcquire(AI, 7));
+		assertTrue(limiter.tryAcquire(AI, 7) > 0);
+		assertTrue(limiter.shouldNotify(AI, 7));
+	}
+
+	@Test
+	void refilledBucketsAreEvictedAndRulesChangeAtRuntime() {
+		for (long chatId = 0; chatId < 500; chatId++) {
+			limiter.tryAcquire(MESSAGE, chatId);
+		}
+		assertEquals(500, limiter.trackedUsers(MESSAGE));
+
+		limiter.setRule(MESSAGE, new UserRateLimiter.Rule(1, 1e-9));
+		limiter.evictIdle();
+
+		assertEquals(0, limiter.trackedUsers(MESSAGE));
+		assertEquals(0, limiter.tryAcquire(MESSAGE, 1));
+	}
+
+	@Test
+	void usersBeyondTheTableSizeAreNotLimited() {
+		UserRateLimiter small = new UserRateLimiter(meterRegistry, 1, 30, 1, 30, 1, 30, 1, 3600, 16, 3600);
+		for (long chatId = 0; chatId < 64; chatId++) {
+			small.tryAcquire(MESSAGE, chatId);
+		}
+
+		assertTrue(small.trackedUsers(MESSAGE) <= 16);
+		assertTrue(meterRegistry.get("bot.ratelimit.untracked").tag("limit", "message").counter().count() > 0);
+		small.shutdown();
+	}
+}
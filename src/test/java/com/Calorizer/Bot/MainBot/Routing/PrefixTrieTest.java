@@ -0,0 +1,38 @@
+package com.Calorizer.Bot.MainBot.Routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrefixTrieTest {
+
+	@Test
+	void resolvesExactKeysAndPrefixes() {
+		PrefixTrie<String> trie = new PrefixTrie<>();
+		trie.putPrefix("SET_LANGUAGE_", "language");
+		trie.putPrefix("UPDATE_", "attribute");
+		trie.putExact("PROFILE_UPDATE_ALL", "profile");
+		trie.putExact("PROFILE_UPDATE_ONE_BY_ONE", "profile");
+
+		assertEquals("language", trie.find("SET_LANGUAGE_German"));
+		assertEquals("attribute", trie.find("UPDATE_PROFILE_DONE"));
+		assertEquals("profile", trie.find("PROFILE_UPDATE_ALL"));
+		assertNull(trie.find("PROFILE_UPDATE"));
+		assertNull(trie.find("PROFILE_UPDATE_ALL_EXTRA"));
+		assertNull(trie.find("SET_LANGUAGE"));
+	}
+
+	@Test
+	void rejectsOverlappingDeclarations() {
+		PrefixTrie<String> trie = new PrefixTrie<>();
+		trie.putPrefix("UPDATE_", "attribute");
+		trie.putExact("PROFILE_DATA_UPDATE_YES", "profile");
+
+		assertThrows(IllegalStateException.class, () -> trie.putExact("UPDATE_PROFILE_DONE", "other"));
+		assertThrows(IllegalStateException.class, () -> trie.putPrefix("UPDATE", "other"));
+		assertThrows(IllegalStateException.class, () -> trie.putPrefix("PROFILE_", "other"));
+		assertThrows(IllegalStateException.class, () -> trie.putExact("PROFILE_DATA_UPDATE_YES", "other"));
+	}
+}
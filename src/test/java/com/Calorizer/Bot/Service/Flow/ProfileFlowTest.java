@@ -0,0 +1,63 @@
+package com.Calorizer.Bot.Service.Flow;
+
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProfileFlowTest {
+
+	private final StepFlow<ProfileStep, ProfileDraft> flow = ProfileFlow.STEPS;
+
+	@Test
+	void validInputsWalkThroughAllStepsInOrder() {
+		ProfileDraft draft = new ProfileDraft();
+		ProfileStep step = flow.first();
+		List<String> inputs = List.of("2", "168.5", "61", "29", "24", "3", "1");
+
+		for (int i = 0; i < inputs.size() - 1; i++) {
+			assertEquals(StepFlow.Result.ADVANCED, flow.accept(step, inputs.get(i), draft));
+			step = flow.next(step);
+		}
+		assertEquals(StepFlow.Result.FINISHED, flow.accept(step, inputs.get(inputs.size() - 1), draft));
+		assertNull(flow.next(step));
+
+		UserPhysicalData upd = new UserPhysicalData();
+		draft.applyTo(upd);
+		assertEquals(Sex.FEMALE, upd.getSex());
+		assertEquals(168.5, upd.getHeight());
+		assertEquals(29, upd.getAge());
+		assertEquals(PhysicalActivityLevel.MODERATE, upd.getPhysicalActivityLevel());
+		assertEquals(MainGoal.WEIGHT_LOSS, upd.getMaingoal());
+	}
+
+	@Test
+	void rangeAndChoiceRulesRejectInvalidInput() {
+		ProfileDraft draft = new ProfileDraft();
+
+		for (String text : List.of("49", "301", "NaN", "tall", "")) {
+			assertEquals(StepFlow.Result.INVALID, flow.accept(ProfileStep.HEIGHT, text, draft), text);
+		}
+		assertEquals(StepFlow.Result.INVALID, flow.accept(ProfileStep.AGE, "30.5", draft));
+		assertEquals(StepFlow.Result.INVALID, flow.accept(ProfileStep.ACTIVITY_LEVEL, "6", draft));
+		assertEquals(StepFlow.Result.INVALID, flow.accept(ProfileStep.SEX, "0", draft));
+		assertEquals(0.0, draft.getHeight());
+		assertEquals(ProfileStep.BODY_FAT, ProfileStep.fromCallbackData("UPDATE_BODY_FAT"));
+		assertNull(ProfileStep.fromCallbackData("UPDATE_PROFILE_DONE"));
+	}
+
+	@Test
+	void everyStepMustBeDefined() {
+		StepFlow.Builder<ProfileStep, ProfileDraft> builder = StepFlow.<ProfileStep, ProfileDraft>builder(ProfileStep.class)
+				.step(ProfileStep.SEX, "question.sex", "error.sex.invalid", false, (text, draft) -> true);
+
+		assertThrows(IllegalStateException.class, builder::build);
+	}
+}
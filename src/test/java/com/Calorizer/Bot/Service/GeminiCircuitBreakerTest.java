@@ -0,0 +1,60 @@
+package com.Calorizer.Bot.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeminiCircuitBreakerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void opensWhenTheFailureRateReachesTheThreshold() {
+		GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(meterRegistry, 4, 4, 50, 100, 60, 3600, 1, 90);
+
+		breaker.tryAcquirePermit().onSuccess();
+		breaker.tryAcquirePermit().onFailure();
+		breaker.tryAcquirePermit().onSuccess();
+		assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.getState());
+		breaker.tryAcquirePermit().onFailure();
+
+		assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.isCallPermitted());
+		assertNull(breaker.tryAcquirePermit());
+		assertEquals(1.0, meterRegistry.get("bot.ai.breaker.not_permitted").counter().count());
+	}
+
+	@Test
+	void slowCallsOpenTheBreaker() {
+		GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(meterRegistry, 2, 2, 50, 100, 0, 3600, 1, 90);
+
+		breaker.tryAcquirePermit().onSuccess();
+		breaker.tryAcquirePermit().onSuccess();
+
+		assertEquals(GeminiCircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void halfOpenProbesDecideWhetherTheBreakerCloses() {
+		GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(meterRegistry, 2, 1, 50, 100, 60, 0, 2, 90);
+		breaker.tryAcquirePermit().onFailure();
+
+		GeminiCircuitBreaker.Permit firstProbe = breaker.tryAcquirePermit();
+		GeminiCircuitBreaker.Permit secondProbe = breaker.tryAcquirePermit();
+		assertEquals(GeminiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertNull(breaker.tryAcquirePermit());
+
+		secondProbe.release();
+		GeminiCircuitBreaker.Permit replacement = breaker.tryAcquirePermit();
+		assertNotNull(replacement);
+		firstProbe.onSuccess();
+		replacement.onSuccess();
+		replacement.onFailure();
+
+		assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.getState());
+	}
+}
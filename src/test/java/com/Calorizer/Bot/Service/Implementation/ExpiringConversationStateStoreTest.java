@@ -0,0 +1,91 @@
+package com.Calorizer.Bot.Service.Implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiringConversationStateStoreTest {
+
+	private static final long TTL = 1_000;
+
+	private final AtomicLong clock = new AtomicLong();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void accessRefreshesTtlAndIdleFlowsExpire() {
+		ExpiringConversationStateStore<String> store = store(10);
+		store.start(1L, "state");
+
+		clock.set(900);
+		assertEquals("state", store.get(1L));
+		clock.set(1_800);
+		assertTrue(store.contains(1L));
+		clock.set(1_900);
+		assertFalse(store.contains(1L));
+		assertNull(store.get(1L));
+
+		assertEquals(1.0, counter("bot.flows.expired"));
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	void sweepRemovesOnlyExpiredFlows() {
+		ExpiringConversationStateStore<String> store = store(10);
+		store.start(1L, "abandoned");
+		clock.set(500);
+		store.start(2L, "active");
+
+		clock.set(1_200);
+		assertEquals(1, store.sweep());
+		assertEquals(1, store.size());
+		assertEquals("active", store.get(2L));
+		assertEquals(1.0, meterRegistry.get("bot.flows.active").tag("flow", "test").gauge().value());
+	}
+
+	@Test
+	void completedAndDiscardedFlowsAreCountedSeparately() {
+		ExpiringConversationStateStore<String> store = store(10);
+		store.start(1L, "a");
+		store.start(2L, "b");
+
+		store.complete(1L);
+		store.discard(2L);
+		store.complete(3L);
+
+		assertEquals(2.0, counter("bot.flows.started"));
+		assertEquals(1.0, counter("bot.flows.completed"));
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	void fullStoreEvictsLeastRecentlyUsedFlow() {
+		ExpiringConversationStateStore<String> store = store(2);
+		store.start(1L, "oldest");
+		clock.set(100);
+		store.start(2L, "newer");
+		clock.set(200);
+		store.get(1L);
+
+		clock.set(300);
+		store.start(3L, "newest");
+
+		assertEquals(2, store.size());
+		assertEquals("oldest", store.get(1L));
+		assertNull(store.get(2L));
+		assertEquals(1.0, counter("bot.flows.evicted"));
+	}
+
+	private ExpiringConversationStateStore<String> store(int maxSize) {
+		return new ExpiringConversationStateStore<>("test", TTL, maxSize, meterRegistry, clock::get);
+	}
+
+	private double counter(String name) {
+		return meterRegistry.get(name).tag("flow", "test").counter().count();
+	}
+}
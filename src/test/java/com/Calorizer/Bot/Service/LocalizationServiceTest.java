@@ -0,0 +1,39 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.Language;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalizationServiceTest {
+
+	private final LocalizationService localizationService = new LocalizationService();
+
+	@BeforeEach
+	void setUp() {
+		localizationService.init();
+	}
+
+	@Test
+	void compiledTemplatesRenderExactlyLikeMessageFormat() {
+		for (Language language : Language.values()) {
+			ResourceBundle bundle = ResourceBundle.getBundle("messages/messages", language.getLocale());
+			for (String key : Collections.list(bundle.getKeys())) {
+				String pattern = bundle.getString(key);
+				assertEquals(MessageFormat.format(pattern, new Object[0]), localizationService.getTranslation(language, key), key);
+				assertEquals(MessageFormat.format(pattern, "a", 2), localizationService.getTranslation(language, key, "a", 2), key);
+			}
+		}
+	}
+
+	@Test
+	void missingKeyFallsBackToTheKey() {
+		assertEquals("no.such.key", localizationService.getTranslation(Language.German, "no.such.key"));
+		assertEquals("no.such.key", localizationService.getTranslation(Language.German, "no.such.key", 1));
+	}
+}
@@ -0,0 +1,56 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.MealPlan;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MealPlanParserTest {
+
+	private static final String PLAN = """
+			{"days":[{"title":"Monday","meals":[
+			  {"name":"Breakfast","items":[
+			    {"name":"Oatmeal","portion":"60 g","kcal":228.4,"protein":8,"fat":4.2,"carbs":40,"note":"ignored"},
+			    {"name":"Banana","portion":"1 piece","kcal":105,"protein":1.3,"fat":0.4,"carbs":27}]},
+			  {"name":"Dinner","items":[
+			    {"name":"Salmon","portion":"150 g","kcal":312,"protein":30,"fat":20,"carbs":0}]}]}]}
+			""";
+
+	private final MealPlanParser parser = new MealPlanParser();
+
+	@Test
+	void parsesPlanAndSumsTotalsFromItems() {
+		MealPlan plan = parser.parse(PLAN);
+
+		assertEquals(1, plan.days().size());
+		assertEquals(2, plan.days().getFirst().meals().size());
+		assertEquals(645.4, plan.totals().kcal(), 1e-9);
+		assertEquals(39.3, plan.days().getFirst().totals().protein(), 1e-9);
+	}
+
+	@Test
+	void rejectsMalformedAndInvalidPlans() {
+		assertThrows(MealPlanParser.MealPlanParseException.class, () -> parser.parse("{\"days\":["));
+		assertThrows(MealPlanParser.MealPlanParseException.class, () -> parser.parse("{\"days\":[]}"));
+		assertThrows(MealPlanParser.MealPlanParseException.class, () -> parser.parse(
+				"{\"days\":[{\"title\":\"Monday\",\"meals\":[{\"name\":\"Lunch\",\"items\":[]}]}]}"));
+		assertThrows(MealPlanParser.MealPlanParseException.class, () -> parser.parse(
+				"{\"days\":[{\"title\":\"Monday\",\"meals\":[{\"name\":\"Lunch\",\"items\":"
+						+ "[{\"name\":\"Rice\",\"portion\":\"100 g\",\"kcal\":-5,\"protein\":2,\"fat\":0,\"carbs\":28}]}]}]}"));
+	}
+
+	@Test
+	void rendersLocalizedTextWithRoundedTotals() {
+		LocalizationService localizationService = new LocalizationService();
+		localizationService.init();
+
+		String text = new MealPlanRenderer(localizationService).render(parser.parse(PLAN), Language.English);
+
+		assertTrue(text.startsWith("Monday\n\nBreakfast (333 kcal)\n• Oatmeal, 60 g: 228 kcal, P 8 g, F 4 g, C 40 g\n"), text);
+		assertTrue(text.contains("Day total: 645 kcal, P 39 g, F 25 g, C 67 g"), text);
+		assertTrue(text.endsWith(localizationService.getTranslation(Language.English, "mealplan.disclaimer")), text);
+	}
+}
@@ -0,0 +1,138 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.MainBot.Processing.AiWorkerPool;
+import com.Calorizer.Bot.MainBot.Processing.UserRateLimiter;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the streaming mode against a local stub of Gemini's {@code streamGenerateContent} endpoint,
+ * which answers with server-sent events like the real API.
+ */
+class NutritionRecommendationStreamingTest {
+
+	private static final List<String> CHUNKS = List.of("Breakfast: oatmeal. ", "Lunch: lentil soup. ", "Dinner: salmon.");
+
+	private final AtomicInteger stubRequests = new AtomicInteger();
+	private HttpServer stub;
+	private LocalizationService localizationService;
+	private RecommendationCache recommendationCache;
+	private AiWorkerPool aiWorkerPool;
+	private GeminiCircuitBreaker circuitBreaker;
+	private UserRateLimiter rateLimiter;
+	private NutritionRecommendationService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		stub.createContext("/", exchange -> {
+			stubRequests.incrementAndGet();
+			exchange.getRequestBody().readAllBytes();
+			StringBuilder events = new StringBuilder();
+			for (int i = 0; i < CHUNKS.size(); i++) {
+				String finish = i == CHUNKS.size() - 1 ? ",\"finishReason\":\"STOP\"" : "";
+				events.append("data: {\"candidates\":[{\"content\":{\"role\":\"model\",\"parts\":[{\"text\":\"")
+						.append(CHUNKS.get(i)).append("\"}]}").append(finish).append("}]}\r\n\r\n");
+			}
+			byte[] body = events.toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		stub.start();
+
+		localizationService = new LocalizationService();
+		localizationService.init();
+		recommendationCache = new RecommendationCache(new SimpleMeterRegistry(), true, 1_000_000, 60, 50);
+		circuitBreaker = new GeminiCircuitBreaker(new SimpleMeterRegistry(), 1, 1, 50, 100, 60, 3600, 1, 30);
+		rateLimiter = new UserRateLimiter(new SimpleMeterRegistry(), 1, 30, 10, 3, 10, 3, 20, 0.5, 1_000, 60);
+		aiWorkerPool = new AiWorkerPool(new SimpleMeterRegistry(), 4, 50, 1, 3, 60, 15);
+		service = new NutritionRecommendationService(localizationService, recommendationCache, new SimpleMeterRegistry(),
+				aiWorkerPool, circuitBreaker, new StaticRecommendationService(localizationService), rateLimiter, new MealPlanParser(), new MealPlanRenderer(localizationService),
+				"stub-key", "http://127.0.0.1:" + stub.getAddress().getPort(), true, false, false, 0, 0, 2);
+		ReflectionTestUtils.setField(service, "MODEL_ID", "stub-model");
+	}
+
+	@AfterEach
+	void tearDown() {
+		stub.stop(0);
+		aiWorkerPool.shutdown();
+		rateLimiter.shutdown();
+	}
+
+	@Test
+	void streamedChunksArriveInOrderAndCompleteTextIsCached() {
+		User user = user();
+
+		List<String> parts = service.streamNutritionRecommendation(user, "day", null, null).collectList().block();
+
+		assertEquals(CHUNKS, parts);
+		assertEquals(Optional.of(String.join("", CHUNKS)),
+				recommendationCache.get(recommendationCache.fingerprint(user, "day", null)));
+	}
+
+	@Test
+	void openBreakerAnswersWithTheStaticRecommendationWithoutCallingGemini() {
+		circuitBreaker.tryAcquirePermit().onFailure();
+		User user = user();
+
+		List<String> parts = service.streamNutritionRecommendation(user, "day", null, null).collectList().block();
+
+		assertEquals(GeminiCircuitBreaker.State.OPEN, circuitBreaker.getState());
+		assertEquals(1, parts.size());
+		assertTrue(parts.getFirst().endsWith(
+				localizationService.getTranslation(Language.English, "enum.goal.weight_loss.recommendation_static")));
+		assertEquals(0, stubRequests.get());
+	}
+
+	@Test
+	void openBreakerLeavesTheAiBucketUnchanged() {
+		User user = user();
+		assertEquals(0, rateLimiter.tryAcquire(UserRateLimiter.Limit.AI, user.getChatId()));
+		circuitBreaker.tryAcquirePermit().onFailure();
+
+		for (int i = 0; i < 3; i++) {
+			service.streamNutritionRecommendation(user, "day", null, null).collectList().block();
+		}
+
+		assertTrue(rateLimiter.tryAcquire(UserRateLimiter.Limit.AI, user.getChatId()) > 0,
+				"the open breaker must not give back a token that was never taken");
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setChatId(42L);
+		user.setLanguage(Language.English);
+		UserPhysicalData upd = new UserPhysicalData();
+		upd.setSex(Sex.FEMALE);
+		upd.setAge(31);
+		upd.setWeight(64);
+		upd.setHeight(170);
+		upd.setPhysicalActivityLevel(PhysicalActivityLevel.MODERATE);
+		upd.setMaingoal(MainGoal.WEIGHT_LOSS);
+		user.setUPD(upd);
+		return user;
+	}
+}
@@ -0,0 +1,138 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.MainBot.Processing.AiWorkerPool;
+import com.Calorizer.Bot.MainBot.Processing.UserRateLimiter;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs week plans against a local stub of Gemini's {@code generateContent} endpoint which answers each day with
+ * "Menu N", answers earlier days more slowly, and fails the configured days once.
+ */
+class NutritionRecommendationWeekFanOutTest {
+
+	private static final Pattern DAY = Pattern.compile("This is day (\\d) of");
+
+	private final AtomicInteger stubRequests = new AtomicInteger();
+	private final AtomicInteger concurrentRequests = new AtomicInteger();
+	private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+	private final Set<Integer> failOnce = ConcurrentHashMap.newKeySet();
+	private HttpServer stub;
+	private RecommendationCache recommendationCache;
+	private AiWorkerPool aiWorkerPool;
+	private UserRateLimiter rateLimiter;
+	private NutritionRecommendationService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		stub.setExecutor(Executors.newFixedThreadPool(8));
+		stub.createContext("/", exchange -> {
+			stubRequests.incrementAndGet();
+			maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+			String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			Matcher matcher = DAY.matcher(request);
+			int day = matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+			try {
+				Thread.sleep(20L * (8 - day));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			concurrentRequests.decrementAndGet();
+			int status = failOnce.remove(day) ? 500 : 200;
+			String json = status == 200
+					? "{\"candidates\":[{\"content\":{\"role\":\"model\",\"parts\":[{\"text\":\"Menu " + day + "\"}]},\"finishReason\":\"STOP\"}]}"
+					: "{\"error\":{\"code\":500,\"message\":\"stub failure\",\"status\":\"INTERNAL\"}}";
+			byte[] body = json.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		stub.start();
+
+		LocalizationService localizationService = new LocalizationService();
+		localizationService.init();
+		recommendationCache = new RecommendationCache(new SimpleMeterRegistry(), true, 1_000_000, 60, 50);
+		rateLimiter = new UserRateLimiter(new SimpleMeterRegistry(), 1, 30, 10, 3, 10, 3, 20, 0.5, 1_000, 60);
+		aiWorkerPool = new AiWorkerPool(new SimpleMeterRegistry(), 7, 50, 1, 3, 60, 15);
+		service = new NutritionRecommendationService(localizationService, recommendationCache, new SimpleMeterRegistry(),
+				aiWorkerPool, new GeminiCircuitBreaker(new SimpleMeterRegistry(), 20, 10, 50, 100, 60, 3600, 1, 30),
+				new StaticRecommendationService(localizationService), rateLimiter,
+				new MealPlanParser(), new MealPlanRenderer(localizationService),
+				"stub-key", "http://127.0.0.1:" + stub.getAddress().getPort(), true, false, true, 2, 10, 2);
+		ReflectionTestUtils.setField(service, "MODEL_ID", "stub-model");
+	}
+
+	@AfterEach
+	void tearDown() {
+		stub.stop(0);
+		aiWorkerPool.shutdown();
+		rateLimiter.shutdown();
+	}
+
+	@Test
+	void daysAreGeneratedConcurrentlyEmittedInOrderAndCached() {
+		User user = user();
+
+		List<String> parts = service.streamWeeklyRecommendation(user, null, null).collectList().block();
+
+		assertEquals(List.of("Menu 1", "\n\nMenu 2", "\n\nMenu 3", "\n\nMenu 4", "\n\nMenu 5", "\n\nMenu 6", "\n\nMenu 7"), parts);
+		assertEquals(7, stubRequests.get());
+		assertTrue(maxConcurrentRequests.get() <= 2, "week held more than bot.ai.week.parallel-days workers");
+		assertEquals(Optional.of(String.join("", parts)),
+				recommendationCache.get(recommendationCache.fingerprint(user, "week", null)));
+	}
+
+	@Test
+	void failedDayIsRetriedWithoutRepeatingTheOthers() {
+		failOnce.add(3);
+
+		List<String> parts = service.streamWeeklyRecommendation(user(), null, null).collectList().block();
+
+		assertEquals("\n\nMenu 3", parts.get(2));
+		assertEquals(8, stubRequests.get());
+		assertTrue(parts.stream().noneMatch(part -> part.contains("could not be generated")));
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setChatId(42L);
+		user.setLanguage(Language.English);
+		UserPhysicalData upd = new UserPhysicalData();
+		upd.setSex(Sex.FEMALE);
+		upd.setAge(31);
+		upd.setWeight(64);
+		upd.setHeight(170);
+		upd.setPhysicalActivityLevel(PhysicalActivityLevel.MODERATE);
+		upd.setMaingoal(MainGoal.WEIGHT_LOSS);
+		user.setUPD(upd);
+		return user;
+	}
+}
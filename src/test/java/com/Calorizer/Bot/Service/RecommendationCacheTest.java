@@ -0,0 +1,72 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.Allergen;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RecommendationCache cache = new RecommendationCache(meterRegistry, true, 1_000_000, 60, 50);
+
+	@Test
+	void similarProfilesShareAFingerprint() {
+		RecommendationCache.Fingerprint first = cache.fingerprint(
+				user(70.0, 175, List.of(Allergen.MILK, Allergen.EGGS)), "week", "  No pork. ");
+		RecommendationCache.Fingerprint second = cache.fingerprint(
+				user(70.3, 175, List.of(Allergen.EGGS, Allergen.MILK)), "Week", "no   pork");
+
+		assertEquals(first, second);
+	}
+
+	@Test
+	void differentCalorieTargetsOrAllergensDoNotShareAFingerprint() {
+		RecommendationCache.Fingerprint base = cache.fingerprint(user(70.0, 175, List.of()), "week", null);
+
+		assertNotEquals(base, cache.fingerprint(user(85.0, 175, List.of()), "week", null));
+		assertNotEquals(base, cache.fingerprint(user(70.0, 175, List.of(Allergen.SOY)), "week", null));
+		assertNotEquals(base, cache.fingerprint(user(70.0, 175, List.of()), "day", null));
+	}
+
+	@Test
+	void cachedTextIsReturnedUnchangedAndCountedAsHit() {
+		RecommendationCache.Fingerprint fingerprint = cache.fingerprint(user(70.0, 175, List.of()), "week", null);
+		String plan = "**День 1**\n- Breakfast: oatmeal (~400 kcal)\n".repeat(200);
+
+		assertEquals(Optional.empty(), cache.get(fingerprint));
+		cache.put(fingerprint, plan);
+
+		assertEquals(Optional.of(plan), cache.get(fingerprint));
+		assertEquals(0.5, meterRegistry.get("bot.recommendations.cache.hit.ratio").gauge().value());
+		assertTrue(meterRegistry.get("bot.recommendations.cache.bytes").gauge().value() < plan.length() / 10.0);
+	}
+
+	private static User user(double weight, double height, List<Allergen> allergens) {
+		User user = new User();
+		user.setChatId(1L);
+		user.setLanguage(Language.Ukrainian);
+		UserPhysicalData upd = new UserPhysicalData();
+		upd.setSex(Sex.MALE);
+		upd.setAge(30);
+		upd.setWeight(weight);
+		upd.setHeight(height);
+		upd.setPhysicalActivityLevel(PhysicalActivityLevel.LIGHT);
+		upd.setMaingoal(MainGoal.WEIGHT_LOSS);
+		upd.setAllergens(allergens);
+		user.setUPD(upd);
+		return user;
+	}
+}
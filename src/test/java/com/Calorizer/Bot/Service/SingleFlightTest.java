@@ -0,0 +1,68 @@
+package com.Calorizer.Bot.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+	@Test
+	void concurrentIdenticalCallsShareOneUpstreamCall() {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		Sinks.One<String> upstream = Sinks.one();
+		List<String> received = new CopyOnWriteArrayList<>();
+
+		for (int i = 0; i < 3; i++) {
+			singleFlight.execute("prompt", () -> {
+				upstreamCalls.incrementAndGet();
+				return upstream.asMono();
+			}).subscribe(received::add);
+		}
+		upstream.tryEmitValue("plan");
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(List.of("plan", "plan", "plan"), received);
+		assertEquals(2.0, meterRegistry.get("bot.singleflight.coalesced").counter().count());
+		assertEquals(0, singleFlight.inFlightCount());
+	}
+
+	@Test
+	void sharedCallIsCancelledOnlyAfterAllSubscribersCancel() {
+		AtomicInteger cancellations = new AtomicInteger();
+		Sinks.One<String> upstream = Sinks.one();
+
+		Disposable first = singleFlight.execute("prompt", () -> upstream.asMono().doOnCancel(cancellations::incrementAndGet)).subscribe();
+		Disposable second = singleFlight.execute("prompt", () -> upstream.asMono()).subscribe();
+		first.dispose();
+
+		assertEquals(0, cancellations.get());
+		assertEquals(1, singleFlight.inFlightCount());
+
+		second.dispose();
+
+		assertEquals(1, cancellations.get());
+		assertEquals(0, singleFlight.inFlightCount());
+	}
+
+	@Test
+	void finishedCallIsNotReused() {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+
+		singleFlight.execute("prompt", () -> Mono.just("first-" + upstreamCalls.incrementAndGet())).block();
+		String second = singleFlight.execute("prompt", () -> Mono.just("second-" + upstreamCalls.incrementAndGet())).block();
+
+		assertEquals("second-2", second);
+		assertEquals(2.0, meterRegistry.get("bot.singleflight.calls").counter().count());
+	}
+}
@@ -0,0 +1,117 @@
+package com.Calorizer.Bot.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import reactor.core.publisher.Flux;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamingReplyPublisherTest {
+
+	private final MessageSender messageSender = mock(MessageSender.class);
+	private final AbsSender absSender = mock(AbsSender.class);
+	// Current text of every message by message ID, in the order the messages were sent.
+	private final Map<Integer, String> chat = new LinkedHashMap<>();
+	private final List<String> operations = new ArrayList<>();
+	private final AtomicInteger nextMessageId = new AtomicInteger(1);
+	private StreamingReplyPublisher publisher;
+
+	@AfterEach
+	void tearDown() {
+		publisher.shutdown();
+	}
+
+	@Test
+	void placeholderIsReplacedByTheStreamedText() {
+		publisher = new StreamingReplyPublisher(messageSender, 0);
+		recordChat();
+
+		publisher.publish(absSender, 1L, "Generating...", Flux.just("Breakfast: oats. ", "Lunch: soup."));
+
+		assertEquals(List.of("Breakfast: oats. Lunch: soup."), new ArrayList<>(chat.values()));
+		assertEquals("send:Generating...", operations.getFirst());
+	}
+
+	@Test
+	void longTextRollsOverIntoNewMessagesAtTheLimit() {
+		publisher = new StreamingReplyPublisher(messageSender, 0);
+		recordChat();
+		List<String> parts = new ArrayList<>();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			String line = "Day " + (i / 40 + 1) + ", meal " + i + ": grilled chicken with rice (~500 kcal)\n";
+			parts.add(line);
+			expected.append(line);
+		}
+
+		publisher.publish(absSender, 1L, "Generating...", Flux.fromIterable(parts));
+
+		List<String> messages = new ArrayList<>(chat.values());
+		assertEquals(expected.toString(), String.join("", messages));
+		assertTrue(messages.size() >= 5, "expected rollover into several messages, got " + messages.size());
+		for (String message : messages) {
+			assertTrue(message.length() <= 4096, "message exceeds the limit: " + message.length());
+		}
+	}
+
+	@Test
+	void editsAreThrottled() {
+		publisher = new StreamingReplyPublisher(messageSender, 60_000);
+		recordChat();
+
+		publisher.publish(absSender, 1L, "Generating...", Flux.range(0, 100).map(i -> "part " + i + " "));
+
+		// Placeholder plus the final edit on completion; the intermediate parts are coalesced.
+		assertEquals(2, operations.size(), operations::toString);
+	}
+
+	@Test
+	void failedSendIsRetriedAsANewMessageByTheNextUpdate() {
+		publisher = new StreamingReplyPublisher(messageSender, 0);
+		recordChat();
+		when(messageSender.sendMessage(any(AbsSender.class), any(SendMessage.class)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Bad Gateway")))
+				.thenAnswer(this::recordSend);
+
+		publisher.publish(absSender, 1L, "Generating...", Flux.just("Breakfast: oats. ", "Lunch: soup."));
+
+		assertEquals(List.of("Breakfast: oats. Lunch: soup."), new ArrayList<>(chat.values()));
+		assertTrue(operations.getFirst().startsWith("send:"), operations::toString);
+	}
+
+	private void recordChat() {
+		when(messageSender.sendMessage(any(AbsSender.class), any(SendMessage.class))).thenAnswer(this::recordSend);
+		when(messageSender.editMessage(any(AbsSender.class), any(EditMessageText.class))).thenAnswer(invocation -> {
+			EditMessageText edit = invocation.getArgument(1);
+			chat.put(edit.getMessageId(), edit.getText());
+			operations.add("edit:" + edit.getMessageId());
+			return CompletableFuture.<Serializable>completedFuture(Boolean.TRUE);
+		});
+	}
+
+	private CompletableFuture<Message> recordSend(InvocationOnMock invocation) {
+		SendMessage send = invocation.getArgument(1);
+		Message message = new Message();
+		message.setMessageId(nextMessageId.getAndIncrement());
+		chat.put(message.getMessageId(), send.getText());
+		operations.add("send:" + send.getText());
+		return CompletableFuture.completedFuture(message);
+	}
+}
@@ -0,0 +1,87 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Repository.UserRepository;
+import com.Calorizer.Bot.Service.Interface.UserServiceInt;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TelegramBotCommandsUpdaterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AbsSender absSender = mock(AbsSender.class);
+	private final UserServiceInt userService = mock(UserServiceInt.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final TelegramBotCommandsUpdater updater;
+
+	TelegramBotCommandsUpdaterTest() {
+		LocalizationService localizationService = new LocalizationService();
+		localizationService.init();
+		updater = new TelegramBotCommandsUpdater(localizationService, userService, userRepository,
+				new UserCache(null, meterRegistry, false, 0, 0), meterRegistry, 3, 10);
+	}
+
+	@AfterEach
+	void tearDown() {
+		updater.shutdown();
+	}
+
+	@Test
+	void unchangedCommandListIsNotPushedAgain() throws Exception {
+		when(absSender.executeAsync(any(SetMyCommands.class))).thenReturn(CompletableFuture.completedFuture(true));
+		User user = user();
+
+		updater.updateCommands(absSender, user, Language.German);
+		updater.updateCommands(absSender, user, Language.German);
+
+		verify(absSender, times(1)).executeAsync(any(SetMyCommands.class));
+		verify(userService, times(1)).save(user);
+		assertEquals(Language.German, user.getCommandsLanguage());
+		assertEquals(1.0, meterRegistry.get("bot.commands.updates").tag("outcome", "skipped").counter().count());
+	}
+
+	@Test
+	void failedPushIsRetriedInTheBackground() throws Exception {
+		when(absSender.executeAsync(any(SetMyCommands.class)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Too Many Requests")))
+				.thenReturn(CompletableFuture.completedFuture(true));
+
+		updater.updateCommands(absSender, user(), Language.English);
+
+		verify(absSender, timeout(1_000).times(2)).executeAsync(any(SetMyCommands.class));
+		verify(userRepository, never()).clearCommandsLanguage(42L, Language.English);
+	}
+
+	@Test
+	void pushFailingOnEveryAttemptClearsTheStoredLanguage() throws Exception {
+		when(absSender.executeAsync(any(SetMyCommands.class)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Bad Gateway")));
+
+		updater.updateCommands(absSender, user(), Language.English);
+
+		verify(userRepository, timeout(1_000)).clearCommandsLanguage(42L, Language.English);
+		verify(absSender, times(3)).executeAsync(any(SetMyCommands.class));
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setChatId(42L);
+		user.setLanguage(Language.English);
+		return user;
+	}
+}
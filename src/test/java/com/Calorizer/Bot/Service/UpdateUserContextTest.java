@@ -0,0 +1,199 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.MainBot.CallbackCallback.LanguageCallback;
+import com.Calorizer.Bot.MainBot.CommandHandler.ProfileHandler;
+import com.Calorizer.Bot.MainBot.KeyboardFactory;
+import com.Calorizer.Bot.MainBot.Processing.OutboundMessageDispatcher;
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.Enum.MainGoal;
+import com.Calorizer.Bot.Model.Enum.PhysicalActivityLevel;
+import com.Calorizer.Bot.Model.Enum.Sex;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Model.UserPhysicalData;
+import com.Calorizer.Bot.Repository.UserPhysicalDataRepository;
+import com.Calorizer.Bot.Repository.UserRepository;
+import com.Calorizer.Bot.Service.Implementation.UserServiceImpl;
+import com.Calorizer.Bot.Service.Interface.UserServiceInt;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Counts the SQL statements issued while handling a single command inside an update scope
+ * and checks that replies wait for the save at the end of the scope.
+ */
+@DataJpaTest(properties = {
+		"spring.liquibase.enabled=false",
+		"bot.user-cache.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.datasource.url=jdbc:h2:mem:calorizer;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserServiceImpl.class, UpdateUserContext.class, UserCache.class, LocalizationService.class, SimpleMeterRegistry.class,
+		OutboundMessageDispatcher.class})
+class UpdateUserContextTest {
+
+	private static final long CHAT_ID = 123456789L;
+
+	@Autowired
+	private UserServiceInt userService;
+	@Autowired
+	private UpdateUserContext updateUserContext;
+	@Autowired
+	private LocalizationService localizationService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private UserPhysicalDataRepository userPhysicalDataRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final AbsSender absSender = mock(AbsSender.class);
+	private final MessageSender messageSender = mock(MessageSender.class);
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		userPhysicalDataRepository.deleteAll();
+		userRepository.deleteAll();
+
+		User user = new User();
+		user.setChatId(CHAT_ID);
+		user.setLanguage(Language.English);
+		user.setPayedAcc(true);
+
+		UserPhysicalData upd = new UserPhysicalData();
+		upd.setUser(user);
+		upd.setSex(Sex.MALE);
+		upd.setPhysicalActivityLevel(PhysicalActivityLevel.MODERATE);
+		upd.setWeight(80);
+		upd.setHeight(180);
+		upd.setAge(30);
+		upd.setMaingoal(MainGoal.Maintenance);
+		upd.setBodyFatPercent(15);
+		upd.setAllergens(new ArrayList<>());
+		user.setUPD(upd);
+		userRepository.save(user);
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void profileCommandLoadsUserOnce() {
+		ProfileHandler handler = new ProfileHandler(userService, messageSender, localizationService,
+				new KeyboardFactory(localizationService));
+
+		updateUserContext.runInScope(() -> handler.handle(absSender, textUpdate("/profile")));
+
+		// One select for the user and one for its physical data; no writes.
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void languageCallbackLoadsAndSavesUserOnce() {
+		LanguageCallback callback = new LanguageCallback(userService, localizationService, messageSender,
+				mock(TelegramBotCommandsUpdater.class), new KeyboardFactory(localizationService));
+
+		updateUserContext.runInScope(() -> callback.handle(absSender, callbackUpdate("SET_LANGUAGE_German")));
+
+		// Load (user + physical data), then a single merge at the end of the update: select and update.
+		assertEquals(4, statistics.getPrepareStatementCount());
+		assertEquals(Language.German, userRepository.findByChatId(CHAT_ID).orElseThrow().getLanguage());
+	}
+
+	@Test
+	void newPhysicalDataIsWrittenWithItsUserAtTheEndOfTheUpdate() {
+		long newChatId = 987654321L;
+
+		updateUserContext.runInScope(() -> {
+			userService.getOrCreateUser(newChatId);
+			userService.getProfileMessage(newChatId);
+			assertFalse(userPhysicalDataRepository.existsById(newChatId));
+		});
+
+		assertNotNull(userPhysicalDataRepository.findById(newChatId).orElse(null));
+	}
+
+	@Test
+	void repliesAreHeldUntilSavedAndReplacedByAnErrorIfSavingFails() {
+		UserCache failingCache = mock(UserCache.class);
+		doThrow(new IllegalStateException("database down")).when(failingCache).save(any(User.class));
+		OutboundMessageDispatcher dispatcher = mock(OutboundMessageDispatcher.class);
+		UpdateUserContext context = new UpdateUserContext(failingCache, localizationService, dispatcher);
+		User user = new User();
+		user.setChatId(CHAT_ID);
+		user.setLanguage(Language.English);
+		AtomicInteger sent = new AtomicInteger();
+		CompletableFuture<?>[] reply = new CompletableFuture<?>[1];
+
+		context.runInScope(() -> {
+			context.markDirty(user);
+			reply[0] = context.sendAfterSave(absSender, () -> CompletableFuture.completedFuture(sent.incrementAndGet()));
+			assertEquals(0, sent.get());
+		});
+
+		assertEquals(0, sent.get());
+		assertTrue(reply[0].isCompletedExceptionally());
+		ArgumentCaptor<SendMessage> error = ArgumentCaptor.forClass(SendMessage.class);
+		verify(dispatcher).submit(eq(absSender), eq(CHAT_ID), error.capture());
+		assertEquals(localizationService.getTranslation(Language.English, "error.generic"), error.getValue().getText());
+	}
+
+	private Update textUpdate(String text) {
+		Message message = new Message();
+		message.setChat(new Chat(CHAT_ID, "private"));
+		message.setText(text);
+		Update update = new Update();
+		update.setMessage(message);
+		return update;
+	}
+
+	private Update callbackUpdate(String data) {
+		Message message = new Message();
+		message.setChat(new Chat(CHAT_ID, "private"));
+		CallbackQuery callbackQuery = new CallbackQuery();
+		callbackQuery.setMessage(message);
+		callbackQuery.setData(data);
+		Update update = new Update();
+		update.setCallbackQuery(callbackQuery);
+		return update;
+	}
+}
@@ -0,0 +1,72 @@
+package com.Calorizer.Bot.Service;
+
+import com.Calorizer.Bot.Model.Enum.Language;
+import com.Calorizer.Bot.Model.User;
+import com.Calorizer.Bot.Repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheTest {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void repeatedReadsAreServedFromCache() {
+		UserCache cache = new UserCache(userRepository, meterRegistry, true, 100, 30);
+		when(userRepository.findByChatId(1L)).thenReturn(Optional.of(user(1L, Language.English)));
+
+		cache.findByChatId(1L);
+		cache.findByChatId(1L);
+		cache.findByChatId(1L);
+
+		verify(userRepository, times(1)).findByChatId(1L);
+		assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count());
+	}
+
+	@Test
+	void saveWritesThroughAndFailedSaveInvalidates() {
+		UserCache cache = new UserCache(userRepository, meterRegistry, true, 100, 30);
+		User saved = user(1L, Language.German);
+		when(userRepository.save(any(User.class))).thenReturn(saved);
+
+		cache.save(user(1L, Language.German));
+		assertSame(saved, cache.findByChatId(1L).orElseThrow());
+		verify(userRepository, times(0)).findByChatId(1L);
+
+		when(userRepository.save(any(User.class))).thenThrow(new IllegalStateException("db down"));
+		when(userRepository.findByChatId(1L)).thenReturn(Optional.of(user(1L, Language.English)));
+		assertThrows(IllegalStateException.class, () -> cache.save(saved));
+		assertEquals(Language.English, cache.findByChatId(1L).orElseThrow().getLanguage());
+	}
+
+	@Test
+	void disabledCacheAlwaysReadsFromDatabase() {
+		UserCache cache = new UserCache(userRepository, meterRegistry, false, 100, 30);
+		when(userRepository.findByChatId(1L)).thenReturn(Optional.of(user(1L, Language.English)));
+
+		cache.findByChatId(1L);
+		cache.findByChatId(1L);
+
+		verify(userRepository, times(2)).findByChatId(1L);
+	}
+
+	private User user(long chatId, Language language) {
+		User user = new User();
+		user.setChatId(chatId);
+		user.setLanguage(language);
+		return user;
+	}
+}